@@ -0,0 +1,69 @@
+package com.kreative.polyhedra;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a sequence of operations, combining each run of two or more
+ * consecutive affine operations into a single transformation so that only
+ * one polyhedron is built for the whole run. An operation is affine if its
+ * <code>getAffineTransform</code> method returns non-null. The center
+ * passed to each operation in a run is the center of the original seed
+ * mapped through the transformations before it, so results may differ in
+ * the last bits from applying the operations one at a time. The number of
+ * polyhedra not built is counted across all pipelines. Fusion is enabled
+ * by default and can be disabled with <code>setEnabled(false)</code> or by
+ * setting the system property <code>com.kreative.polyhedra.affinefusion</code>
+ * to false.
+ */
+public final class AffineFusion {
+	private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("com.kreative.polyhedra.affinefusion"));
+	private static final AtomicLong passesSaved = new AtomicLong();
+	
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	public static void setEnabled(boolean enabled) {
+		AffineFusion.enabled = enabled;
+	}
+	
+	/** Returns the number of intermediate polyhedra that fused runs did not build. */
+	public static long getPassesSaved() {
+		return passesSaved.get();
+	}
+	
+	public static void resetCounters() {
+		passesSaved.set(0);
+	}
+	
+	/** Applies the specified operations to the seed in order. */
+	public static Polyhedron apply(List<? extends PolyhedronOp> ops, Polyhedron seed) {
+		int n = ops.size();
+		boolean[] affine = new boolean[n];
+		if (enabled) {
+			for (int i = 0; i < n; i++) {
+				affine[i] = ops.get(i).getAffineTransform(Point3D.ZERO) != null;
+			}
+		}
+		int i = 0;
+		while (i < n && seed != null) {
+			int end = i;
+			while (end < n && affine[end]) end++;
+			if (end - i < 2) {
+				seed = ops.get(i).op(seed);
+				i++;
+				continue;
+			}
+			Point3D center = seed.center();
+			AffineTransform3D tx = AffineTransform3D.IDENTITY;
+			for (int j = i; j < end; j++) {
+				tx = tx.preConcatenate(ops.get(j).getAffineTransform(tx.transform(center)));
+			}
+			seed = new Polyhedron(seed, tx);
+			passesSaved.addAndGet(end - i - 1);
+			i = end;
+		}
+		return seed;
+	}
+}
\ No newline at end of file
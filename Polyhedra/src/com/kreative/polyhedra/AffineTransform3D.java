@@ -403,4 +403,35 @@ public class AffineTransform3D extends PointTransform3D {
 		double z1 = m20 * point.getX() + m21 * point.getY() + m22 * point.getZ() + m23;
 		return new Point3D(x1, y1, z1);
 	}
+	
+	public void transform(double[] src, int srcOff, double[] dst, int dstOff, int count) {
+		int step = 3;
+		if (src == dst && dstOff > srcOff) {
+			// Work backwards so overlapping input is read before it is overwritten.
+			srcOff += (count - 1) * 3;
+			dstOff += (count - 1) * 3;
+			step = -3;
+		}
+		double m00 = this.m00, m01 = this.m01, m02 = this.m02, m03 = this.m03;
+		double m10 = this.m10, m11 = this.m11, m12 = this.m12, m13 = this.m13;
+		double m20 = this.m20, m21 = this.m21, m22 = this.m22, m23 = this.m23;
+		for (int i = 0, s = srcOff, d = dstOff; i < count; i++, s += step, d += step) {
+			double x = src[s], y = src[s + 1], z = src[s + 2];
+			dst[d] = m00 * x + m01 * y + m02 * z + m03;
+			dst[d + 1] = m10 * x + m11 * y + m12 * z + m13;
+			dst[d + 2] = m20 * x + m21 * y + m22 * z + m23;
+		}
+	}
+	
+	public void transform(double[] x, double[] y, double[] z, int off, int count) {
+		double m00 = this.m00, m01 = this.m01, m02 = this.m02, m03 = this.m03;
+		double m10 = this.m10, m11 = this.m11, m12 = this.m12, m13 = this.m13;
+		double m20 = this.m20, m21 = this.m21, m22 = this.m22, m23 = this.m23;
+		for (int i = off, end = off + count; i < end; i++) {
+			double xi = x[i], yi = y[i], zi = z[i];
+			x[i] = m00 * xi + m01 * yi + m02 * zi + m03;
+			y[i] = m10 * xi + m11 * yi + m12 * zi + m13;
+			z[i] = m20 * xi + m21 * yi + m22 * zi + m23;
+		}
+	}
 }
\ No newline at end of file
@@ -4,14 +4,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 public class Convert {
 	public static void printHelp() {
 		System.err.println("Usage:");
-		System.err.println("  convert [<input-format>] <input-file> [<output-format>] <output-file>");
-		System.err.println("  convert [<input-format>] <input-file> <output-format> -");
-		System.err.println("  convert <input-format> - [<output-format>] <output-file>");
-		System.err.println("  convert <input-format> - <output-format> -");
+		System.err.println("  convert [<options>] [<input-format>] <input-file> [<output-format>] <output-file>");
+		System.err.println("  convert [<options>] [<input-format>] <input-file> <output-format> -");
+		System.err.println("  convert [<options>] <input-format> - [<output-format>] <output-file>");
+		System.err.println("  convert [<options>] <input-format> - <output-format> -");
+		System.err.println();
+		System.err.println("Options:");
+		System.err.println("  --weld               merge coincident vertices and drop degenerate faces");
+		System.err.println("  --weld=<tolerance>   merge vertices within the specified distance");
 		System.err.println();
 		System.err.println("Formats:");
 		for (Format format : Format.values()) {
@@ -33,8 +38,23 @@ public class Convert {
 		Format outputFormat;
 		File inputFile;
 		File outputFile;
+		Double weld = null;
 		int argi = 0;
 		
+		// Options
+		while (argi < args.length && args[argi].startsWith("--weld")) {
+			String arg = args[argi++];
+			if (arg.equals("--weld")) {
+				weld = PointSet.DEFAULT_EPSILON;
+			} else if (arg.startsWith("--weld=")) {
+				try { weld = Double.parseDouble(arg.substring(7)); }
+				catch (NumberFormatException e) { printHelp(); return; }
+			} else {
+				printHelp();
+				return;
+			}
+		}
+		
 		// Input file
 		if (argi < args.length) {
 			String arg = args[argi++];
@@ -95,56 +115,71 @@ public class Convert {
 			return;
 		}
 		
-		convert(inputFormat, inputFile, outputFormat, outputFile);
+		convert(inputFormat, inputFile, outputFormat, outputFile, weld);
 	}
 	
 	public static void convert(Format inputFormat, File inputFile, Format outputFormat, File outputFile) {
+		convert(inputFormat, inputFile, outputFormat, outputFile, null);
+	}
+	
+	/** Converts as above, welding vertices on load if <code>weld</code> is not null. */
+	public static void convert(Format inputFormat, File inputFile, Format outputFormat, File outputFile, Double weld) {
 		if (inputFile == null) {
-			Polyhedron p = inputFormat.read(System.in);
-			writeOne("standard input", p, outputFormat, outputFile);
+			try {
+				PolyhedronBuffer b = read(inputFormat, System.in, weld);
+				writeOne("standard input", b, outputFormat, outputFile);
+			} catch (IllegalArgumentException e) {
+				System.err.println("Error: Cannot read from standard input: " + e.getMessage());
+			}
 		} else if (inputFile.isDirectory()) {
-			convertMany(inputFormat, inputFile, outputFormat, outputFile);
+			convertMany(inputFormat, inputFile, outputFormat, outputFile, weld);
 		} else {
-			convertOne(inputFormat, inputFile, outputFormat, outputFile);
+			convertOne(inputFormat, inputFile, outputFormat, outputFile, weld);
 		}
 	}
 	
-	private static void convertMany(Format inputFormat, File inputFile, Format outputFormat, File outputFile) {
+	private static PolyhedronBuffer read(Format format, InputStream in, Double weld) {
+		return (weld != null) ? format.readBuffer(in, weld) : format.readBuffer(in);
+	}
+	
+	private static void convertMany(Format inputFormat, File inputFile, Format outputFormat, File outputFile, Double weld) {
 		if (!outputFile.exists()) outputFile.mkdir();
 		for (File child : inputFile.listFiles()) {
 			String childName = child.getName();
 			if (!childName.startsWith(".")) {
 				if (child.isDirectory()) {
-					convertMany(inputFormat, child, outputFormat, new File(outputFile, childName));
+					convertMany(inputFormat, child, outputFormat, new File(outputFile, childName), weld);
 				} else {
 					int o = childName.lastIndexOf('.');
 					if (o > 0) childName = childName.substring(0, o);
 					childName += outputFormat.getExtension();
-					convertOne(inputFormat, child, outputFormat, new File(outputFile, childName));
+					convertOne(inputFormat, child, outputFormat, new File(outputFile, childName), weld);
 				}
 			}
 		}
 	}
 	
-	private static void convertOne(Format inputFormat, File inputFile, Format outputFormat, File outputFile) {
+	private static void convertOne(Format inputFormat, File inputFile, Format outputFormat, File outputFile, Double weld) {
 		try {
 			FileInputStream in = new FileInputStream(inputFile);
-			Polyhedron p = inputFormat.read(in);
+			PolyhedronBuffer b = read(inputFormat, in, weld);
 			in.close();
-			writeOne(inputFile.getName(), p, outputFormat, outputFile);
+			writeOne(inputFile.getName(), b, outputFormat, outputFile);
 		} catch (IOException e) {
 			System.err.println("Error: Cannot read from " + inputFile.getName() + ": " + e);
+		} catch (IllegalArgumentException e) {
+			System.err.println("Error: Cannot read from " + inputFile.getName() + ": " + e.getMessage());
 		}
 	}
 	
-	private static void writeOne(String source, Polyhedron p, Format outputFormat, File outputFile) {
-		if (p != null) {
+	private static void writeOne(String source, PolyhedronBuffer b, Format outputFormat, File outputFile) {
+		if (b != null) {
 			if (outputFile == null) {
-				outputFormat.write(p, System.out);
+				outputFormat.writeBuffer(b, System.out);
 			} else {
 				try {
 					FileOutputStream out = new FileOutputStream(outputFile);
-					outputFormat.write(p, out);
+					outputFormat.writeBuffer(b, out);
 					out.close();
 				} catch (IOException e) {
 					System.err.println("Error: Cannot write to " + outputFile.getName() + ": " + e);
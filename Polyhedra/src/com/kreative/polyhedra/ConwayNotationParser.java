@@ -1,6 +1,7 @@
 package com.kreative.polyhedra;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 public class ConwayNotationParser {
 	public static final class Repeater extends PolyhedronOp {
@@ -11,8 +12,7 @@ public class ConwayNotationParser {
 			this.repeat = repeat;
 		}
 		public Polyhedron op(Polyhedron seed) {
-			for (int i = 0; i < repeat; i++) seed = op.op(seed);
-			return seed;
+			return AffineFusion.apply(Collections.nCopies(repeat, op), seed);
 		}
 	}
 	
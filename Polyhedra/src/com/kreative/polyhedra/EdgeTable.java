@@ -0,0 +1,87 @@
+package com.kreative.polyhedra;
+
+/**
+ * Open-addressed hash table mapping an undirected edge, keyed on
+ * its (min, max) vertex index pair, to the index of that edge.
+ */
+final class EdgeTable {
+	private long[] keys;
+	private int[] values;
+	private int size;
+	public EdgeTable(int expected) {
+		int capacity = 16;
+		while (capacity < expected * 2) capacity <<= 1;
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+		this.size = 0;
+	}
+	private static long key(int i, int j) {
+		return (i < j) ? ((((long)i) << 32) | j) : ((((long)j) << 32) | i);
+	}
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int)key;
+	}
+	public int size() {
+		return size;
+	}
+	long estimateBytes() {
+		return PolyhedronStats.objectBytes(12) + PolyhedronStats.arrayBytes(8, keys.length) + PolyhedronStats.arrayBytes(4, values.length);
+	}
+	/** Returns the index of the edge between vertices i and j, or -1 if there is none. */
+	public int get(int i, int j) {
+		long key = key(i, j) + 1;
+		int mask = keys.length - 1;
+		for (int h = hash(key) & mask; keys[h] != 0; h = (h + 1) & mask) {
+			if (keys[h] == key) return values[h];
+		}
+		return -1;
+	}
+	/** Maps the edge between vertices i and j to the specified index and returns true if it was absent. */
+	public boolean add(int i, int j, int index) {
+		long key = key(i, j) + 1;
+		int mask = keys.length - 1;
+		int h = hash(key) & mask;
+		while (keys[h] != 0) {
+			if (keys[h] == key) return false;
+			h = (h + 1) & mask;
+		}
+		keys[h] = key;
+		values[h] = index;
+		if (++size * 2 > keys.length) rehash();
+		return true;
+	}
+	/**
+	 * Returns the index of the edge between vertices i and j,
+	 * first mapping it to the specified index if it was absent.
+	 */
+	public int intern(int i, int j, int index) {
+		long key = key(i, j) + 1;
+		int mask = keys.length - 1;
+		int h = hash(key) & mask;
+		while (keys[h] != 0) {
+			if (keys[h] == key) return values[h];
+			h = (h + 1) & mask;
+		}
+		keys[h] = key;
+		values[h] = index;
+		if (++size * 2 > keys.length) rehash();
+		return index;
+	}
+	private void rehash() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length << 1];
+		values = new int[oldValues.length << 1];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == 0) continue;
+			int h = hash(oldKeys[i]) & mask;
+			while (keys[h] != 0) h = (h + 1) & mask;
+			keys[h] = oldKeys[i];
+			values[h] = oldValues[i];
+		}
+	}
+}
\ No newline at end of file
@@ -16,6 +16,12 @@ public enum Format {
 		public void write(Polyhedron p, OutputStream out) {
 			new OFFWriter(out).writePolyhedron(p);
 		}
+		public PolyhedronBuffer readBuffer(InputStream in) {
+			return new OFFReader(in).readBuffer();
+		}
+		public void writeBuffer(PolyhedronBuffer b, OutputStream out) {
+			new OFFWriter(out).writeBuffer(b);
+		}
 	},
 	MCCOOEY(".txt", "txt", "mccooey", "dmccooey") {
 		public Polyhedron read(InputStream in) {
@@ -40,6 +46,12 @@ public enum Format {
 		public void write(Polyhedron p, OutputStream out) {
 			new ObjWriter(out).writePolyhedron(p);
 		}
+		public PolyhedronBuffer readBuffer(InputStream in) {
+			return new ObjReader(in).readBuffer(Color.gray);
+		}
+		public void writeBuffer(PolyhedronBuffer b, OutputStream out) {
+			new ObjWriter(out).writeBuffer(b);
+		}
 	};
 	
 	private final List<String> names;
@@ -50,6 +62,21 @@ public enum Format {
 	public abstract Polyhedron read(InputStream in);
 	public abstract void write(Polyhedron p, OutputStream out);
 	
+	public PolyhedronBuffer readBuffer(InputStream in) {
+		Polyhedron p = read(in);
+		return (p != null) ? new PolyhedronBuffer(p) : null;
+	}
+	
+	public void writeBuffer(PolyhedronBuffer b, OutputStream out) {
+		write(new Polyhedron(b), out);
+	}
+	
+	/** Reads a polyhedron, merging vertices within the specified tolerance of each other. */
+	public final PolyhedronBuffer readBuffer(InputStream in, double weldEpsilon) {
+		PolyhedronBuffer b = readBuffer(in);
+		return (b != null) ? b.weld(weldEpsilon) : null;
+	}
+	
 	public final String getExtension() {
 		return names.get(0);
 	}
@@ -0,0 +1,163 @@
+package com.kreative.polyhedra;
+
+import java.util.Arrays;
+
+/**
+ * An index-based half-edge view of the topology of a polyhedron.
+ * Each face contributes one half-edge per side, numbered consecutively
+ * in winding order starting from <code>faceStart(f)</code>. Half-edge h
+ * runs from vertex <code>origin(h)</code> to vertex <code>target(h)</code>
+ * along edge <code>edge(h)</code> of face <code>face(h)</code>. Vertices,
+ * edges, and faces are identified by their indices in the parent polyhedron.
+ * Instances are immutable and are obtained from <code>Polyhedron.getHalfEdgeMesh()</code>.
+ */
+public final class HalfEdgeMesh {
+	private final int[] origin;
+	private final int[] edge;
+	private final int[] face;
+	private final int[] next;
+	private final int[] prev;
+	private final int[] twin;
+	private final int[] faceStart;
+	private final int[] vertexStart;
+	private final int[] vertexHalfEdges;
+	private final int[] outgoingSlot;
+	private final int[] edgeStart;
+	private final int[] edgeHalfEdges;
+	private final boolean[] manifold;
+	
+	HalfEdgeMesh(Polyhedron p) {
+		int vn = p.vertices.size();
+		int en = p.edges.size();
+		int fn = p.faces.size();
+		faceStart = new int[fn + 1];
+		for (int f = 0; f < fn; f++) {
+			faceStart[f + 1] = faceStart[f] + p.faces.get(f).vertices.size();
+		}
+		int hn = faceStart[fn];
+		origin = new int[hn];
+		edge = new int[hn];
+		face = new int[hn];
+		next = new int[hn];
+		prev = new int[hn];
+		twin = new int[hn];
+		vertexStart = new int[vn + 1];
+		edgeStart = new int[en + 1];
+		for (int f = 0; f < fn; f++) {
+			Polyhedron.Face pf = p.faces.get(f);
+			int start = faceStart[f], m = faceStart[f + 1] - start;
+			for (int i = 0; i < m; i++) {
+				int h = start + i;
+				origin[h] = pf.vertices.get(i).index;
+				edge[h] = p.edgeIndex(pf.edges.get(i));
+				face[h] = f;
+				next[h] = start + (i + 1) % m;
+				prev[h] = start + (i + m - 1) % m;
+				vertexStart[origin[h] + 1]++;
+				edgeStart[edge[h] + 1]++;
+			}
+		}
+		// Outgoing half-edges of each vertex and half-edges along each edge, in half-edge order.
+		for (int v = 0; v < vn; v++) vertexStart[v + 1] += vertexStart[v];
+		for (int e = 0; e < en; e++) edgeStart[e + 1] += edgeStart[e];
+		vertexHalfEdges = new int[hn];
+		outgoingSlot = new int[hn];
+		edgeHalfEdges = new int[hn];
+		int[] vertexFill = Arrays.copyOf(vertexStart, vn);
+		int[] edgeFill = Arrays.copyOf(edgeStart, en);
+		for (int h = 0; h < hn; h++) {
+			int i = vertexFill[origin[h]]++;
+			vertexHalfEdges[i] = h;
+			outgoingSlot[h] = i - vertexStart[origin[h]];
+			edgeHalfEdges[edgeFill[edge[h]]++] = h;
+		}
+		// The twin of a half-edge is the first half-edge running the opposite way along the same edge.
+		for (int h = 0; h < hn; h++) {
+			int t = -1, tv = origin[next[h]];
+			for (int i = edgeStart[edge[h]], n = edgeStart[edge[h] + 1]; i < n; i++) {
+				int g = edgeHalfEdges[i];
+				if (g != h && origin[g] == tv) { t = g; break; }
+			}
+			twin[h] = t;
+		}
+		// A vertex is manifold if no face visits it twice and no edge at it has more than two sides.
+		manifold = new boolean[vn];
+		for (int v = 0; v < vn; v++) {
+			boolean m = true;
+			for (int i = vertexStart[v], n = vertexStart[v + 1]; m && i < n; i++) {
+				int h = vertexHalfEdges[i];
+				if (i > vertexStart[v] && face[vertexHalfEdges[i - 1]] == face[h]) m = false;
+				else if (origin[next[h]] == v) m = false;
+				else if (edgeStart[edge[h] + 1] - edgeStart[edge[h]] > 2) m = false;
+				else if (edgeStart[edge[prev[h]] + 1] - edgeStart[edge[prev[h]]] > 2) m = false;
+			}
+			manifold[v] = m;
+		}
+	}
+	
+	long estimateBytes() {
+		long bytes = PolyhedronStats.objectBytes(52) + PolyhedronStats.arrayBytes(1, manifold.length);
+		for (int[] a : new int[][]{ origin, edge, face, next, prev, twin, faceStart, vertexStart, vertexHalfEdges, outgoingSlot, edgeStart, edgeHalfEdges }) {
+			bytes += PolyhedronStats.arrayBytes(4, a.length);
+		}
+		return bytes;
+	}
+	
+	public int vertexCount() { return vertexStart.length - 1; }
+	public int faceCount() { return faceStart.length - 1; }
+	public int halfEdgeCount() { return origin.length; }
+	
+	public int origin(int h) { return origin[h]; }
+	public int target(int h) { return origin[next[h]]; }
+	public int edge(int h) { return edge[h]; }
+	public int face(int h) { return face[h]; }
+	public int next(int h) { return next[h]; }
+	public int prev(int h) { return prev[h]; }
+	
+	/** Returns the oppositely directed half-edge along the same edge, or -1 on a boundary. */
+	public int twin(int h) { return twin[h]; }
+	
+	/** Returns the position of the specified half-edge within its face. */
+	public int corner(int h) { return h - faceStart[face[h]]; }
+	
+	public int faceStart(int f) { return faceStart[f]; }
+	public int faceSize(int f) { return faceStart[f + 1] - faceStart[f]; }
+	public int halfEdge(int f, int i) { return faceStart[f] + i; }
+	
+	/** Returns the number of half-edges leaving the specified vertex. */
+	public int outgoingCount(int v) { return vertexStart[v + 1] - vertexStart[v]; }
+	
+	/**
+	 * Returns true if the faces around the specified vertex form one or more
+	 * simple fans, so that walking them with <code>nextAroundVertex</code>
+	 * gives the same order as <code>Polyhedron.getOrderedFaces</code>.
+	 */
+	public boolean isManifold(int v) { return manifold[v]; }
+	
+	/** Returns the ith half-edge leaving the specified vertex, in order of face index. */
+	public int outgoing(int v, int i) { return vertexHalfEdges[vertexStart[v] + i]; }
+	
+	/** Returns the position of the specified half-edge among those leaving its origin. */
+	public int outgoingIndex(int h) { return outgoingSlot[h]; }
+	
+	/**
+	 * Returns the first half-edge leaving the specified vertex along the
+	 * specified edge, or -1 if the edge is only ever entered at that vertex.
+	 */
+	public int outgoingAlong(int v, int e) {
+		for (int i = edgeStart[e], n = edgeStart[e + 1]; i < n; i++) {
+			int h = edgeHalfEdges[i];
+			if (origin[h] == v) return h;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Given a half-edge leaving some vertex, returns the next half-edge leaving
+	 * that vertex as determined by the winding order of the faces, or -1 if the
+	 * fan around that vertex ends at a boundary.
+	 */
+	public int nextAroundVertex(int h) {
+		return twin[prev[h]];
+	}
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.kreative.polyhedra;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Counts of values grouped into clusters of nearly equal values. A value
+ * joins a cluster if it is within the tolerance, relative to the magnitude
+ * of the cluster's smallest value (or absolute, below a magnitude of one),
+ * of that smallest value. The default tolerance of 2^-23 is one float ulp
+ * at a magnitude of one, so only values about as close as adjacent floats
+ * are counted together. Incoming values are buffered in a primitive array
+ * that is periodically sorted and folded into the clusters, so the memory
+ * used depends on the number of clusters rather than the number of values
+ * or distinct values.
+ */
+public final class Histogram implements DoubleConsumer {
+	public static final double DEFAULT_TOLERANCE = 0x1p-23;
+	private static final int BUFFER_SIZE = 1024;
+	
+	private final double tolerance;
+	private final double[] buffer;
+	private int buffered;
+	private double[] values;
+	private int[] counts;
+	private int size;
+	
+	public Histogram() {
+		this(DEFAULT_TOLERANCE);
+	}
+	
+	public Histogram(double tolerance) {
+		if (!(tolerance >= 0)) throw new IllegalArgumentException("tolerance must be nonnegative");
+		this.tolerance = tolerance;
+		this.buffer = new double[BUFFER_SIZE];
+		this.buffered = 0;
+		this.values = new double[16];
+		this.counts = new int[16];
+		this.size = 0;
+	}
+	
+	public double getTolerance() {
+		return tolerance;
+	}
+	
+	public void accept(double value) {
+		buffer[buffered++] = value;
+		if (buffered >= BUFFER_SIZE) flush();
+	}
+	
+	/** Adds the clusters of the specified histogram, which must have the same tolerance. */
+	public void merge(Histogram other) {
+		if (other.tolerance != tolerance) throw new IllegalArgumentException("tolerance mismatch");
+		flush();
+		other.flush();
+		fold(other.values, other.counts, other.size);
+	}
+	
+	/** Returns the number of clusters. */
+	public int size() {
+		flush();
+		return size;
+	}
+	
+	/** Returns the smallest value in the specified cluster. Clusters are in increasing order. */
+	public double value(int index) {
+		flush();
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		return values[index];
+	}
+	
+	/** Returns the number of values in the specified cluster. */
+	public int count(int index) {
+		flush();
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		return counts[index];
+	}
+	
+	/** Returns the clusters keyed on their smallest values rounded to floats, as <code>MetricAggregator.createHistogram</code> would. */
+	public Map<Float,Integer> toMap() {
+		flush();
+		TreeMap<Float,Integer> map = new TreeMap<Float,Integer>();
+		for (int i = 0; i < size; i++) {
+			Float key = (float)values[i];
+			Integer value = map.get(key);
+			map.put(key, ((value != null) ? (value + counts[i]) : counts[i]));
+		}
+		return map;
+	}
+	
+	private void flush() {
+		if (buffered == 0) return;
+		Arrays.sort(buffer, 0, buffered);
+		double[] bv = new double[buffered];
+		int[] bc = new int[buffered];
+		int n = 0;
+		for (int i = 0; i < buffered; i++) {
+			if (n > 0 && near(bv[n - 1], buffer[i])) bc[n - 1]++;
+			else { bv[n] = buffer[i]; bc[n] = 1; n++; }
+		}
+		buffered = 0;
+		fold(bv, bc, n);
+	}
+	
+	private void fold(double[] ov, int[] oc, int on) {
+		double[] nv = new double[Math.max(16, size + on)];
+		int[] nc = new int[nv.length];
+		int n = 0, i = 0, j = 0;
+		while (i < size || j < on) {
+			double v; int c;
+			if (j >= on || (i < size && !(ov[j] < values[i]))) { v = values[i]; c = counts[i]; i++; }
+			else { v = ov[j]; c = oc[j]; j++; }
+			if (n > 0 && near(nv[n - 1], v)) nc[n - 1] += c;
+			else { nv[n] = v; nc[n] = c; n++; }
+		}
+		values = nv;
+		counts = nc;
+		size = n;
+	}
+	
+	private boolean near(double start, double value) {
+		if (start == value || (start != start && value != value)) return true;
+		return value - start <= tolerance * Math.max(1, Math.abs(start));
+	}
+}
\ No newline at end of file
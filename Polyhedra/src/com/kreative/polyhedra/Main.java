@@ -27,6 +27,11 @@ public class Main {
 			return;
 		}
 		
+		if (command.equals("stats")) {
+			Stats.main(cargs);
+			return;
+		}
+		
 		if (command.equals("convert")) {
 			Convert.main(cargs);
 			return;
@@ -1,165 +1,144 @@
 package com.kreative.polyhedra;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleConsumer;
 
 public enum Metric {
-	VERTEX_MAGNITUDE {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Vertex> iter = p.vertices.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() { return iter.next().point.distance(o); }
-			};
+	VERTEX_MAGNITUDE(Kind.VERTEX) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			action.accept(p.vertices.get(index).point.distance(o));
+		}
+		public void forEach(Polyhedron p, Point3D o, DoubleConsumer action) {
+			VertexBuffer vertices = new VertexBuffer(p);
+			double[] distances = new double[vertices.size()];
+			vertices.distances(o, distances);
+			for (double d : distances) action.accept(d);
 		}
 	},
-	EDGE_MIDPOINT_MAGNITUDE {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Edge> iter = p.edges.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() { return iter.next().midpoint().distance(o); }
-			};
+	EDGE_MIDPOINT_MAGNITUDE(Kind.EDGE) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			action.accept(p.edges.get(index).midpoint().distance(o));
 		}
 	},
-	EDGE_DISTANCE_TO_ORIGIN {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Edge> iter = p.edges.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() {
-					Polyhedron.Edge edge = iter.next();
-					Point3D p1 = edge.vertex1.point;
-					Point3D p2 = edge.vertex2.point;
-					return o.distanceToLine(p1, p2);
-				}
-			};
+	EDGE_DISTANCE_TO_ORIGIN(Kind.EDGE) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			Polyhedron.Edge edge = p.edges.get(index);
+			Point3D p1 = edge.vertex1.point;
+			Point3D p2 = edge.vertex2.point;
+			action.accept(o.distanceToLine(p1, p2));
 		}
 	},
-	FACE_CENTER_MAGNITUDE {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Face> iter = p.faces.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() { return iter.next().center().distance(o); }
-			};
+	FACE_CENTER_MAGNITUDE(Kind.FACE) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			action.accept(p.faces.get(index).center().distance(o));
 		}
 	},
-	FACE_DISTANCE_TO_ORIGIN {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Face> iter = p.faces.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() {
-					Polyhedron.Face face = iter.next();
-					List<Point3D> points = face.points();
-					Point3D center = Point3D.average(points);
-					Point3D normal = center.normal(points);
-					return o.distanceToPlane(center, normal);
-				}
-			};
+	FACE_DISTANCE_TO_ORIGIN(Kind.FACE) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			Polyhedron.Face face = p.faces.get(index);
+			action.accept(o.distanceToPlane(face.center(), face.normal()));
 		}
 	},
-	EDGE_LENGTH {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Edge> iter = p.edges.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() { return iter.next().length(); }
-			};
+	EDGE_LENGTH(Kind.EDGE) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			action.accept(p.edges.get(index).length());
 		}
 	},
-	DIHEDRAL_ANGLE {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Edge> iter = p.edges.iterator();
-				private final List<Double> angles = new LinkedList<Double>();
-				public boolean hasNext() {
-					while (angles.isEmpty()) {
-						if (iter.hasNext()) queueNext();
-						else return false;
-					}
-					return true;
-				}
-				public Double next() {
-					while (angles.isEmpty()) queueNext();
-					return angles.remove(0);
-				}
-				private void queueNext() {
-					Polyhedron.Edge edge = iter.next();
-					List<Polyhedron.Face> faces = p.getFaces(edge);
-					List<Point3D> normals = new ArrayList<Point3D>();
-					for (Polyhedron.Face face : faces) {
-						List<Point3D> p = face.points();
-						normals.add(Point3D.average(p).normal(p));
-					}
-					for (int i = 0; i < normals.size(); i++) {
-						Point3D ni = normals.get(i);
-						for (int j = i + 1; j < normals.size(); j++) {
-							Point3D nj = normals.get(j);
-							angles.add(180 - ni.angle(nj));
-						}
-					}
+	DIHEDRAL_ANGLE(Kind.EDGE) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			List<Polyhedron.Face> faces = p.getFaces(p.edges.get(index));
+			for (int i = 0, n = faces.size(); i < n; i++) {
+				Point3D ni = faces.get(i).normal();
+				for (int j = i + 1; j < n; j++) {
+					Point3D nj = faces.get(j).normal();
+					action.accept(180 - ni.angle(nj));
 				}
-			};
+			}
 		}
 	},
-	VERTEX_ANGLE {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Face> iter = p.faces.iterator();
-				private final List<Double> angles = new LinkedList<Double>();
-				public boolean hasNext() {
-					while (angles.isEmpty()) {
-						if (iter.hasNext()) queueNext();
-						else return false;
-					}
-					return true;
-				}
-				public Double next() {
-					while (angles.isEmpty()) queueNext();
-					return angles.remove(0);
-				}
-				private void queueNext() {
-					Polyhedron.Face face = iter.next();
-					for (int i = 0, n = face.vertices.size(); i < n; i++) {
-						Point3D vp = face.vertices.get(i).point;
-						Point3D np = face.vertices.get((i + 1) % n).point;
-						Point3D pp = face.vertices.get((i + n - 1) % n).point;
-						angles.add(vp.angle(pp, np));
-					}
-				}
-			};
+	VERTEX_ANGLE(Kind.FACE) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			Polyhedron.Face face = p.faces.get(index);
+			for (int i = 0, n = face.vertices.size(); i < n; i++) {
+				Point3D vp = face.vertices.get(i).point;
+				Point3D np = face.vertices.get((i + 1) % n).point;
+				Point3D pp = face.vertices.get((i + n - 1) % n).point;
+				action.accept(vp.angle(pp, np));
+			}
 		}
 	},
-	X_POSITION {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Vertex> iter = p.vertices.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() { return iter.next().point.getX() - o.getX(); }
-			};
+	X_POSITION(Kind.VERTEX) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			action.accept(p.vertices.get(index).point.getX() - o.getX());
 		}
 	},
-	Y_POSITION {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Vertex> iter = p.vertices.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() { return iter.next().point.getY() - o.getY(); }
-			};
+	Y_POSITION(Kind.VERTEX) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			action.accept(p.vertices.get(index).point.getY() - o.getY());
 		}
 	},
-	Z_POSITION {
-		public Iterator<Double> iterator(final Polyhedron p, final Point3D o) {
-			return new Iterator<Double>() {
-				private final Iterator<Polyhedron.Vertex> iter = p.vertices.iterator();
-				public boolean hasNext() { return iter.hasNext(); }
-				public Double next() { return iter.next().point.getZ() - o.getZ(); }
-			};
+	Z_POSITION(Kind.VERTEX) {
+		public void measure(Polyhedron p, int index, Point3D o, DoubleConsumer action) {
+			action.accept(p.vertices.get(index).point.getZ() - o.getZ());
 		}
 	};
-	public abstract Iterator<Double> iterator(Polyhedron p, Point3D origin);
+	
+	/** The kind of element a metric takes its measurements from. */
+	public static enum Kind {
+		VERTEX, EDGE, FACE;
+		public int count(Polyhedron p) {
+			switch (this) {
+				case VERTEX: return p.vertices.size();
+				case EDGE: return p.edges.size();
+				case FACE: return p.faces.size();
+				default: return 0;
+			}
+		}
+	}
+	
+	private final Kind kind;
+	
+	private Metric(Kind kind) {
+		this.kind = kind;
+	}
+	
+	public final Kind kind() {
+		return kind;
+	}
+	
+	/** Passes the measurements of the element of this metric's kind at the specified index to the specified action. */
+	public abstract void measure(Polyhedron p, int index, Point3D origin, DoubleConsumer action);
+	
+	/** Passes each measurement of the polyhedron, about the specified origin, to the specified action. */
+	public void forEach(Polyhedron p, Point3D origin, DoubleConsumer action) {
+		for (int i = 0, n = kind.count(p); i < n; i++) measure(p, i, origin, action);
+	}
+	
+	/** Returns every measurement of the polyhedron about the specified origin. */
+	public double[] values(Polyhedron p, Point3D origin) {
+		final double[][] values = { new double[16] };
+		final int[] count = { 0 };
+		forEach(p, origin, new DoubleConsumer() {
+			public void accept(double value) {
+				if (count[0] >= values[0].length) values[0] = Arrays.copyOf(values[0], count[0] * 2);
+				values[0][count[0]++] = value;
+			}
+		});
+		return Arrays.copyOf(values[0], count[0]);
+	}
+	
+	public PrimitiveIterator.OfDouble iterator(Polyhedron p, Point3D origin) {
+		final double[] values = values(p, origin);
+		return new PrimitiveIterator.OfDouble() {
+			private int i = 0;
+			public boolean hasNext() { return i < values.length; }
+			public double nextDouble() {
+				if (i >= values.length) throw new NoSuchElementException();
+				return values[i++];
+			}
+		};
+	}
 }
\ No newline at end of file
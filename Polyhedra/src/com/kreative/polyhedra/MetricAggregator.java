@@ -2,57 +2,209 @@ package com.kreative.polyhedra;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.TreeMap;
+import java.util.function.DoubleConsumer;
 
 public enum MetricAggregator {
 	AVERAGE {
-		public double aggregate(Iterator<Double> iterator) {
-			double total = 0;
-			int count = 0;
-			while (iterator.hasNext()) {
-				total += iterator.next();
-				count++;
-			}
-			if (total == 0 || count == 0) return 0;
-			return total / count;
+		public Accumulator createAccumulator() {
+			return new Average();
 		}
 	},
 	MAXIMUM {
-		public double aggregate(Iterator<Double> iterator) {
-			Double maximum = null;
-			while (iterator.hasNext()) {
-				double value = iterator.next();
-				if (maximum == null || value > maximum) maximum = value;
-			}
-			if (maximum == null) return 0;
-			return maximum;
+		public Accumulator createAccumulator() {
+			return new Maximum();
 		}
 	},
 	MINIMUM {
-		public double aggregate(Iterator<Double> iterator) {
-			Double minimum = null;
-			while (iterator.hasNext()) {
-				double value = iterator.next();
-				if (minimum == null || value < minimum) minimum = value;
-			}
-			if (minimum == null) return 0;
-			return minimum;
+		public Accumulator createAccumulator() {
+			return new Minimum();
 		}
 	},
 	RANGE {
-		public double aggregate(Iterator<Double> iterator) {
-			Double minimum = null;
-			Double maximum = null;
-			while (iterator.hasNext()) {
-				double value = iterator.next();
-				if (minimum == null || value < minimum) minimum = value;
-				if (maximum == null || value > maximum) maximum = value;
-			}
-			if (minimum == null || maximum == null) return 0;
-			return maximum - minimum;
+		public Accumulator createAccumulator() {
+			return new Range();
+		}
+	},
+	MEDIAN {
+		public Accumulator createAccumulator() {
+			return new Quantile(0.5);
+		}
+	},
+	STDDEV {
+		public Accumulator createAccumulator() {
+			return new StandardDeviation();
 		}
 	};
-	public abstract double aggregate(Iterator<Double> iterator);
+	
+	/**
+	 * Receives measurements one at a time and reduces them to a single value.
+	 * Accumulators of the same aggregator over consecutive runs of values can
+	 * be merged, in order, to get the result over all of the values.
+	 */
+	public static abstract class Accumulator implements DoubleConsumer {
+		public abstract double result();
+		/** Adds the values seen by the specified accumulator, which must follow those seen by this one. */
+		public abstract void merge(Accumulator other);
+	}
+	
+	private static final class Average extends Accumulator {
+		private double total = 0;
+		private int count = 0;
+		public void accept(double value) {
+			total += value;
+			count++;
+		}
+		public void merge(Accumulator other) {
+			Average a = (Average)other;
+			total += a.total;
+			count += a.count;
+		}
+		public double result() {
+			if (total == 0 || count == 0) return 0;
+			return total / count;
+		}
+	}
+	
+	private static final class Maximum extends Accumulator {
+		private boolean empty = true;
+		private double maximum = 0;
+		public void accept(double value) {
+			if (empty || value > maximum) maximum = value;
+			empty = false;
+		}
+		public void merge(Accumulator other) {
+			Maximum m = (Maximum)other;
+			if (!m.empty) accept(m.maximum);
+		}
+		public double result() {
+			return maximum;
+		}
+	}
+	
+	private static final class Minimum extends Accumulator {
+		private boolean empty = true;
+		private double minimum = 0;
+		public void accept(double value) {
+			if (empty || value < minimum) minimum = value;
+			empty = false;
+		}
+		public void merge(Accumulator other) {
+			Minimum m = (Minimum)other;
+			if (!m.empty) accept(m.minimum);
+		}
+		public double result() {
+			return minimum;
+		}
+	}
+	
+	private static final class Range extends Accumulator {
+		private final Minimum minimum = new Minimum();
+		private final Maximum maximum = new Maximum();
+		public void accept(double value) {
+			minimum.accept(value);
+			maximum.accept(value);
+		}
+		public void merge(Accumulator other) {
+			Range r = (Range)other;
+			minimum.merge(r.minimum);
+			maximum.merge(r.maximum);
+		}
+		public double result() {
+			return maximum.result() - minimum.result();
+		}
+	}
+	
+	static final class Quantile extends Accumulator {
+		final QuantileSketch sketch = new QuantileSketch();
+		private final double q;
+		public Quantile(double q) {
+			this.q = q;
+		}
+		public void accept(double value) {
+			sketch.accept(value);
+		}
+		public void merge(Accumulator other) {
+			sketch.merge(((Quantile)other).sketch);
+		}
+		public double result() {
+			return sketch.quantile(q);
+		}
+	}
+	
+	/** Welford's running mean and sum of squared deviations, merged as by Chan et al. */
+	private static final class StandardDeviation extends Accumulator {
+		private long count = 0;
+		private double mean = 0;
+		private double m2 = 0;
+		public void accept(double value) {
+			count++;
+			double delta = value - mean;
+			mean += delta / count;
+			m2 += delta * (value - mean);
+		}
+		public void merge(Accumulator other) {
+			StandardDeviation s = (StandardDeviation)other;
+			if (s.count == 0) return;
+			if (count == 0) { count = s.count; mean = s.mean; m2 = s.m2; return; }
+			long n = count + s.count;
+			double delta = s.mean - mean;
+			mean += delta * s.count / n;
+			m2 += s.m2 + delta * delta * count * s.count / n;
+			count = n;
+		}
+		public double result() {
+			if (count == 0) return 0;
+			return Math.sqrt(m2 / count);
+		}
+	}
+	
+	/** Returns an accumulator for the specified quantile, from 0 to 1, estimated with a <code>QuantileSketch</code>. */
+	public static Accumulator createQuantileAccumulator(double q) {
+		return new Quantile(q);
+	}
+	
+	public abstract Accumulator createAccumulator();
+	
+	/** Aggregates the specified metric over the polyhedron, using its <code>MetricCache</code>. */
+	public double aggregate(Metric metric, Polyhedron p, Point3D origin) {
+		MetricCache cache = MetricCache.isEnabled() ? p.getMetricCache() : null;
+		Accumulator acc = (cache != null) ? cache.get(metric, this, origin) : null;
+		if (acc == null) {
+			acc = createAccumulator();
+			metric.forEach(p, origin, acc);
+			if (cache != null) cache.put(metric, this, origin, acc);
+		}
+		return acc.result();
+	}
+	
+	public double aggregate(double[] values) {
+		Accumulator acc = createAccumulator();
+		for (double value : values) acc.accept(value);
+		return acc.result();
+	}
+	
+	public double aggregate(Iterator<Double> iterator) {
+		Accumulator acc = createAccumulator();
+		if (iterator instanceof PrimitiveIterator.OfDouble) {
+			PrimitiveIterator.OfDouble di = (PrimitiveIterator.OfDouble)iterator;
+			while (di.hasNext()) acc.accept(di.nextDouble());
+		} else {
+			while (iterator.hasNext()) acc.accept(iterator.next());
+		}
+		return acc.result();
+	}
+	
+	public static final Histogram createHistogram(Metric metric, Polyhedron p, Point3D origin, double tolerance) {
+		Histogram h = new Histogram(tolerance);
+		metric.forEach(p, origin, h);
+		return h;
+	}
+	
+	public static final Map<Float,Integer> createHistogram(Metric metric, Polyhedron p, Point3D origin) {
+		return createHistogram(metric.iterator(p, origin));
+	}
 	
 	public static final Map<Float,Integer> createHistogram(Iterator<Double> iterator) {
 		TreeMap<Float,Integer> map = new TreeMap<Float,Integer>();
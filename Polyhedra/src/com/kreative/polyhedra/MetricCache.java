@@ -0,0 +1,80 @@
+package com.kreative.polyhedra;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metric results already computed for one polyhedron, keyed on the
+ * metric, the aggregator, and the exact coordinates of the origin. Each
+ * entry is a completed accumulator, which must not be fed any more values;
+ * a null aggregator stands for the number of measurements. Since polyhedra
+ * are immutable, entries never need to be invalidated; each polyhedron has its
+ * own cache, which is collected along with it. Hits and misses are counted
+ * across all caches. Caching is enabled by default and can be disabled with
+ * <code>setEnabled(false)</code> or by setting the system property
+ * <code>com.kreative.polyhedra.metriccache</code> to false.
+ */
+public final class MetricCache {
+	private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("com.kreative.polyhedra.metriccache"));
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	public static void setEnabled(boolean enabled) {
+		MetricCache.enabled = enabled;
+	}
+	
+	public static long getHitCount() { return hits.get(); }
+	public static long getMissCount() { return misses.get(); }
+	
+	public static void resetCounters() {
+		hits.set(0);
+		misses.set(0);
+	}
+	
+	private final ConcurrentHashMap<Key,MetricAggregator.Accumulator> entries = new ConcurrentHashMap<Key,MetricAggregator.Accumulator>();
+	
+	MetricCache() {}
+	
+	public int size() {
+		return entries.size();
+	}
+	
+	MetricAggregator.Accumulator get(Metric metric, MetricAggregator agg, Point3D origin) {
+		MetricAggregator.Accumulator acc = entries.get(new Key(metric, agg, origin));
+		if (acc != null) hits.incrementAndGet();
+		else misses.incrementAndGet();
+		return acc;
+	}
+	
+	void put(Metric metric, MetricAggregator agg, Point3D origin, MetricAggregator.Accumulator acc) {
+		entries.putIfAbsent(new Key(metric, agg, origin), acc);
+	}
+	
+	private static final class Key {
+		private final Metric metric;
+		private final MetricAggregator agg;
+		private final long x, y, z;
+		public Key(Metric metric, MetricAggregator agg, Point3D origin) {
+			this.metric = metric;
+			this.agg = agg;
+			this.x = Double.doubleToRawLongBits(origin.getX());
+			this.y = Double.doubleToRawLongBits(origin.getY());
+			this.z = Double.doubleToRawLongBits(origin.getZ());
+		}
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			Key k = (Key)obj;
+			return metric == k.metric && agg == k.agg && x == k.x && y == k.y && z == k.z;
+		}
+		public int hashCode() {
+			long h = x * 31 + y;
+			h = h * 31 + z;
+			int a = (agg != null) ? agg.ordinal() + 1 : 0;
+			return ((int)(h ^ (h >>> 32)) * 31 + metric.ordinal()) * 31 + a;
+		}
+	}
+}
\ No newline at end of file
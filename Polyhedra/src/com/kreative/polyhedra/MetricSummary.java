@@ -0,0 +1,261 @@
+package com.kreative.polyhedra;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleConsumer;
+
+/**
+ * The results of a set of <code>MetricAggregator</code>s, every one unless
+ * specified, over a set of metrics, all measured about the same origin.
+ * Only the requested aggregators are computed; in particular, the sketch
+ * behind the median and percentiles is only kept if the median is requested.
+ * The polyhedron is traversed once per kind of element: each vertex, edge,
+ * or face is visited once and measured by every requested metric of that kind.
+ */
+public class MetricSummary {
+	/** The default number of elements below which a parallel summary stops splitting. */
+	public static final int DEFAULT_THRESHOLD = 1024;
+	
+	private static final MetricAggregator[] AGGREGATORS = MetricAggregator.values();
+	private static final int COUNT = AGGREGATORS.length;
+	
+	private final Map<Metric,Entry> entries = new EnumMap<Metric,Entry>(Metric.class);
+	
+	public MetricSummary(Polyhedron p, Point3D origin, Metric... metrics) {
+		this(p, origin, false, metrics);
+	}
+	
+	public MetricSummary(Polyhedron p, Point3D origin, boolean histograms, Metric... metrics) {
+		this(p, origin, EnumSet.allOf(MetricAggregator.class), histograms, metrics);
+	}
+	
+	/**
+	 * Computes a summary sequentially. Without histograms, results are taken
+	 * from and added to the polyhedron's <code>MetricCache</code>, so only
+	 * aggregators not already computed about the same origin are measured.
+	 */
+	public MetricSummary(Polyhedron p, Point3D origin, Set<MetricAggregator> aggregators, boolean histograms, Metric... metrics) {
+		this(aggregators, histograms, metrics);
+		MetricCache cache = (!histograms && MetricCache.isEnabled()) ? p.getMetricCache() : null;
+		if (cache != null) {
+			for (Map.Entry<Metric,Entry> e : entries.entrySet()) {
+				e.getValue().fetch(cache, e.getKey(), origin);
+			}
+		}
+		for (Metric.Kind kind : Metric.Kind.values()) {
+			Metric[] kindMetrics = metrics(kind, true);
+			if (kindMetrics.length == 0) continue;
+			if (kindMetrics.length == 1) {
+				kindMetrics[0].forEach(p, origin, entries.get(kindMetrics[0]));
+				continue;
+			}
+			Entry[] kindEntries = new Entry[kindMetrics.length];
+			for (int j = 0; j < kindMetrics.length; j++) kindEntries[j] = entries.get(kindMetrics[j]);
+			measure(p, origin, kindMetrics, kindEntries, 0, kind.count(p));
+		}
+		if (cache != null) {
+			for (Map.Entry<Metric,Entry> e : entries.entrySet()) {
+				e.getValue().store(cache, e.getKey(), origin);
+			}
+		}
+	}
+	
+	private MetricSummary(Set<MetricAggregator> aggregators, boolean histograms, Metric... metrics) {
+		for (Metric metric : metrics) {
+			if (!entries.containsKey(metric)) {
+				entries.put(metric, new Entry(aggregators, histograms));
+			}
+		}
+	}
+	
+	/**
+	 * Computes a summary by splitting the vertices, edges, and faces into
+	 * ranges of at most <code>threshold</code> elements, measuring the ranges
+	 * in the specified pool, and merging the results. The ranges and the order
+	 * in which they are merged depend only on the element counts and the
+	 * threshold, so the results are the same from run to run. Averages may
+	 * differ in the last bits from those of a sequential summary.
+	 */
+	public static MetricSummary parallel(Polyhedron p, Point3D origin, Set<MetricAggregator> aggregators, boolean histograms, int threshold, ForkJoinPool pool, Metric... metrics) {
+		if (threshold < 1) throw new IllegalArgumentException("threshold must be positive");
+		MetricSummary summary = new MetricSummary(aggregators, histograms, metrics);
+		for (Metric.Kind kind : Metric.Kind.values()) {
+			Metric[] kindMetrics = summary.metrics(kind, false);
+			if (kindMetrics.length == 0) continue;
+			Entry[] kindEntries = pool.invoke(new Task(p, origin, aggregators, histograms, kindMetrics, 0, kind.count(p), threshold));
+			for (int j = 0; j < kindMetrics.length; j++) summary.entries.put(kindMetrics[j], kindEntries[j]);
+		}
+		return summary;
+	}
+	
+	public static MetricSummary parallel(Polyhedron p, Point3D origin, boolean histograms, int threshold, ForkJoinPool pool, Metric... metrics) {
+		return parallel(p, origin, EnumSet.allOf(MetricAggregator.class), histograms, threshold, pool, metrics);
+	}
+	
+	public static MetricSummary parallel(Polyhedron p, Point3D origin, boolean histograms, Metric... metrics) {
+		return parallel(p, origin, histograms, DEFAULT_THRESHOLD, ForkJoinPool.commonPool(), metrics);
+	}
+	
+	private Metric[] metrics(Metric.Kind kind, boolean pendingOnly) {
+		List<Metric> kindMetrics = new ArrayList<Metric>();
+		for (Map.Entry<Metric,Entry> e : entries.entrySet()) {
+			if (e.getKey().kind() == kind && !(pendingOnly && !e.getValue().isPending())) kindMetrics.add(e.getKey());
+		}
+		return kindMetrics.toArray(new Metric[kindMetrics.size()]);
+	}
+	
+	private static void measure(Polyhedron p, Point3D origin, Metric[] metrics, Entry[] entries, int start, int end) {
+		for (int i = start; i < end; i++) {
+			for (int j = 0; j < metrics.length; j++) {
+				metrics[j].measure(p, i, origin, entries[j]);
+			}
+		}
+	}
+	
+	private static final class Task extends RecursiveTask<Entry[]> {
+		private static final long serialVersionUID = 1L;
+		private final Polyhedron p;
+		private final Point3D origin;
+		private final Set<MetricAggregator> aggregators;
+		private final boolean histograms;
+		private final Metric[] metrics;
+		private final int start, end, threshold;
+		public Task(Polyhedron p, Point3D origin, Set<MetricAggregator> aggregators, boolean histograms, Metric[] metrics, int start, int end, int threshold) {
+			this.p = p;
+			this.origin = origin;
+			this.aggregators = aggregators;
+			this.histograms = histograms;
+			this.metrics = metrics;
+			this.start = start;
+			this.end = end;
+			this.threshold = threshold;
+		}
+		protected Entry[] compute() {
+			if (end - start <= threshold) {
+				Entry[] entries = new Entry[metrics.length];
+				for (int j = 0; j < metrics.length; j++) entries[j] = new Entry(aggregators, histograms);
+				measure(p, origin, metrics, entries, start, end);
+				return entries;
+			}
+			int mid = (start + end) >>> 1;
+			Task left = new Task(p, origin, aggregators, histograms, metrics, start, mid, threshold);
+			Task right = new Task(p, origin, aggregators, histograms, metrics, mid, end, threshold);
+			left.fork();
+			Entry[] r = right.compute();
+			Entry[] l = left.join();
+			for (int j = 0; j < metrics.length; j++) l[j].merge(r[j]);
+			return l;
+		}
+	}
+	
+	public double get(Metric metric, MetricAggregator agg) {
+		return entry(metric).accumulator(agg).result();
+	}
+	
+	public int count(Metric metric) { return ((Count)entry(metric).accumulators[COUNT]).count; }
+	public double average(Metric metric) { return get(metric, MetricAggregator.AVERAGE); }
+	public double maximum(Metric metric) { return get(metric, MetricAggregator.MAXIMUM); }
+	public double minimum(Metric metric) { return get(metric, MetricAggregator.MINIMUM); }
+	public double range(Metric metric) { return get(metric, MetricAggregator.RANGE); }
+	
+	public double median(Metric metric) { return get(metric, MetricAggregator.MEDIAN); }
+	public double standardDeviation(Metric metric) { return get(metric, MetricAggregator.STDDEV); }
+	
+	/** Returns the value below which the specified percentage of measurements fall, estimated from the sketch kept for the median, which must have been requested. */
+	public double percentile(Metric metric, double percent) {
+		MetricAggregator.Quantile q = (MetricAggregator.Quantile)entry(metric).accumulator(MetricAggregator.MEDIAN);
+		return q.sketch.quantile(percent / 100);
+	}
+	
+	/** Returns the measurements clustered within <code>Histogram.DEFAULT_TOLERANCE</code>, if histograms were requested. */
+	public Histogram histogram(Metric metric) {
+		Entry e = entry(metric);
+		if (e.histogram == null) throw new IllegalStateException("histogram not computed for " + metric);
+		return e.histogram;
+	}
+	
+	private Entry entry(Metric metric) {
+		Entry e = entries.get(metric);
+		if (e == null) throw new IllegalArgumentException("metric not computed: " + metric);
+		return e;
+	}
+	
+	private static final class Count extends MetricAggregator.Accumulator {
+		private int count = 0;
+		public void accept(double value) {
+			count++;
+		}
+		public void merge(MetricAggregator.Accumulator other) {
+			count += ((Count)other).count;
+		}
+		public double result() {
+			return count;
+		}
+	}
+	
+	/**
+	 * The accumulators for one metric, indexed by aggregator, with the count
+	 * last. Those not requested are null. Only the pending accumulators, the
+	 * ones not taken from a cache, are fed measurements.
+	 */
+	static final class Entry implements DoubleConsumer {
+		private final MetricAggregator.Accumulator[] accumulators;
+		private MetricAggregator.Accumulator[] pending;
+		private final Histogram histogram;
+		public Entry(Set<MetricAggregator> aggregators, boolean histogram) {
+			this.accumulators = new MetricAggregator.Accumulator[COUNT + 1];
+			for (MetricAggregator agg : aggregators) accumulators[agg.ordinal()] = agg.createAccumulator();
+			this.accumulators[COUNT] = new Count();
+			this.histogram = histogram ? new Histogram() : null;
+			this.pending = pending(null, null, null);
+		}
+		private MetricAggregator.Accumulator accumulator(MetricAggregator agg) {
+			MetricAggregator.Accumulator acc = accumulators[agg.ordinal()];
+			if (acc == null) throw new IllegalArgumentException("aggregator not computed: " + agg);
+			return acc;
+		}
+		private MetricAggregator.Accumulator[] pending(MetricCache cache, Metric metric, Point3D origin) {
+			List<MetricAggregator.Accumulator> pending = new ArrayList<MetricAggregator.Accumulator>();
+			for (int i = 0; i <= COUNT; i++) {
+				if (accumulators[i] == null) continue;
+				if (cache != null) {
+					MetricAggregator.Accumulator cached = cache.get(metric, (i < COUNT) ? AGGREGATORS[i] : null, origin);
+					if (cached != null) { accumulators[i] = cached; continue; }
+				}
+				pending.add(accumulators[i]);
+			}
+			return pending.toArray(new MetricAggregator.Accumulator[pending.size()]);
+		}
+		/** Replaces the accumulators already in the cache with the cached ones, leaving only the rest pending. */
+		void fetch(MetricCache cache, Metric metric, Point3D origin) {
+			pending = pending(cache, metric, origin);
+		}
+		/** Adds the pending accumulators, which must now be complete, to the cache. */
+		void store(MetricCache cache, Metric metric, Point3D origin) {
+			if (pending.length == 0) return;
+			for (int i = 0; i <= COUNT; i++) {
+				if (accumulators[i] != null) cache.put(metric, (i < COUNT) ? AGGREGATORS[i] : null, origin, accumulators[i]);
+			}
+			pending = new MetricAggregator.Accumulator[0];
+		}
+		boolean isPending() {
+			return pending.length > 0 || histogram != null;
+		}
+		public void accept(double value) {
+			for (MetricAggregator.Accumulator acc : pending) acc.accept(value);
+			if (histogram != null) histogram.accept(value);
+		}
+		public void merge(Entry other) {
+			for (int i = 0; i <= COUNT; i++) {
+				if (accumulators[i] != null) accumulators[i].merge(other.accumulators[i]);
+			}
+			if (histogram != null) histogram.merge(other.histogram);
+		}
+	}
+}
\ No newline at end of file
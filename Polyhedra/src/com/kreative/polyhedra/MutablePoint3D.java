@@ -0,0 +1,151 @@
+package com.kreative.polyhedra;
+
+/**
+ * A point whose coordinates can be changed in place, for use as scratch
+ * space in loops that would otherwise allocate a new <code>Point3D</code>
+ * for every intermediate result. Each operation modifies this point and
+ * returns it, and computes exactly what the <code>Point3D</code> method of
+ * the same name would.
+ */
+public final class MutablePoint3D {
+	private double x, y, z;
+	
+	public MutablePoint3D() {
+		this.x = 0;
+		this.y = 0;
+		this.z = 0;
+	}
+	
+	public MutablePoint3D(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+	
+	public MutablePoint3D(Point3D point) {
+		this.x = point.getX();
+		this.y = point.getY();
+		this.z = point.getZ();
+	}
+	
+	public double getX() { return x; }
+	public double getY() { return y; }
+	public double getZ() { return z; }
+	
+	public MutablePoint3D set(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+	
+	public MutablePoint3D set(Point3D point) {
+		return set(point.getX(), point.getY(), point.getZ());
+	}
+	
+	public MutablePoint3D set(MutablePoint3D point) {
+		return set(point.x, point.y, point.z);
+	}
+	
+	public MutablePoint3D add(double x, double y, double z) {
+		return set(this.x + x, this.y + y, this.z + z);
+	}
+	
+	public MutablePoint3D add(Point3D point) {
+		return add(point.getX(), point.getY(), point.getZ());
+	}
+	
+	public MutablePoint3D subtract(double x, double y, double z) {
+		return set(this.x - x, this.y - y, this.z - z);
+	}
+	
+	public MutablePoint3D subtract(Point3D point) {
+		return subtract(point.getX(), point.getY(), point.getZ());
+	}
+	
+	public MutablePoint3D multiply(double factor) {
+		return set(x * factor, y * factor, z * factor);
+	}
+	
+	public MutablePoint3D normalize(double magnitude) {
+		if (magnitude == 0) return set(0, 0, 0);
+		double m = Math.sqrt(x * x + y * y + z * z);
+		return (m == 0) ? this : set(x * magnitude / m, y * magnitude / m, z * magnitude / m);
+	}
+	
+	/** Sets this point to the midpoint of the specified points. */
+	public MutablePoint3D midpoint(Point3D p1, Point3D p2) {
+		return set((p1.getX() + p2.getX()) / 2, (p1.getY() + p2.getY()) / 2, (p1.getZ() + p2.getZ()) / 2);
+	}
+	
+	/** Moves this point along the bisector of the angle p1-this-p2, like <code>Point3D.angleBisector(p1, p2, magnitude)</code>. */
+	public MutablePoint3D angleBisector(Point3D p1, Point3D p2, double magnitude) {
+		if (magnitude == 0) return this;
+		double x1 = p1.getX() - x, y1 = p1.getY() - y, z1 = p1.getZ() - z;
+		double x2 = p2.getX() - x, y2 = p2.getY() - y, z2 = p2.getZ() - z;
+		double m1 = Math.sqrt(x1 * x1 + y1 * y1 + z1 * z1);
+		double m2 = Math.sqrt(x2 * x2 + y2 * y2 + z2 * z2);
+		double bx = ((m1 == 0) ? 0 : (x1 / m1)) + ((m2 == 0) ? 0 : (x2 / m2));
+		double by = ((m1 == 0) ? 0 : (y1 / m1)) + ((m2 == 0) ? 0 : (y2 / m2));
+		double bz = ((m1 == 0) ? 0 : (z1 / m1)) + ((m2 == 0) ? 0 : (z2 / m2));
+		double m = Math.sqrt(bx * bx + by * by + bz * bz);
+		if (m == 0) return add(0 * magnitude, 0 * magnitude, 0 * magnitude);
+		return add(bx / m * magnitude, by / m * magnitude, bz / m * magnitude);
+	}
+	
+	public double angleRad(double x, double y, double z) {
+		double n = this.x * x + this.y * y + this.z * z;
+		double d = Math.sqrt(magnitudeSq() * (x * x + y * y + z * z));
+		return Math.acos(n / d);
+	}
+	
+	public double angleRad(Point3D point) {
+		return angleRad(point.getX(), point.getY(), point.getZ());
+	}
+	
+	/** Returns the angle p1-this-p2 without modifying this point. */
+	public double angleRad(Point3D p1, Point3D p2) {
+		double x1 = p1.getX() - x, y1 = p1.getY() - y, z1 = p1.getZ() - z;
+		double x2 = p2.getX() - x, y2 = p2.getY() - y, z2 = p2.getZ() - z;
+		double n = x1 * x2 + y1 * y2 + z1 * z2;
+		double d = Math.sqrt((x1 * x1 + y1 * y1 + z1 * z1) * (x2 * x2 + y2 * y2 + z2 * z2));
+		return Math.acos(n / d);
+	}
+	
+	public double distance(double x, double y, double z) {
+		double dx = this.x - x;
+		double dy = this.y - y;
+		double dz = this.z - z;
+		return Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+	
+	public double distance(Point3D point) {
+		double dx = this.x - point.getX();
+		double dy = this.y - point.getY();
+		double dz = this.z - point.getZ();
+		return Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+	
+	public double distanceSq(Point3D point) {
+		double dx = this.x - point.getX();
+		double dy = this.y - point.getY();
+		double dz = this.z - point.getZ();
+		return dx * dx + dy * dy + dz * dz;
+	}
+	
+	public double magnitude() {
+		return Math.sqrt(x * x + y * y + z * z);
+	}
+	
+	public double magnitudeSq() {
+		return (x * x + y * y + z * z);
+	}
+	
+	public Point3D toPoint3D() {
+		return new Point3D(x, y, z);
+	}
+	
+	public String toString() {
+		return "(" + x + ", " + y + ", " + z + ")";
+	}
+}
\ No newline at end of file
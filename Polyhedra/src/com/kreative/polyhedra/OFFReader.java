@@ -1,9 +1,7 @@
 package com.kreative.polyhedra;
 
-import java.awt.Color;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Scanner;
 
 public class OFFReader {
@@ -18,14 +16,19 @@ public class OFFReader {
 	}
 	
 	public Polyhedron readPolyhedron() {
+		PolyhedronBuffer buffer = readBuffer();
+		return (buffer != null) ? new Polyhedron(buffer) : null;
+	}
+	
+	public PolyhedronBuffer readBuffer() {
 		while (off.hasNextLine()) {
 			String line = off.nextLine().trim();
-			if (line.equals("OFF")) return readPolyhedron1();
+			if (line.equals("OFF")) return readBuffer1();
 		}
 		return null;
 	}
 	
-	private Polyhedron readPolyhedron1() {
+	private PolyhedronBuffer readBuffer1() {
 		while (off.hasNextLine()) {
 			String line = off.nextLine().trim();
 			if (line.length() == 0 || line.startsWith("#")) continue;
@@ -35,24 +38,35 @@ public class OFFReader {
 				int numVertices = Integer.parseInt(tokens[0]);
 				int numFaces = Integer.parseInt(tokens[1]);
 				/* int numEdges = */ Integer.parseInt(tokens[2]);
-				List<Point3D> vertices = new ArrayList<Point3D>();
-				List<List<Integer>> faces = new ArrayList<List<Integer>>();
-				List<Color> faceColors = new ArrayList<Color>();
+				double[] coords = new double[numVertices * 3];
+				int[] faceOffsets = new int[numFaces + 1];
+				int[] indices = new int[numFaces * 4];
+				int[] colors = new int[numFaces];
 				for (int i = 0; i < numVertices; i++) {
-					Point3D vertex = readVertex();
-					if (vertex == null) return null;
-					vertices.add(vertex);
+					if (!readVertex(coords, i * 3)) return null;
 				}
 				for (int i = 0; i < numFaces; i++) {
-					List<Integer> face = readFace();
+					int[] face = readFace();
 					if (face == null) return null;
-					faces.add(face.subList(0, face.size() - 3));
-					int r = face.get(face.size() - 3);
-					int g = face.get(face.size() - 2);
-					int b = face.get(face.size() - 1);
-					faceColors.add(new Color(r, g, b));
+					int start = faceOffsets[i], n = face.length - 3;
+					if (start + n > indices.length) {
+						indices = Arrays.copyOf(indices, Math.max(start + n, indices.length * 2));
+					}
+					System.arraycopy(face, 0, indices, start, n);
+					faceOffsets[i + 1] = start + n;
+					int r = face[n];
+					int g = face[n + 1];
+					int b = face[n + 2];
+					if (((r | g | b) & ~0xFF) != 0) {
+						throw new IllegalArgumentException("Color parameter outside of expected range:" + ((r & ~0xFF) != 0 ? " Red" : "") + ((g & ~0xFF) != 0 ? " Green" : "") + ((b & ~0xFF) != 0 ? " Blue" : ""));
+					}
+					colors[i] = (r << 16) | (g << 8) | b;
+				}
+				if (indices.length != faceOffsets[numFaces]) {
+					indices = Arrays.copyOf(indices, faceOffsets[numFaces]);
 				}
-				return new Polyhedron(vertices, faces, faceColors);
+				PolyhedronBuffer.wrapIndices(indices, numVertices);
+				return new PolyhedronBuffer(coords, faceOffsets, indices, colors);
 			} catch (NumberFormatException nfe) {
 				return null;
 			}
@@ -60,42 +74,43 @@ public class OFFReader {
 		return null;
 	}
 	
-	private Point3D readVertex() {
+	private boolean readVertex(double[] coords, int offset) {
 		while (off.hasNextLine()) {
 			String line = off.nextLine().trim();
 			if (line.length() == 0 || line.startsWith("#")) continue;
 			String[] tokens = line.split("\\s+");
-			if (tokens.length != 3) return null;
+			if (tokens.length != 3) return false;
 			try {
-				double x = Double.parseDouble(tokens[0]);
-				double y = Double.parseDouble(tokens[1]);
-				double z = Double.parseDouble(tokens[2]);
-				return new Point3D(x, y, z);
+				coords[offset] = Double.parseDouble(tokens[0]);
+				coords[offset + 1] = Double.parseDouble(tokens[1]);
+				coords[offset + 2] = Double.parseDouble(tokens[2]);
+				return true;
 			} catch (NumberFormatException nfe) {
-				return null;
+				return false;
 			}
 		}
-		return null;
+		return false;
 	}
 	
-	private List<Integer> readFace() {
+	private int[] readFace() {
 		while (off.hasNextLine()) {
 			String line = off.nextLine().trim();
 			if (line.length() == 0 || line.startsWith("#")) continue;
 			String[] tokens = line.split("\\s+");
 			if (tokens.length <= 1) return null;
 			try {
-				List<Integer> f = new ArrayList<Integer>();
-				for (String t : tokens) f.add(Integer.parseInt(t));
-				if (f.size() == f.get(0) + 4) {
-					f.remove(0);
+				int n = Integer.parseInt(tokens[0]);
+				if (tokens.length == n + 4) {
+					int[] f = new int[n + 3];
+					for (int i = 0; i < f.length; i++) f[i] = Integer.parseInt(tokens[i + 1]);
 					return f;
 				}
-				if (f.size() == f.get(0) + 1) {
-					f.remove(0);
-					f.add(128);
-					f.add(128);
-					f.add(128);
+				if (tokens.length == n + 1) {
+					int[] f = new int[n + 3];
+					for (int i = 0; i < n; i++) f[i] = Integer.parseInt(tokens[i + 1]);
+					f[n] = 128;
+					f[n + 1] = 128;
+					f[n + 2] = 128;
 					return f;
 				}
 				return null;
@@ -1,7 +1,6 @@
 package com.kreative.polyhedra;
 
 import java.io.*;
-import java.util.*;
 
 public class OFFWriter {
 	private final StringBuffer sb;
@@ -41,19 +40,29 @@ public class OFFWriter {
 	}
 	
 	public void writePolyhedron(Polyhedron p) {
+		writeBuffer(new PolyhedronBuffer(p), p.edges.size());
+	}
+	
+	public void writeBuffer(PolyhedronBuffer b) {
+		writeBuffer(b, b.edgeCount());
+	}
+	
+	private void writeBuffer(PolyhedronBuffer b, int edgeCount) {
+		int vn = b.vertexCount(), fn = b.faceCount();
 		println("OFF");
-		println(p.vertices.size(), p.faces.size(), p.edges.size());
-		for (Polyhedron.Vertex v : p.vertices) {
-			println(v.point.getX(), v.point.getY(), v.point.getZ());
+		println(vn, fn, edgeCount);
+		for (int i = 0, j = 0; i < vn; i++, j += 3) {
+			println(b.coords[j], b.coords[j + 1], b.coords[j + 2]);
 		}
-		for (Polyhedron.Face f : p.faces) {
-			List<Integer> face = new ArrayList<Integer>();
-			face.add(f.vertices.size());
-			for (Polyhedron.Vertex v : f.vertices) face.add(v.index);
-			face.add(f.color.getRed());
-			face.add(f.color.getGreen());
-			face.add(f.color.getBlue());
-			println(face.toArray());
+		for (int i = 0; i < fn; i++) {
+			int start = b.faceOffsets[i], n = b.faceOffsets[i + 1] - start;
+			Object[] face = new Object[n + 4];
+			face[0] = n;
+			for (int j = 0; j < n; j++) face[j + 1] = b.indices[start + j];
+			face[n + 1] = (b.colors[i] >> 16) & 0xFF;
+			face[n + 2] = (b.colors[i] >> 8) & 0xFF;
+			face[n + 3] = b.colors[i] & 0xFF;
+			println(face);
 		}
 	}
 }
\ No newline at end of file
@@ -2,8 +2,7 @@ package com.kreative.polyhedra;
 
 import java.awt.Color;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Scanner;
 
 public class ObjReader {
@@ -18,33 +17,49 @@ public class ObjReader {
 	}
 	
 	public Polyhedron readPolyhedron(Color color) {
-		List<Point3D> vertices = new ArrayList<Point3D>();
-		List<List<Integer>> faces = new ArrayList<List<Integer>>();
-		List<Color> faceColors = new ArrayList<Color>();
+		return new Polyhedron(readBuffer(color));
+	}
+	
+	public PolyhedronBuffer readBuffer(Color color) {
+		double[] coords = new double[48];
+		int[] faceOffsets = new int[17];
+		int[] indices = new int[64];
+		int vertexCount = 0, faceCount = 0, indexCount = 0;
 		while (obj.hasNextLine()) {
 			String line = obj.nextLine();
 			int o = line.indexOf("#");
 			if (o >= 0) line = line.substring(0, o);
 			String[] fields = line.trim().split("\\s+");
 			if ("v".equals(fields[0]) && fields.length >= 4) {
-				double x = parseDouble(fields[1]);
-				double y = parseDouble(fields[2]);
-				double z = parseDouble(fields[3]);
-				vertices.add(new Point3D(x, y, z));
+				if (vertexCount * 3 + 3 > coords.length) coords = Arrays.copyOf(coords, coords.length * 2);
+				coords[vertexCount * 3] = parseDouble(fields[1]);
+				coords[vertexCount * 3 + 1] = parseDouble(fields[2]);
+				coords[vertexCount * 3 + 2] = parseDouble(fields[3]);
+				vertexCount++;
 			}
 			if ("f".equals(fields[0])) {
-				List<Integer> face = new ArrayList<Integer>();
+				if (indexCount + fields.length > indices.length) {
+					indices = Arrays.copyOf(indices, Math.max(indexCount + fields.length, indices.length * 2));
+				}
 				for (int i = 1; i < fields.length; i++) {
-					String[] indices = fields[i].split("/");
-					int index = parseInt(indices[0]);
-					if (index > 0) face.add(index - 1);
-					if (index < 0) face.add(vertices.size() + index);
+					String[] f = fields[i].split("/");
+					int index = parseInt(f[0]);
+					if (index > 0) indices[indexCount++] = index - 1;
+					if (index < 0) indices[indexCount++] = vertexCount + index;
 				}
-				faces.add(face);
-				faceColors.add(color);
+				if (faceCount + 2 > faceOffsets.length) faceOffsets = Arrays.copyOf(faceOffsets, faceOffsets.length * 2);
+				faceOffsets[++faceCount] = indexCount;
 			}
 		}
-		return new Polyhedron(vertices, faces, faceColors);
+		int[] colors = new int[faceCount];
+		Arrays.fill(colors, color.getRGB() & 0xFFFFFF);
+		indices = Arrays.copyOf(indices, indexCount);
+		PolyhedronBuffer.wrapIndices(indices, vertexCount);
+		return new PolyhedronBuffer(
+			Arrays.copyOf(coords, vertexCount * 3),
+			Arrays.copyOf(faceOffsets, faceCount + 1),
+			indices, colors
+		);
 	}
 	
 	private static double parseDouble(String s) {
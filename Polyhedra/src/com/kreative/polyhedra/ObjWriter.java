@@ -45,13 +45,17 @@ public class ObjWriter {
 	}
 	
 	public void writePolyhedron(Polyhedron p) {
-		for (Polyhedron.Vertex v : p.vertices) {
-			println("v", v.point.getX(), v.point.getY(), v.point.getZ());
+		writeBuffer(new PolyhedronBuffer(p));
+	}
+	
+	public void writeBuffer(PolyhedronBuffer b) {
+		for (int i = 0, j = 0, vn = b.vertexCount(); i < vn; i++, j += 3) {
+			println("v", b.coords[j], b.coords[j + 1], b.coords[j + 2]);
 		}
-		for (Polyhedron.Face f : p.faces) {
-			int n = f.vertices.size();
+		for (int i = 0, fn = b.faceCount(); i < fn; i++) {
+			int start = b.faceOffsets[i], n = b.faceOffsets[i + 1] - start;
 			Object[] face = new Object[n];
-			for (int i = 0; i < n; i++) face[i] = f.vertices.get(i).index + 1;
+			for (int j = 0; j < n; j++) face[j] = b.indices[start + j] + 1;
 			println("f", face);
 		}
 	}
@@ -0,0 +1,121 @@
+package com.kreative.polyhedra;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A table of distinct colors, keyed on their ARGB values. Each color is
+ * assigned the next index the first time it is added, and indices never
+ * change once assigned. Polyhedra keep read-only copies, made with
+ * <code>freeze()</code>, which can be shared by polyhedra whose faces refer
+ * to colors by index and read from any thread.
+ */
+public class Palette {
+	private Color[] colors;
+	private int[] rgbs;
+	private int[] table;
+	private int size;
+	private final boolean readOnly;
+	
+	public Palette() {
+		this.colors = new Color[16];
+		this.rgbs = new int[16];
+		this.table = new int[32];
+		this.size = 0;
+		this.readOnly = false;
+	}
+	
+	private Palette(Palette p) {
+		this.colors = Arrays.copyOf(p.colors, p.size);
+		this.rgbs = Arrays.copyOf(p.rgbs, p.size);
+		this.table = p.table.clone();
+		this.size = p.size;
+		this.readOnly = true;
+	}
+	
+	/** Returns a read-only copy of this palette, or this palette if it is already read-only. */
+	public Palette freeze() {
+		return readOnly ? this : new Palette(this);
+	}
+	
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+	
+	private static int hash(int rgb) {
+		rgb ^= rgb >>> 16;
+		rgb *= 0x85EBCA6B;
+		rgb ^= rgb >>> 13;
+		return rgb;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public Color get(int index) {
+		return colors[index];
+	}
+	
+	/** Returns the ARGB value of the color at the specified index. */
+	public int getRGB(int index) {
+		return rgbs[index];
+	}
+	
+	/** Returns the index of the color with the specified ARGB value, or -1 if there is none. */
+	public int indexOf(int rgb) {
+		int mask = table.length - 1;
+		for (int h = hash(rgb) & mask; table[h] != 0; h = (h + 1) & mask) {
+			if (rgbs[table[h] - 1] == rgb) return table[h] - 1;
+		}
+		return -1;
+	}
+	
+	/** Returns the index of the specified color, or -1 if it is null or absent. */
+	public int indexOf(Color color) {
+		return (color == null) ? -1 : indexOf(color.getRGB());
+	}
+	
+	/**
+	 * Returns the index of the specified color, adding it if it is absent.
+	 * Returns -1 for null. Throws UnsupportedOperationException if the color
+	 * is absent and this palette is read-only.
+	 */
+	public int add(Color color) {
+		if (color == null) return -1;
+		int rgb = color.getRGB();
+		int index = indexOf(rgb);
+		return (index >= 0) ? index : put(rgb, color);
+	}
+	
+	/** Returns the index of the color with the specified ARGB value, adding it if it is absent, as above. */
+	public int add(int rgb) {
+		int index = indexOf(rgb);
+		return (index >= 0) ? index : put(rgb, new Color(rgb, (rgb >>> 24) != 0xFF));
+	}
+	
+	private int put(int rgb, Color color) {
+		if (readOnly) throw new UnsupportedOperationException("palette is read-only");
+		if (size >= colors.length) {
+			colors = Arrays.copyOf(colors, size * 2);
+			rgbs = Arrays.copyOf(rgbs, size * 2);
+		}
+		colors[size] = color;
+		rgbs[size] = rgb;
+		size++;
+		if (size * 2 > table.length) {
+			table = new int[table.length << 1];
+			for (int i = 0; i < size; i++) insert(i);
+		} else {
+			insert(size - 1);
+		}
+		return size - 1;
+	}
+	
+	private void insert(int index) {
+		int mask = table.length - 1;
+		int h = hash(rgbs[index]) & mask;
+		while (table[h] != 0) h = (h + 1) & mask;
+		table[h] = index + 1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.kreative.polyhedra;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds the vertices and faces contributed by a range of seed elements in
+ * parallel. The elements are split into ranges of at most
+ * <code>getThreshold()</code> elements, each range is built into its own
+ * block on a <code>ForkJoinPool</code>, and the blocks are appended to the
+ * destination builder in order. Since the ranges do not depend on how the
+ * work is scheduled, the result is the same as building every element on
+ * one thread, provided the block refers to vertices by the indices they
+ * will have in the destination rather than by the return values of
+ * <code>addVertex</code>. Parallel building is enabled by default and can
+ * be disabled with <code>setEnabled(false)</code> or by setting the system
+ * property <code>com.kreative.polyhedra.parallelbuild</code> to false. The
+ * block size can be set with <code>setThreshold</code> or the system property
+ * <code>com.kreative.polyhedra.parallelbuild.threshold</code>.
+ */
+public final class ParallelBuild {
+	/** The default number of elements built in each block. */
+	public static final int DEFAULT_THRESHOLD = 1024;
+	
+	private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("com.kreative.polyhedra.parallelbuild"));
+	private static volatile int threshold = Math.max(1, Integer.getInteger("com.kreative.polyhedra.parallelbuild.threshold", DEFAULT_THRESHOLD));
+	private static volatile ForkJoinPool pool = null;
+	
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	public static void setEnabled(boolean enabled) {
+		ParallelBuild.enabled = enabled;
+	}
+	
+	public static int getThreshold() {
+		return threshold;
+	}
+	
+	public static void setThreshold(int threshold) {
+		if (threshold < 1) throw new IllegalArgumentException("threshold must be positive");
+		ParallelBuild.threshold = threshold;
+	}
+	
+	/** Returns the pool used for parallel building, which is the common pool unless set otherwise. */
+	public static ForkJoinPool getPool() {
+		ForkJoinPool p = pool;
+		return (p != null) ? p : ForkJoinPool.commonPool();
+	}
+	
+	public static void setPool(ForkJoinPool pool) {
+		ParallelBuild.pool = pool;
+	}
+	
+	/** Computes something for a range of seed elements. */
+	public static interface Range {
+		public void run(int start, int end);
+	}
+	
+	/** Adds the vertices and faces for a range of seed elements to a builder. */
+	public static interface Block {
+		public void build(PolyhedronBuilder b, int start, int end);
+	}
+	
+	/** Runs the specified range over elements 0 through count - 1. */
+	public static void run(int count, final Range range) {
+		final int t = threshold;
+		if (!enabled || count <= t) {
+			range.run(0, count);
+			return;
+		}
+		final int blocks = (count + t - 1) / t;
+		final int n = count;
+		getPool().invoke(new Task(new Range() {
+			public void run(int first, int last) {
+				for (int i = first; i < last; i++) {
+					range.run(i * t, Math.min(n, (i + 1) * t));
+				}
+			}
+		}, 0, blocks));
+	}
+	
+	/** Builds the specified block over elements 0 through count - 1 and appends it to the builder. */
+	public static void build(PolyhedronBuilder b, int count, final Block block) {
+		final int t = threshold;
+		if (!enabled || count <= t) {
+			block.build(b, 0, count);
+			return;
+		}
+		final int blocks = (count + t - 1) / t;
+		final int n = count;
+		final PolyhedronBuilder[] builders = new PolyhedronBuilder[blocks];
+		getPool().invoke(new Task(new Range() {
+			public void run(int first, int last) {
+				for (int i = first; i < last; i++) {
+					PolyhedronBuilder bb = new PolyhedronBuilder();
+					block.build(bb, i * t, Math.min(n, (i + 1) * t));
+					builders[i] = bb;
+				}
+			}
+		}, 0, blocks));
+		for (PolyhedronBuilder bb : builders) b.append(bb);
+	}
+	
+	/** Runs a range of block numbers, splitting it until each task has one block. */
+	private static final class Task extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Range blocks;
+		private final int start, end;
+		public Task(Range blocks, int start, int end) {
+			this.blocks = blocks;
+			this.start = start;
+			this.end = end;
+		}
+		protected void compute() {
+			if (end - start <= 1) {
+				blocks.run(start, end);
+			} else {
+				int mid = (start + end) >>> 1;
+				invokeAll(new Task(blocks, start, mid), new Task(blocks, mid, end));
+			}
+		}
+	}
+}
\ No newline at end of file
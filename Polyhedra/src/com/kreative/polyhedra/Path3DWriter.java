@@ -49,7 +49,7 @@ public class Path3DWriter {
 		}
 		for (Polyhedron.Face f : p.faces) {
 			ArrayList<Object> things = new ArrayList<Object>();
-			things.add("[#" + Integer.toHexString(f.color.getRGB() | 0xFF000000).substring(2).toUpperCase() + "]");
+			things.add("[#" + Integer.toHexString(f.color().getRGB() | 0xFF000000).substring(2).toUpperCase() + "]");
 			for (int i = 0, n = f.vertices.size(); i < n; i++) {
 				if (i == 0) things.add("V");
 				if (i == 1) things.add("L");
@@ -0,0 +1,156 @@
+package com.kreative.polyhedra;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An insertion-ordered set of points that treats two points as the same
+ * if each of their coordinates differs by no more than a tolerance, as in
+ * <code>Point3D.equals(Point3D, double)</code>. Points are hashed on a grid
+ * of cells twice the tolerance wide, so a lookup only has to check the
+ * points in the 27 cells surrounding it. Adding a point close to one that
+ * is already present keeps the point that was added first. Points cannot
+ * be removed.
+ */
+public class PointSet extends AbstractSet<Point3D> {
+	public static final double DEFAULT_EPSILON = 1E-9;
+	
+	private final double epsilon;
+	private final double cellSize;
+	private Point3D[] points;
+	private long[] cells;
+	private int[] next;
+	private int[] table;
+	private int size;
+	
+	public PointSet() {
+		this(DEFAULT_EPSILON);
+	}
+	
+	public PointSet(double epsilon) {
+		if (!(epsilon >= 0)) throw new IllegalArgumentException("epsilon must be nonnegative");
+		this.epsilon = epsilon;
+		this.cellSize = epsilon * 2;
+		this.points = new Point3D[16];
+		this.cells = new long[48];
+		this.next = new int[16];
+		this.table = new int[32];
+		this.size = 0;
+	}
+	
+	public PointSet(Collection<? extends Point3D> points, double epsilon) {
+		this(epsilon);
+		addAll(points);
+	}
+	
+	public PointSet(Collection<? extends Point3D> points) {
+		this(points, DEFAULT_EPSILON);
+	}
+	
+	public double getEpsilon() {
+		return epsilon;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public Point3D get(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		return points[index];
+	}
+	
+	/** Returns the index of the point within tolerance of the specified point, or -1 if there is none. */
+	public int indexOf(Point3D p) {
+		long cx = cell(p.getX()), cy = cell(p.getY()), cz = cell(p.getZ());
+		int r = (cellSize > 0) ? 1 : 0;
+		int mask = table.length - 1;
+		for (long dx = -r; dx <= r; dx++) {
+			for (long dy = -r; dy <= r; dy++) {
+				for (long dz = -r; dz <= r; dz++) {
+					int h = hash(cx + dx, cy + dy, cz + dz) & mask;
+					for (int i = table[h] - 1; i >= 0; i = next[i] - 1) {
+						if (points[i].equals(p, epsilon)) return i;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/** Returns the point within tolerance of the specified point, or null if there is none. */
+	public Point3D find(Point3D p) {
+		int i = indexOf(p);
+		return (i < 0) ? null : points[i];
+	}
+	
+	public boolean contains(Object o) {
+		return (o instanceof Point3D) && indexOf((Point3D)o) >= 0;
+	}
+	
+	public boolean add(Point3D p) {
+		if (indexOf(p) >= 0) return false;
+		append(p);
+		return true;
+	}
+	
+	/** Returns the index of the point within tolerance of the specified point, adding it if there is none. */
+	public int intern(Point3D p) {
+		int i = indexOf(p);
+		return (i >= 0) ? i : append(p);
+	}
+	
+	private int append(Point3D p) {
+		if (size >= points.length) {
+			points = Arrays.copyOf(points, size * 2);
+			cells = Arrays.copyOf(cells, size * 6);
+			next = Arrays.copyOf(next, size * 2);
+		}
+		points[size] = p;
+		cells[size * 3] = cell(p.getX());
+		cells[size * 3 + 1] = cell(p.getY());
+		cells[size * 3 + 2] = cell(p.getZ());
+		size++;
+		if (size * 2 > table.length) {
+			table = new int[table.length << 1];
+			for (int i = 0; i < size; i++) insert(i);
+		} else {
+			insert(size - 1);
+		}
+		return size - 1;
+	}
+	
+	public Iterator<Point3D> iterator() {
+		return new Iterator<Point3D>() {
+			private int i = 0;
+			public boolean hasNext() { return i < size; }
+			public Point3D next() {
+				if (i >= size) throw new NoSuchElementException();
+				return points[i++];
+			}
+		};
+	}
+	
+	private void insert(int i) {
+		int h = hash(cells[i * 3], cells[i * 3 + 1], cells[i * 3 + 2]) & (table.length - 1);
+		next[i] = table[h];
+		table[h] = i + 1;
+	}
+	
+	private long cell(double v) {
+		if (cellSize > 0) return (long)Math.floor(v / cellSize);
+		// With no tolerance, only identical coordinates share a cell.
+		return Double.doubleToLongBits((v == 0) ? 0 : v);
+	}
+	
+	private static int hash(long x, long y, long z) {
+		long h = x * 0x9E3779B97F4A7C15L + y * 0xC2B2AE3D27D4EB4FL + z * 0x165667B19E3779F9L;
+		h ^= h >>> 29;
+		h *= 0xBF58476D1CE4E5B9L;
+		h ^= h >>> 32;
+		return (int)h;
+	}
+}
\ No newline at end of file
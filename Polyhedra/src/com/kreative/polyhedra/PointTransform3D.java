@@ -4,4 +4,41 @@ public abstract class PointTransform3D {
 	public abstract boolean isReflection();
 	public abstract Point3D transform(double x, double y, double z);
 	public abstract Point3D transform(Point3D point);
+	
+	/**
+	 * Transforms <code>count</code> points stored as consecutive x, y, z
+	 * triples in <code>src</code> starting at <code>srcOff</code> and stores
+	 * the results in <code>dst</code> starting at <code>dstOff</code>. The
+	 * arrays may be the same and the ranges may overlap.
+	 */
+	public void transform(double[] src, int srcOff, double[] dst, int dstOff, int count) {
+		int step = 3;
+		if (src == dst && dstOff > srcOff) {
+			// Work backwards so overlapping input is read before it is overwritten.
+			srcOff += (count - 1) * 3;
+			dstOff += (count - 1) * 3;
+			step = -3;
+		}
+		for (int i = 0, s = srcOff, d = dstOff; i < count; i++, s += step, d += step) {
+			Point3D p = transform(src[s], src[s + 1], src[s + 2]);
+			dst[d] = p.getX();
+			dst[d + 1] = p.getY();
+			dst[d + 2] = p.getZ();
+		}
+	}
+	
+	/** Transforms <code>count</code> points stored as x, y, z triples in place. */
+	public void transform(double[] coords, int off, int count) {
+		transform(coords, off, coords, off, count);
+	}
+	
+	/** Transforms <code>count</code> points stored in parallel coordinate arrays in place. */
+	public void transform(double[] x, double[] y, double[] z, int off, int count) {
+		for (int i = off, end = off + count; i < end; i++) {
+			Point3D p = transform(x[i], y[i], z[i]);
+			x[i] = p.getX();
+			y[i] = p.getY();
+			z[i] = p.getZ();
+		}
+	}
 }
\ No newline at end of file
@@ -29,23 +29,26 @@ public class Polyhedron {
 		public final Polyhedron parent;
 		public final Vertex vertex1;
 		public final Vertex vertex2;
-		private Edge(Polyhedron parent, Vertex vertex1, Vertex vertex2) {
+		/**
+		 * The index of this edge in the edges list of its parent. Face edges
+		 * share the index of the edge between the same two vertices.
+		 */
+		public final int index;
+		private Edge(Polyhedron parent, Vertex vertex1, Vertex vertex2, int index) {
 			this.parent = parent;
 			this.vertex1 = vertex1;
 			this.vertex2 = vertex2;
+			this.index = index;
 		}
-		private int minIndex() { return Math.min(vertex1.index, vertex2.index); }
-		private int maxIndex() { return Math.max(vertex1.index, vertex2.index); }
 		public boolean equals(Object obj) {
 			return (
 				(obj instanceof Edge)
 				&& this.parent == ((Edge)obj).parent
-				&& this.minIndex() == ((Edge)obj).minIndex()
-				&& this.maxIndex() == ((Edge)obj).maxIndex()
+				&& this.index == ((Edge)obj).index
 			);
 		}
 		public int hashCode() {
-			return vertex1.index + vertex2.index;
+			return index;
 		}
 		public double length() {
 			return vertex1.point.distance(vertex2.point);
@@ -65,17 +68,38 @@ public class Polyhedron {
 		public final Polyhedron parent;
 		public final List<Vertex> vertices;
 		public final List<Edge> edges;
-		public final Color color;
+		/** The index of the color of this face in the palette of its parent, or -1 if it has none. */
+		public final int colorIndex;
 		public final int index;
-		private Face(Polyhedron parent, List<Vertex> vertices, List<Edge> edges, Color color, int index) {
+		private Face(Polyhedron parent, List<Vertex> vertices, List<Edge> edges, int colorIndex, int index) {
 			this.parent = parent;
 			this.vertices = Collections.unmodifiableList(vertices);
 			this.edges = Collections.unmodifiableList(edges);
-			this.color = color;
+			this.colorIndex = colorIndex;
 			this.index = index;
 		}
+		/** Returns the color of this face, looked up in the palette of its parent, or null if it has none. */
+		public Color color() {
+			return (colorIndex < 0) ? null : parent.palette.get(colorIndex);
+		}
 		public Point3D center() {
-			return Point3D.average(points());
+			double[] c = parent.faceCenters();
+			int j = index * 3;
+			return new Point3D(c[j], c[j + 1], c[j + 2]);
+		}
+		/** Returns the unit normal of this face, averaged over its corners. */
+		public Point3D normal() {
+			double[] g = parent.facePlanes();
+			int j = index * 5;
+			return new Point3D(g[j], g[j + 1], g[j + 2]);
+		}
+		/** Returns the signed distance from the origin to the plane through the center along the normal. */
+		public double planeOffset() {
+			return parent.facePlanes()[index * 5 + 3];
+		}
+		/** Returns the magnitude of the vector area of this face. */
+		public double area() {
+			return parent.facePlanes()[index * 5 + 4];
 		}
 		public boolean equals(Object obj) {
 			return (
@@ -92,79 +116,481 @@ public class Polyhedron {
 			for (Vertex v : vertices) points.add(v.point);
 			return points;
 		}
+		/** Returns a new array containing the indices of the edges of this face, in winding order. */
+		public int[] edgeIndices() {
+			int[] indices = new int[edges.size()];
+			for (int i = 0; i < indices.length; i++) indices[i] = edges.get(i).index;
+			return indices;
+		}
+	}
+	
+	/**
+	 * A reusable buffer for the fans around one vertex, as filled by
+	 * <code>getFaceFans</code> or <code>getEdgeFans</code>. Fan i is made of
+	 * the items <code>get(start(i))</code> through <code>get(end(i) - 1)</code>.
+	 * Each thread should use its own instance.
+	 */
+	public static final class Fans {
+		private int[] items = new int[16];
+		private int[] ends = new int[4];
+		private int size = 0;
+		private int count = 0;
+		// Which fan last visited each slot around the vertex; slots not
+		// visited by the current call hold values no greater than base.
+		private int[] marks = new int[16];
+		private int stamp = 0;
+		private int base = 0;
+		public int count() { return count; }
+		public int start(int i) { return (i == 0) ? 0 : ends[i - 1]; }
+		public int end(int i) { return ends[i]; }
+		public int get(int j) { return items[j]; }
+		/** Returns the fans as arrays, one per fan. */
+		public List<int[]> toList() {
+			List<int[]> fans = new ArrayList<int[]>(count);
+			for (int i = 0; i < count; i++) fans.add(Arrays.copyOfRange(items, start(i), end(i)));
+			return fans;
+		}
+		private void clear(int slots) {
+			size = 0;
+			count = 0;
+			if (marks.length < slots) marks = new int[Math.max(slots, marks.length * 2)];
+			if (stamp > Integer.MAX_VALUE - slots - 1) {
+				Arrays.fill(marks, 0);
+				stamp = 0;
+			}
+			base = stamp;
+		}
+		private int beginFan() { return ++stamp; }
+		private void add(int item) {
+			if (size == items.length) items = Arrays.copyOf(items, size * 2);
+			items[size++] = item;
+		}
+		private void endFan() {
+			if (count == ends.length) ends = Arrays.copyOf(ends, count * 2);
+			ends[count++] = size;
+		}
+	}
+	
+	/**
+	 * Immutable adjacency index in compressed sparse row form. The neighbors
+	 * of element i are stored in the index range start[i] to start[i+1].
+	 */
+	private static final class Adjacency {
+		public final int[] vertexEdgeStart;
+		public final int[] vertexEdges;
+		public final int[] edgeVertexSlots;
+		public final int[] vertexFaceStart;
+		public final int[] vertexFaces;
+		public final int[] edgeFaceStart;
+		public final int[] edgeFaces;
+		public Adjacency(Polyhedron p) {
+			int vn = p.vertices.size();
+			int en = p.edges.size();
+			int fn = p.faces.size();
+			// Vertex to edges, in edge order.
+			vertexEdgeStart = new int[vn + 1];
+			for (Edge e : p.edges) {
+				vertexEdgeStart[e.vertex1.index + 1]++;
+				if (e.vertex2.index != e.vertex1.index) vertexEdgeStart[e.vertex2.index + 1]++;
+			}
+			for (int i = 0; i < vn; i++) vertexEdgeStart[i + 1] += vertexEdgeStart[i];
+			// Where each edge appears in vertexEdges at its first and second vertex.
+			vertexEdges = new int[vertexEdgeStart[vn]];
+			edgeVertexSlots = new int[en * 2];
+			int[] fill = Arrays.copyOf(vertexEdgeStart, vn);
+			for (int i = 0; i < en; i++) {
+				Edge e = p.edges.get(i);
+				edgeVertexSlots[i * 2] = edgeVertexSlots[i * 2 + 1] = fill[e.vertex1.index];
+				vertexEdges[fill[e.vertex1.index]++] = i;
+				if (e.vertex2.index != e.vertex1.index) {
+					edgeVertexSlots[i * 2 + 1] = fill[e.vertex2.index];
+					vertexEdges[fill[e.vertex2.index]++] = i;
+				}
+			}
+			// Vertex to faces and edge to faces, in face order.
+			int[] last = new int[Math.max(vn, en)];
+			vertexFaceStart = new int[vn + 1];
+			edgeFaceStart = new int[en + 1];
+			Arrays.fill(last, -1);
+			for (Face f : p.faces) {
+				for (Vertex v : f.vertices) {
+					if (last[v.index] == f.index) continue;
+					last[v.index] = f.index;
+					vertexFaceStart[v.index + 1]++;
+				}
+			}
+			Arrays.fill(last, -1);
+			int faceEdgeCount = 0;
+			for (Face f : p.faces) faceEdgeCount += f.edges.size();
+			int[] faceEdges = new int[faceEdgeCount];
+			faceEdgeCount = 0;
+			for (Face f : p.faces) {
+				for (Edge e : f.edges) {
+					int ei = e.index;
+					faceEdges[faceEdgeCount++] = ei;
+					if (last[ei] == f.index) continue;
+					last[ei] = f.index;
+					edgeFaceStart[ei + 1]++;
+				}
+			}
+			for (int i = 0; i < vn; i++) vertexFaceStart[i + 1] += vertexFaceStart[i];
+			for (int i = 0; i < en; i++) edgeFaceStart[i + 1] += edgeFaceStart[i];
+			vertexFaces = new int[vertexFaceStart[vn]];
+			edgeFaces = new int[edgeFaceStart[en]];
+			fill = Arrays.copyOf(vertexFaceStart, vn);
+			for (Face f : p.faces) {
+				for (Vertex v : f.vertices) {
+					int j = fill[v.index];
+					if (j > vertexFaceStart[v.index] && vertexFaces[j - 1] == f.index) continue;
+					vertexFaces[j] = f.index;
+					fill[v.index] = j + 1;
+				}
+			}
+			fill = Arrays.copyOf(edgeFaceStart, en);
+			faceEdgeCount = 0;
+			for (Face f : p.faces) {
+				for (int k = 0, m = f.edges.size(); k < m; k++) {
+					int ei = faceEdges[faceEdgeCount++];
+					int j = fill[ei];
+					if (j > edgeFaceStart[ei] && edgeFaces[j - 1] == f.index) continue;
+					edgeFaces[j] = f.index;
+					fill[ei] = j + 1;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * The index-based topology of a polyhedron, along with the indexes built
+	 * from it. Polyhedra that differ only in vertex positions share one instance.
+	 * Face i has the vertices and edges in the index range faceOffsets[i] to
+	 * faceOffsets[i+1] of vertexIndexes and edgeIndexes, and edge i runs from
+	 * vertex edgeVertices[i*2] to vertex edgeVertices[i*2+1].
+	 */
+	private static final class Topology {
+		public final EdgeTable edgeTable;
+		public final int[] faceOffsets;
+		public final int[] vertexIndexes;
+		public final int[] edgeIndexes;
+		public final int[] edgeVertices;
+		public volatile Adjacency adjacency;
+		public volatile HalfEdgeMesh halfEdgeMesh;
+		public Topology(EdgeTable edgeTable, int[] faceOffsets, int[] vertexIndexes, int[] edgeIndexes, int[] edgeVertices) {
+			this.edgeTable = edgeTable;
+			this.faceOffsets = faceOffsets;
+			this.vertexIndexes = vertexIndexes;
+			this.edgeIndexes = edgeIndexes;
+			this.edgeVertices = edgeVertices;
+		}
+	}
+	
+	/**
+	 * An unmodifiable list of edges or faces belonging to this polyhedron,
+	 * created by index from the shared topology on first access.
+	 */
+	private abstract class SharedList<E> extends AbstractList<E> implements RandomAccess {
+		private final int size;
+		private volatile List<E> list;
+		public SharedList(int size) {
+			this.size = size;
+		}
+		private List<E> list() {
+			List<E> l = list;
+			if (l == null) {
+				synchronized (this) {
+					if ((l = list) == null) {
+						l = new ArrayList<E>(size);
+						for (int i = 0; i < size; i++) l.add(create(i));
+						list = l;
+					}
+				}
+			}
+			return l;
+		}
+		protected abstract E create(int index);
+		public E get(int index) { return list().get(index); }
+		public int size() { return size; }
 	}
 	
 	public final List<Vertex> vertices;
 	public final List<Edge> edges;
 	public final List<Face> faces;
+	private final Topology topology;
+	private final int[] colorIndexes;
+	private final Palette palette;
+	private final PolyhedronStats stats;
+	private volatile MetricCache metricCache;
+	private volatile double[] faceCenters;
+	private volatile double[] facePlanes;
 	
 	public Polyhedron(
 		List<? extends Point3D> vertices,
 		List<? extends List<? extends Integer>> faces,
 		List<? extends Color> faceColors
 	) {
-		List<Vertex> tmpVertices = new ArrayList<Vertex>();
-		List<Edge> tmpEdges = new ArrayList<Edge>();
-		List<Face> tmpFaces = new ArrayList<Face>();
-		for (int i = 0, n = vertices.size(); i < n; i++) {
-			tmpVertices.add(new Vertex(this, vertices.get(i), i));
-		}
-		for (int i = 0, n = faces.size(); i < n; i++) {
-			List<Vertex> faceVertices = new ArrayList<Vertex>();
-			List<Edge> faceEdges = new ArrayList<Edge>();
-			List<? extends Integer> face = faces.get(i);
-			for (int j = 0, m = face.size(); j < m; j++) {
-				Vertex v1 = tmpVertices.get(face.get(j) % tmpVertices.size());
-				Vertex v2 = tmpVertices.get(face.get((j + 1) % m) % tmpVertices.size());
-				Edge e = new Edge(this, v1, v2);
-				faceVertices.add(v1);
-				faceEdges.add(e);
-				if (!tmpEdges.contains(e)) tmpEdges.add(e);
-			}
+		this.stats = PolyhedronStats.begin();
+		PolyhedronStats.Timer timer = PolyhedronStats.timer(stats);
+		Palette palette = new Palette();
+		this.vertices = createVertices(vertices, timer);
+		int fn = faces.size();
+		int[] faceOffsets = new int[fn + 1];
+		for (int i = 0; i < fn; i++) faceOffsets[i + 1] = faceOffsets[i] + faces.get(i).size();
+		int[] indices = new int[faceOffsets[fn]];
+		int[] colorIndexes = new int[fn];
+		for (int i = 0, k = 0; i < fn; i++) {
+			for (int index : faces.get(i)) indices[k++] = index;
 			Color color = faceColors.isEmpty() ? Color.GRAY : faceColors.get(i % faceColors.size());
-			tmpFaces.add(new Face(this, faceVertices, faceEdges, color, i));
+			colorIndexes[i] = palette.add(color);
 		}
-		this.vertices = Collections.unmodifiableList(tmpVertices);
+		this.palette = palette.freeze();
+		this.colorIndexes = colorIndexes;
+		List<Edge> tmpEdges = new ArrayList<Edge>();
+		List<Face> tmpFaces = new ArrayList<Face>(fn);
+		this.topology = createFaces(fn, faceOffsets, indices, tmpEdges, tmpFaces, timer);
 		this.edges = Collections.unmodifiableList(tmpEdges);
 		this.faces = Collections.unmodifiableList(tmpFaces);
 	}
 	
 	public Polyhedron(Polyhedron seed, PointTransform3D tx) {
-		boolean reverse = (tx != null) && tx.isReflection();
-		List<Vertex> tmpVertices = new ArrayList<Vertex>();
-		List<Edge> tmpEdges = new ArrayList<Edge>();
-		List<Face> tmpFaces = new ArrayList<Face>();
-		for (int i = 0, n = seed.vertices.size(); i < n; i++) {
-			Point3D point = seed.vertices.get(i).point;
-			if (tx != null) point = tx.transform(point);
-			tmpVertices.add(new Vertex(this, point, i));
-		}
-		for (int i = 0, n = seed.faces.size(); i < n; i++) {
-			List<Vertex> faceVertices = new ArrayList<Vertex>();
-			List<Edge> faceEdges = new ArrayList<Edge>();
-			List<Vertex> face = seed.faces.get(i).vertices;
-			if (reverse) {
-				face = new ArrayList<Vertex>(face);
-				Collections.reverse(face);
-			}
-			for (int j = 0, m = face.size(); j < m; j++) {
-				Vertex v1 = tmpVertices.get(face.get(j).index);
-				Vertex v2 = tmpVertices.get(face.get((j + 1) % m).index);
-				Edge e = new Edge(this, v1, v2);
-				faceVertices.add(v1);
-				faceEdges.add(e);
-				if (!tmpEdges.contains(e)) tmpEdges.add(e);
+		this(seed, transform(seed, tx), (tx != null) && tx.isReflection());
+	}
+	
+	/**
+	 * Creates a polyhedron with the faces of the specified polyhedron and the
+	 * specified vertex positions. Unless the faces are reversed, the topology
+	 * is shared with the seed rather than recomputed, and edges and faces are
+	 * created only when first accessed.
+	 */
+	public Polyhedron(Polyhedron seed, List<? extends Point3D> points, boolean reverse) {
+		this(seed, points, reverse, null);
+	}
+	
+	/**
+	 * Creates a polyhedron with the vertices and faces of the specified
+	 * polyhedron and the specified face colors, sharing the topology of the seed.
+	 */
+	public Polyhedron(Polyhedron seed, List<? extends Color> faceColors) {
+		this(seed, seed.points(), false, faceColors);
+	}
+	
+	private Polyhedron(Polyhedron seed, List<? extends Point3D> points, boolean reverse, List<? extends Color> faceColors) {
+		if (points.size() != seed.vertices.size()) {
+			throw new IllegalArgumentException("point count must match vertex count");
+		}
+		this.stats = PolyhedronStats.begin();
+		Topology t = seed.topology;
+		int fn = t.faceOffsets.length - 1;
+		if (faceColors == null) {
+			this.palette = seed.palette;
+			this.colorIndexes = seed.colorIndexes;
+		} else {
+			Palette palette = new Palette();
+			int[] colorIndexes = new int[fn];
+			for (int i = 0; i < fn; i++) {
+				Color color = faceColors.isEmpty() ? Color.GRAY : faceColors.get(i % faceColors.size());
+				colorIndexes[i] = palette.add(color);
 			}
-			Color color = seed.faces.get(i).color;
-			tmpFaces.add(new Face(this, faceVertices, faceEdges, color, i));
+			this.palette = palette.freeze();
+			this.colorIndexes = colorIndexes;
+		}
+		PolyhedronStats.Timer timer = PolyhedronStats.timer(stats);
+		this.vertices = createVertices(points, timer);
+		if (!reverse) {
+			// Build edges and faces from the shared index arrays alone, so that
+			// this polyhedron keeps no reference to the seed or its elements.
+			this.topology = t;
+			this.edges = new SharedList<Edge>(t.edgeTable.size()) {
+				protected Edge create(int index) {
+					return new Edge(Polyhedron.this, vertices.get(topology.edgeVertices[index * 2]), vertices.get(topology.edgeVertices[index * 2 + 1]), index);
+				}
+			};
+			this.faces = new SharedList<Face>(fn) {
+				protected Face create(int index) {
+					return createFace(topology, index, null);
+				}
+			};
+			timer.end();
+			return;
+		}
+		int[] indices = new int[t.vertexIndexes.length];
+		for (int i = 0; i < fn; i++) {
+			int start = t.faceOffsets[i], end = t.faceOffsets[i + 1];
+			for (int j = start, k = end - 1; j < end; j++, k--) indices[j] = t.vertexIndexes[k];
 		}
-		this.vertices = Collections.unmodifiableList(tmpVertices);
+		List<Edge> tmpEdges = new ArrayList<Edge>();
+		List<Face> tmpFaces = new ArrayList<Face>(fn);
+		this.topology = createFaces(fn, t.faceOffsets, indices, tmpEdges, tmpFaces, timer);
 		this.edges = Collections.unmodifiableList(tmpEdges);
 		this.faces = Collections.unmodifiableList(tmpFaces);
 	}
 	
+	/**
+	 * Creates a polyhedron with the faces of the specified polyhedron and
+	 * vertex positions given as consecutive x, y, z triples, as with
+	 * <code>Polyhedron(Polyhedron, List, boolean)</code>.
+	 */
+	public Polyhedron(Polyhedron seed, double[] coords, boolean reverse) {
+		this(seed, new CoordinateList(coords), reverse);
+	}
+	
+	private static double[] transform(Polyhedron seed, PointTransform3D tx) {
+		double[] coords = seed.coords();
+		if (tx != null) tx.transform(coords, 0, seed.vertices.size());
+		return coords;
+	}
+	
+	private static final class CoordinateList extends AbstractList<Point3D> implements RandomAccess {
+		private final double[] coords;
+		private final int size;
+		public CoordinateList(double[] coords) {
+			this(coords, coords.length / 3);
+		}
+		public CoordinateList(double[] coords, int size) {
+			this.coords = coords;
+			this.size = size;
+		}
+		public Point3D get(int index) {
+			int j = index * 3;
+			return new Point3D(coords[j], coords[j + 1], coords[j + 2]);
+		}
+		public int size() {
+			return size;
+		}
+	}
+	
+	public Polyhedron(PolyhedronBuffer buffer) {
+		this.stats = PolyhedronStats.begin();
+		PolyhedronStats.Timer timer = PolyhedronStats.timer(stats);
+		Palette palette = new Palette();
+		this.vertices = createVertices(new CoordinateList(buffer.coords, buffer.vertexCount()), timer);
+		int fn = buffer.faceCount();
+		int[] colorIndexes = new int[fn];
+		for (int i = 0; i < fn; i++) colorIndexes[i] = palette.add(buffer.colors[i] | 0xFF000000);
+		this.palette = palette.freeze();
+		this.colorIndexes = colorIndexes;
+		List<Edge> tmpEdges = new ArrayList<Edge>();
+		List<Face> tmpFaces = new ArrayList<Face>(fn);
+		this.topology = createFaces(fn, buffer.faceOffsets, buffer.indices, tmpEdges, tmpFaces, timer);
+		this.edges = Collections.unmodifiableList(tmpEdges);
+		this.faces = Collections.unmodifiableList(tmpFaces);
+	}
+	
+	Polyhedron(PolyhedronBuilder builder) {
+		this.stats = PolyhedronStats.begin();
+		PolyhedronStats.Timer timer = PolyhedronStats.timer(stats);
+		this.palette = builder.palette.freeze();
+		this.colorIndexes = Arrays.copyOf(builder.colorIndexes, builder.faceCount);
+		this.vertices = createVertices(new CoordinateList(builder.coords, builder.vertexCount), timer);
+		int fn = builder.faceCount;
+		List<Edge> tmpEdges = new ArrayList<Edge>();
+		List<Face> tmpFaces = new ArrayList<Face>(fn);
+		this.topology = createFaces(fn, builder.faceOffsets, builder.indices, tmpEdges, tmpFaces, timer);
+		this.edges = Collections.unmodifiableList(tmpEdges);
+		this.faces = Collections.unmodifiableList(tmpFaces);
+	}
+	
+	private List<Vertex> createVertices(List<? extends Point3D> points, PolyhedronStats.Timer timer) {
+		List<Vertex> tmpVertices = new ArrayList<Vertex>(points.size());
+		for (int i = 0, n = points.size(); i < n; i++) {
+			tmpVertices.add(new Vertex(this, points.get(i), i));
+		}
+		timer.endVertices();
+		return Collections.unmodifiableList(tmpVertices);
+	}
+	
+	/**
+	 * Creates the faces and distinct edges of this polyhedron from faces given
+	 * as runs of vertex indices, wrapping indices past the last vertex. Edges
+	 * are deduplicated in one pass before any edge or face objects are created.
+	 */
+	private Topology createFaces(
+		int fn, int[] faceOffsets, int[] indices,
+		List<Edge> tmpEdges, List<Face> tmpFaces, PolyhedronStats.Timer timer
+	) {
+		int vn = vertices.size();
+		int cn = faceOffsets[fn];
+		EdgeTable edgeTable = new EdgeTable(cn / 2);
+		int[] vertexIndexes = new int[cn];
+		int[] edgeIndexes = new int[cn];
+		int[] edgeVertices = new int[cn * 2];
+		int en = 0;
+		timer.beginEdges();
+		for (int i = 0; i < cn; i++) vertexIndexes[i] = indices[i] % vn;
+		for (int i = 0; i < fn; i++) {
+			int start = faceOffsets[i], m = faceOffsets[i + 1] - start;
+			for (int j = 0; j < m; j++) {
+				int v1 = vertexIndexes[start + j];
+				int v2 = vertexIndexes[start + (j + 1) % m];
+				int ei = edgeTable.intern(v1, v2, en);
+				if (ei == en) {
+					edgeVertices[en * 2] = v1;
+					edgeVertices[en * 2 + 1] = v2;
+					en++;
+				}
+				edgeIndexes[start + j] = ei;
+			}
+		}
+		timer.endEdges();
+		Topology t = new Topology(edgeTable, Arrays.copyOf(faceOffsets, fn + 1), vertexIndexes, edgeIndexes, Arrays.copyOf(edgeVertices, en * 2));
+		for (int i = 0; i < fn; i++) tmpFaces.add(createFace(t, i, tmpEdges));
+		timer.end();
+		return t;
+	}
+	
+	/**
+	 * Creates face i of this polyhedron from the specified topology. If
+	 * <code>newEdges</code> is not null, the face's edges that have not
+	 * been seen in an earlier face are added to it in index order.
+	 */
+	private Face createFace(Topology t, int i, List<Edge> newEdges) {
+		int start = t.faceOffsets[i], m = t.faceOffsets[i + 1] - start;
+		List<Vertex> faceVertices = new ArrayList<Vertex>(m);
+		List<Edge> faceEdges = new ArrayList<Edge>(m);
+		for (int j = 0; j < m; j++) {
+			Vertex v1 = vertices.get(t.vertexIndexes[start + j]);
+			Vertex v2 = vertices.get(t.vertexIndexes[start + (j + 1) % m]);
+			int ei = t.edgeIndexes[start + j];
+			Edge e = new Edge(this, v1, v2, ei);
+			faceVertices.add(v1);
+			faceEdges.add(e);
+			if (newEdges != null && ei == newEdges.size()) newEdges.add(e);
+		}
+		return new Face(this, faceVertices, faceEdges, colorIndexes[i], i);
+	}
+	
 	public Point3D center() {
-		return Point3D.average(points());
+		return new VertexBuffer(this).average();
+	}
+	
+	/** Returns the instrumentation for this polyhedron, or null if it was constructed while instrumentation was disabled. */
+	public PolyhedronStats getStats() {
+		return stats;
+	}
+	
+	long indexBytes() {
+		Topology t = topology;
+		long bytes = t.edgeTable.estimateBytes();
+		for (int[] x : new int[][]{ t.faceOffsets, t.vertexIndexes, t.edgeIndexes, t.edgeVertices }) {
+			bytes += PolyhedronStats.arrayBytes(4, x.length);
+		}
+		Adjacency a = t.adjacency;
+		if (a != null) {
+			for (int[] x : new int[][]{ a.vertexEdgeStart, a.vertexEdges, a.edgeVertexSlots, a.vertexFaceStart, a.vertexFaces, a.edgeFaceStart, a.edgeFaces }) {
+				bytes += PolyhedronStats.arrayBytes(4, x.length);
+			}
+		}
+		HalfEdgeMesh m = t.halfEdgeMesh;
+		if (m != null) bytes += m.estimateBytes();
+		double[] c = faceCenters;
+		if (c != null) bytes += PolyhedronStats.arrayBytes(8, c.length);
+		double[] g = facePlanes;
+		if (g != null) bytes += PolyhedronStats.arrayBytes(8, g.length);
+		return bytes;
+	}
+	
+	/** Returns the read-only palette the face colors of this polyhedron are drawn from. */
+	public Palette getPalette() {
+		return palette;
 	}
 	
 	public List<Point3D> points() {
@@ -173,36 +599,138 @@ public class Polyhedron {
 		return points;
 	}
 	
-	/** Returns a new list containing the edges adjacent to the specified vertex. */
-	public List<Edge> getEdges(Vertex v) {
-		List<Edge> edges = new ArrayList<Edge>();
-		for (Edge edge : this.edges) {
-			if (edge.vertex1.equals(v) || edge.vertex2.equals(v)) {
-				edges.add(edge);
+	/** Returns a new array containing the vertex positions as consecutive x, y, z triples. */
+	public double[] coords() {
+		double[] coords = new double[vertices.size() * 3];
+		int j = 0;
+		for (Vertex v : vertices) {
+			coords[j++] = v.point.getX();
+			coords[j++] = v.point.getY();
+			coords[j++] = v.point.getZ();
+		}
+		return coords;
+	}
+	
+	/** Returns the cache of metric results for this polyhedron, creating it on first use. */
+	public MetricCache getMetricCache() {
+		MetricCache c = metricCache;
+		if (c == null) {
+			synchronized (this) {
+				if ((c = metricCache) == null) {
+					metricCache = c = new MetricCache();
+				}
 			}
 		}
+		return c;
+	}
+	
+	/** Returns the face centers as consecutive x, y, z triples, computing them on first use. */
+	private double[] faceCenters() {
+		double[] c = faceCenters;
+		if (c == null) {
+			c = new double[faces.size() * 3];
+			for (int i = 0, j = 0, n = faces.size(); i < n; i++, j += 3) {
+				List<Vertex> fv = faces.get(i).vertices;
+				double x = 0, y = 0, z = 0;
+				for (Vertex v : fv) {
+					x += v.point.getX();
+					y += v.point.getY();
+					z += v.point.getZ();
+				}
+				int m = fv.size();
+				if (m > 0) {
+					c[j] = x / m;
+					c[j + 1] = y / m;
+					c[j + 2] = z / m;
+				}
+			}
+			faceCenters = c;
+		}
+		return c;
+	}
+	
+	/**
+	 * Returns the unit normal, plane offset, and area of each face as
+	 * consecutive groups of five values, computing them on first use.
+	 */
+	private double[] facePlanes() {
+		double[] g = facePlanes;
+		if (g == null) {
+			double[] c = faceCenters();
+			g = new double[faces.size() * 5];
+			for (int i = 0, j = 0, n = faces.size(); i < n; i++, j += 5) {
+				Face f = faces.get(i);
+				Point3D center = new Point3D(c[i * 3], c[i * 3 + 1], c[i * 3 + 2]);
+				Point3D normal = center.normal(f.points());
+				double ax = 0, ay = 0, az = 0;
+				for (int k = 0, m = f.vertices.size(); k < m; k++) {
+					Point3D p1 = f.vertices.get(k).point.subtract(center);
+					Point3D p2 = f.vertices.get((k + 1) % m).point.subtract(center);
+					ax += p1.getY() * p2.getZ() - p1.getZ() * p2.getY();
+					ay += p1.getZ() * p2.getX() - p1.getX() * p2.getZ();
+					az += p1.getX() * p2.getY() - p1.getY() * p2.getX();
+				}
+				g[j] = normal.getX();
+				g[j + 1] = normal.getY();
+				g[j + 2] = normal.getZ();
+				g[j + 3] = normal.dotProduct(center);
+				g[j + 4] = Math.sqrt(ax * ax + ay * ay + az * az) / 2;
+			}
+			facePlanes = g;
+		}
+		return g;
+	}
+	
+	private Adjacency adjacency() {
+		Adjacency a = topology.adjacency;
+		if (a == null) topology.adjacency = a = new Adjacency(this);
+		return a;
+	}
+	
+	/** Returns the half-edge view of this polyhedron, building it on first use. */
+	public HalfEdgeMesh getHalfEdgeMesh() {
+		HalfEdgeMesh m = topology.halfEdgeMesh;
+		if (m == null) topology.halfEdgeMesh = m = new HalfEdgeMesh(this);
+		return m;
+	}
+	
+	/** Returns the index of the specified edge in the edges list, or -1 if it is not an edge of this polyhedron. */
+	int edgeIndex(Edge e) {
+		if (e == null || e.parent != this) return -1;
+		return e.index;
+	}
+	
+	/** Returns a new list containing the edges adjacent to the specified vertex. */
+	public List<Edge> getEdges(Vertex v) {
+		if (stats != null) stats.query(PolyhedronStats.Query.GET_EDGES);
+		if (v == null || v.parent != this) return new ArrayList<Edge>();
+		Adjacency a = adjacency();
+		int start = a.vertexEdgeStart[v.index], end = a.vertexEdgeStart[v.index + 1];
+		List<Edge> edges = new ArrayList<Edge>(end - start);
+		for (int i = start; i < end; i++) edges.add(this.edges.get(a.vertexEdges[i]));
 		return edges;
 	}
 	
 	/** Returns a new list containing the faces adjacent to the specified vertex. */
 	public List<Face> getFaces(Vertex v) {
-		List<Face> faces = new ArrayList<Face>();
-		for (Face face : this.faces) {
-			if (face.vertices.contains(v)) {
-				faces.add(face);
-			}
-		}
+		if (stats != null) stats.query(PolyhedronStats.Query.GET_VERTEX_FACES);
+		if (v == null || v.parent != this) return new ArrayList<Face>();
+		Adjacency a = adjacency();
+		int start = a.vertexFaceStart[v.index], end = a.vertexFaceStart[v.index + 1];
+		List<Face> faces = new ArrayList<Face>(end - start);
+		for (int i = start; i < end; i++) faces.add(this.faces.get(a.vertexFaces[i]));
 		return faces;
 	}
 	
 	/** Returns a new list containing the faces adjacent to the specified edge. */
 	public List<Face> getFaces(Edge e) {
-		List<Face> faces = new ArrayList<Face>();
-		for (Face face : this.faces) {
-			if (face.edges.contains(e)) {
-				faces.add(face);
-			}
-		}
+		if (stats != null) stats.query(PolyhedronStats.Query.GET_EDGE_FACES);
+		int ei = edgeIndex(e);
+		if (ei < 0) return new ArrayList<Face>();
+		Adjacency a = adjacency();
+		int start = a.edgeFaceStart[ei], end = a.edgeFaceStart[ei + 1];
+		List<Face> faces = new ArrayList<Face>(end - start);
+		for (int i = start; i < end; i++) faces.add(this.faces.get(a.edgeFaces[i]));
 		return faces;
 	}
 	
@@ -213,10 +741,15 @@ public class Polyhedron {
 	 * size other than 1.
 	 */
 	public List<Face> getOppositeFaces(Edge e, Face f) {
-		List<Face> faces = new ArrayList<Face>();
-		for (Face face : this.faces) {
-			if (face.equals(f)) continue;
-			if (face.edges.contains(e)) faces.add(face);
+		if (stats != null) stats.query(PolyhedronStats.Query.GET_OPPOSITE_FACES);
+		int ei = edgeIndex(e);
+		if (ei < 0) return new ArrayList<Face>();
+		Adjacency a = adjacency();
+		int start = a.edgeFaceStart[ei], end = a.edgeFaceStart[ei + 1];
+		List<Face> faces = new ArrayList<Face>(end - start);
+		for (int i = start; i < end; i++) {
+			Face face = this.faces.get(a.edgeFaces[i]);
+			if (!face.equals(f)) faces.add(face);
 		}
 		return faces;
 	}
@@ -225,10 +758,10 @@ public class Polyhedron {
 	 * Returns a new list containing the edges adjacent to the specified vertex
 	 * in order as determined by the winding order of the specified faces.
 	 * If <code>edges</code> is null, a new list as created by <code>getEdges(v)</code> is used.
-	 * If <code>faces</code> is null, a new list as created by <code>getFaces(v)</code> is used.
+	 * If <code>faces</code> is null, all faces adjacent to the vertex are used.
 	 */
 	public List<Edge> getOrderedEdges(Vertex v, List<Edge> edges, List<Face> faces) {
-		if (faces == null) faces = getFaces(v);
+		if (stats != null) stats.query(PolyhedronStats.Query.GET_ORDERED_EDGES);
 		if (edges == null) edges = getEdges(v);
 		List<Edge> orderedEdges = new ArrayList<Edge>();
 		Edge currentEdge = edges.isEmpty() ? null : edges.get(0);
@@ -245,6 +778,7 @@ public class Polyhedron {
 	 * If <code>faces</code> is null, a new list as created by <code>getFaces(v)</code> is used.
 	 */
 	public List<Face> getOrderedFaces(Vertex v, List<Face> faces) {
+		if (stats != null) stats.query(PolyhedronStats.Query.GET_ORDERED_FACES);
 		if (faces == null) faces = getFaces(v);
 		List<Face> orderedFaces = new ArrayList<Face>();
 		Face currentFace = faces.isEmpty() ? null : faces.get(0);
@@ -255,6 +789,107 @@ public class Polyhedron {
 		return orderedFaces;
 	}
 	
+	/**
+	 * Returns the fans of faces around the specified vertex in winding order.
+	 * Each fan is an array of half-edges of <code>getHalfEdgeMesh()</code>
+	 * leaving the vertex, one per face. Vertices that are not manifold are
+	 * split into fans using <code>getOrderedFaces</code> instead.
+	 */
+	public List<int[]> getFaceFans(Vertex v) {
+		Fans fans = new Fans();
+		getFaceFans(v, fans);
+		return fans.toList();
+	}
+	
+	/**
+	 * Fills the specified buffer with the fans of faces around the specified
+	 * vertex, as returned by <code>getFaceFans(v)</code>. Reusing the buffer
+	 * avoids allocating anything per vertex at manifold vertices.
+	 */
+	public void getFaceFans(Vertex v, Fans fans) {
+		HalfEdgeMesh m = getHalfEdgeMesh();
+		if (!m.isManifold(v.index)) {
+			fans.clear(0);
+			List<Face> faces = getFaces(v);
+			while (!faces.isEmpty()) {
+				for (Face f : getOrderedFaces(v, faces)) {
+					fans.add(m.halfEdge(f.index, f.vertices.indexOf(v)));
+					faces.remove(f);
+				}
+				fans.endFan();
+			}
+			return;
+		}
+		int n = m.outgoingCount(v.index);
+		fans.clear(n);
+		int[] marks = fans.marks;
+		for (int i = 0; i < n; i++) {
+			int k = fans.size, fan = fans.beginFan();
+			for (int h = m.outgoing(v.index, i); h >= 0; h = m.nextAroundVertex(h)) {
+				int j = m.outgoingIndex(h);
+				if (marks[j] > fans.base) break;
+				marks[j] = fan;
+				fans.add(h);
+			}
+			if (fans.size > k) fans.endFan();
+		}
+	}
+	
+	/**
+	 * Returns the fans of edges around the specified vertex in winding order.
+	 * Each fan is an array of edge indices. Vertices that are not manifold
+	 * are split into fans using <code>getOrderedEdges</code> instead.
+	 */
+	public List<int[]> getEdgeFans(Vertex v) {
+		Fans fans = new Fans();
+		getEdgeFans(v, fans);
+		return fans.toList();
+	}
+	
+	/**
+	 * Fills the specified buffer with the fans of edges around the specified
+	 * vertex, as returned by <code>getEdgeFans(v)</code>. Reusing the buffer
+	 * avoids allocating anything per vertex at manifold vertices.
+	 */
+	public void getEdgeFans(Vertex v, Fans fans) {
+		HalfEdgeMesh m = getHalfEdgeMesh();
+		if (!m.isManifold(v.index)) {
+			fans.clear(0);
+			List<Edge> edges = getEdges(v);
+			List<Face> faces = getFaces(v);
+			while (!edges.isEmpty()) {
+				for (Edge e : getOrderedEdges(v, edges, faces)) {
+					fans.add(e.index);
+					edges.remove(e);
+				}
+				fans.endFan();
+			}
+			return;
+		}
+		Adjacency a = adjacency();
+		int start = a.vertexEdgeStart[v.index], end = a.vertexEdgeStart[v.index + 1];
+		fans.clear(end - start);
+		// An edge already in an earlier fan may be added again, but not twice to one fan.
+		int[] marks = fans.marks;
+		for (int i = 0; i < end - start; i++) {
+			if (marks[i] > fans.base) continue;
+			int fan = fans.beginFan(), e = a.vertexEdges[start + i];
+			int h = m.outgoingAlong(v.index, e);
+			fans.add(e);
+			marks[i] = fan;
+			while (h >= 0) {
+				e = m.edge(m.prev(h));
+				int j = a.edgeVertexSlots[e * 2];
+				if (j < start || j >= end) j = a.edgeVertexSlots[e * 2 + 1];
+				if (marks[j - start] == fan) break;
+				fans.add(e);
+				marks[j - start] = fan;
+				h = m.nextAroundVertex(h);
+			}
+			fans.endFan();
+		}
+	}
+	
 	/** Given an edge and a vertex on that edge, returns the other vertex on that edge. */
 	public static Vertex getOppositeVertex(Edge e, Vertex v) {
 		if (e.vertex1.equals(v)) return e.vertex2;
@@ -265,8 +900,22 @@ public class Polyhedron {
 	/** 
 	 * Given a vertex, an edge, and a list of faces connected to the given vertex, returns
 	 * the next edge connected to that vertex as determined by the winding order of the faces.
+	 * If <code>faces</code> is null, all faces connected to the given vertex are used.
 	 */
 	public static Edge getNextEdge(List<Face> faces, Edge e, Vertex v) {
+		if (v.parent.stats != null) v.parent.stats.query(PolyhedronStats.Query.GET_NEXT_EDGE);
+		int ei = v.parent.edgeIndex(e);
+		HalfEdgeMesh m = v.parent.getHalfEdgeMesh();
+		if (ei >= 0 && m.isManifold(v.index)) {
+			int h = m.outgoingAlong(v.index, ei);
+			if (h >= 0) {
+				Face f = v.parent.faces.get(m.face(h));
+				if (faces == null || containsFace(faces, f)) {
+					return f.edges.get(m.corner(m.prev(h)));
+				}
+			}
+		}
+		if (faces == null) faces = v.parent.getFaces(v);
 		for (Face f : faces) {
 			int fi = f.edges.indexOf(e);
 			if (fi < 0) continue;
@@ -280,10 +929,21 @@ public class Polyhedron {
 	/**
 	 * Given a vertex, a face, and a list of faces connected to the given vertex, returns
 	 * the next face connected to that vertex as determined by the winding order of the faces.
+	 * If <code>faces</code> is null, all faces connected to the given vertex are used.
 	 */
 	public static Face getNextFace(List<Face> faces, Face f, Vertex v) {
+		if (f.parent.stats != null) f.parent.stats.query(PolyhedronStats.Query.GET_NEXT_FACE);
 		int fi = f.vertices.indexOf(v);
 		if (fi < 0) return null;
+		HalfEdgeMesh m = f.parent.getHalfEdgeMesh();
+		if (m.isManifold(v.index)) {
+			int t = m.nextAroundVertex(m.halfEdge(f.index, fi));
+			if (t >= 0) {
+				Face g = f.parent.faces.get(m.face(t));
+				if (faces == null || containsFace(faces, g)) return g;
+			}
+		}
+		if (faces == null) faces = f.parent.getFaces(v);
 		int fn = f.vertices.size();
 		Vertex fpv = f.vertices.get((fi + fn - 1) % fn);
 		for (Face g : faces) {
@@ -295,4 +955,9 @@ public class Polyhedron {
 		}
 		return null;
 	}
+	
+	private static boolean containsFace(List<Face> faces, Face f) {
+		for (Face g : faces) if (g == f) return true;
+		return false;
+	}
 }
\ No newline at end of file
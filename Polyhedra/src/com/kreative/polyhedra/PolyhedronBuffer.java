@@ -0,0 +1,181 @@
+package com.kreative.polyhedra;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A compact struct-of-arrays representation of a polyhedron. Vertex i has
+ * coordinates <code>coords[3*i]</code> through <code>coords[3*i+2]</code>.
+ * Face f has vertex indices <code>indices[faceOffsets[f]]</code> through
+ * <code>indices[faceOffsets[f+1]-1]</code> and color <code>colors[f]</code>,
+ * packed as 0xRRGGBB.
+ */
+public class PolyhedronBuffer {
+	public final double[] coords;
+	public final int[] faceOffsets;
+	public final int[] indices;
+	public final int[] colors;
+	
+	public PolyhedronBuffer(double[] coords, int[] faceOffsets, int[] indices, int[] colors) {
+		if (coords.length % 3 != 0) {
+			throw new IllegalArgumentException("coordinate count must be a multiple of 3");
+		}
+		if (faceOffsets.length != colors.length + 1) {
+			throw new IllegalArgumentException("face offset count must be one more than face count");
+		}
+		if (faceOffsets[0] != 0 || faceOffsets[colors.length] != indices.length) {
+			throw new IllegalArgumentException("face offsets do not span index array");
+		}
+		this.coords = coords;
+		this.faceOffsets = faceOffsets;
+		this.indices = indices;
+		this.colors = colors;
+	}
+	
+	public PolyhedronBuffer(Polyhedron p) {
+		int vn = p.vertices.size();
+		int fn = p.faces.size();
+		this.coords = new double[vn * 3];
+		this.faceOffsets = new int[fn + 1];
+		this.colors = new int[fn];
+		Palette palette = p.getPalette();
+		int[] rgbs = new int[palette.size()];
+		for (int i = 0; i < rgbs.length; i++) rgbs[i] = palette.getRGB(i) & 0xFFFFFF;
+		for (int i = 0, j = 0; i < vn; i++) {
+			Point3D point = p.vertices.get(i).point;
+			coords[j++] = point.getX();
+			coords[j++] = point.getY();
+			coords[j++] = point.getZ();
+		}
+		for (int i = 0; i < fn; i++) {
+			Polyhedron.Face f = p.faces.get(i);
+			faceOffsets[i + 1] = faceOffsets[i] + f.vertices.size();
+			colors[i] = rgbs[f.colorIndex];
+		}
+		this.indices = new int[faceOffsets[fn]];
+		for (int i = 0, j = 0; i < fn; i++) {
+			for (Polyhedron.Vertex v : p.faces.get(i).vertices) {
+				indices[j++] = v.index;
+			}
+		}
+	}
+	
+	public int vertexCount() { return coords.length / 3; }
+	public int faceCount() { return colors.length; }
+	public int indexCount() { return indices.length; }
+	
+	public double getX(int vertex) { return coords[vertex * 3]; }
+	public double getY(int vertex) { return coords[vertex * 3 + 1]; }
+	public double getZ(int vertex) { return coords[vertex * 3 + 2]; }
+	
+	public int faceSize(int face) { return faceOffsets[face + 1] - faceOffsets[face]; }
+	public int getIndex(int face, int i) { return indices[faceOffsets[face] + i]; }
+	public int getRGB(int face) { return colors[face]; }
+	public Color getColor(int face) { return new Color(colors[face]); }
+	
+	/**
+	 * Returns the distinct edges as pairs of vertex indices, in the same
+	 * order and with the same orientation as <code>Polyhedron.edges</code>.
+	 */
+	public int[] edges() {
+		int vn = vertexCount();
+		int[] edges = new int[indices.length * 2];
+		EdgeTable edgeTable = new EdgeTable(indices.length / 2);
+		for (int f = 0, fn = faceCount(); f < fn; f++) {
+			int start = faceOffsets[f], m = faceOffsets[f + 1] - start;
+			for (int j = 0; j < m; j++) {
+				int v1 = indices[start + j] % vn;
+				int v2 = indices[start + (j + 1) % m] % vn;
+				int e = edgeTable.size();
+				if (edgeTable.add(v1, v2, e)) {
+					edges[e * 2] = v1;
+					edges[e * 2 + 1] = v2;
+				}
+			}
+		}
+		return Arrays.copyOf(edges, edgeTable.size() * 2);
+	}
+	
+	/** Returns the number of distinct edges, counted the same way <code>Polyhedron</code> does. */
+	public int edgeCount() {
+		return edges().length / 2;
+	}
+	
+	/**
+	 * Returns a copy of this buffer with vertices within the specified
+	 * tolerance of each other merged, as in <code>PointSet</code>. Face
+	 * indices are wrapped and remapped, consecutive repeated indices are
+	 * removed, and faces left with fewer than three vertices are dropped.
+	 * Throws IllegalArgumentException if an index is negative.
+	 */
+	public PolyhedronBuffer weld(double epsilon) {
+		int vn = vertexCount(), fn = faceCount();
+		PointSet set = new PointSet(epsilon);
+		int[] map = new int[vn];
+		for (int i = 0; i < vn; i++) map[i] = set.intern(new Point3D(getX(i), getY(i), getZ(i)));
+		double[] newCoords = new double[set.size() * 3];
+		for (int i = 0, j = 0; i < set.size(); i++) {
+			Point3D p = set.get(i);
+			newCoords[j++] = p.getX();
+			newCoords[j++] = p.getY();
+			newCoords[j++] = p.getZ();
+		}
+		int[] newOffsets = new int[fn + 1];
+		int[] newIndices = new int[indices.length];
+		int[] newColors = new int[fn];
+		int nf = 0, ni = 0;
+		for (int f = 0; f < fn; f++) {
+			int end = weldFace(indices, faceOffsets[f], faceOffsets[f + 1], map, newIndices, ni);
+			if (end == ni) continue;
+			ni = end;
+			newColors[nf] = colors[f];
+			newOffsets[++nf] = ni;
+		}
+		return new PolyhedronBuffer(
+			newCoords, Arrays.copyOf(newOffsets, nf + 1),
+			Arrays.copyOf(newIndices, ni), Arrays.copyOf(newColors, nf)
+		);
+	}
+	
+	/**
+	 * Copies the vertex indices of one face, from <code>start</code> to
+	 * <code>end</code> in <code>src</code>, to <code>dst</code> starting at
+	 * <code>dstStart</code>, wrapped and remapped through <code>map</code>
+	 * with consecutive repeated indices removed. Returns the end of the face
+	 * in <code>dst</code>, or <code>dstStart</code> if fewer than three
+	 * vertices are left. The source and destination may be the same array
+	 * as long as <code>dstStart</code> is not past <code>start</code>.
+	 * Throws IllegalArgumentException if an index is negative.
+	 */
+	public static int weldFace(int[] src, int start, int end, int[] map, int[] dst, int dstStart) {
+		int n = dstStart;
+		for (int j = start; j < end; j++) {
+			int v = map[wrapIndex(src[j], map.length)];
+			if (n == dstStart || dst[n - 1] != v) dst[n++] = v;
+		}
+		while (n - dstStart > 1 && dst[n - 1] == dst[dstStart]) n--;
+		return (n - dstStart < 3) ? dstStart : n;
+	}
+	
+	/**
+	 * Wraps vertex indices that are past the end of the vertex list back to
+	 * the start, as <code>Polyhedron</code> does, so that readers produce the
+	 * same faces whether the result is used as a buffer or a polyhedron.
+	 */
+	static void wrapIndices(int[] indices, int vertexCount) {
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = wrapIndex(indices[i], vertexCount);
+		}
+	}
+	
+	private static int wrapIndex(int index, int vertexCount) {
+		if (index < 0 || vertexCount == 0) {
+			throw new IllegalArgumentException("Vertex index out of range: " + index);
+		}
+		return (index < vertexCount) ? index : (index % vertexCount);
+	}
+	
+	public Polyhedron toPolyhedron() {
+		return new Polyhedron(this);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.kreative.polyhedra;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A growable, primitive-backed accumulator of vertices and faces from which
+ * a <code>Polyhedron</code> can be built without boxing vertex indices or
+ * allocating a list per face. Faces are added by calling
+ * <code>beginFace()</code>, then <code>addIndex(int)</code> once per vertex,
+ * then <code>endFace(Color)</code>.
+ */
+public class PolyhedronBuilder {
+	double[] coords;
+	int vertexCount;
+	int[] faceOffsets;
+	final Palette palette;
+	int[] colorIndexes;
+	int faceCount;
+	int[] indices;
+	int indexCount;
+	private boolean inFace;
+	
+	public PolyhedronBuilder() {
+		this(16, 16);
+	}
+	
+	public PolyhedronBuilder(int vertexCapacity, int faceCapacity) {
+		vertexCapacity = Math.max(vertexCapacity, 4);
+		faceCapacity = Math.max(faceCapacity, 4);
+		this.coords = new double[vertexCapacity * 3];
+		this.faceOffsets = new int[faceCapacity + 1];
+		this.palette = new Palette();
+		this.colorIndexes = new int[faceCapacity];
+		this.indices = new int[faceCapacity * 4];
+	}
+	
+	public int vertexCount() { return vertexCount; }
+	public int faceCount() { return faceCount; }
+	public int indexCount() { return indexCount; }
+	
+	public double getX(int vertex) { return coords[vertex * 3]; }
+	public double getY(int vertex) { return coords[vertex * 3 + 1]; }
+	public double getZ(int vertex) { return coords[vertex * 3 + 2]; }
+	
+	public Point3D getPoint(int vertex) {
+		int j = vertex * 3;
+		return new Point3D(coords[j], coords[j + 1], coords[j + 2]);
+	}
+	
+	/** Adds a vertex and returns its index. */
+	public int addVertex(double x, double y, double z) {
+		int j = vertexCount * 3;
+		if (j + 3 > coords.length) coords = Arrays.copyOf(coords, coords.length * 2);
+		coords[j] = x;
+		coords[j + 1] = y;
+		coords[j + 2] = z;
+		return vertexCount++;
+	}
+	
+	/** Adds a vertex and returns its index. */
+	public int addVertex(Point3D point) {
+		return addVertex(point.getX(), point.getY(), point.getZ());
+	}
+	
+	/** Adds a vertex and returns its index. */
+	public int addVertex(MutablePoint3D point) {
+		return addVertex(point.getX(), point.getY(), point.getZ());
+	}
+	
+	/** Adds the vertices of the specified polyhedron, keeping their indices. */
+	public void addVertices(Polyhedron p) {
+		for (Polyhedron.Vertex v : p.vertices) addVertex(v.point);
+	}
+	
+	public void setVertex(int vertex, double x, double y, double z) {
+		int j = vertex * 3;
+		coords[j] = x;
+		coords[j + 1] = y;
+		coords[j + 2] = z;
+	}
+	
+	public void setVertex(int vertex, Point3D point) {
+		setVertex(vertex, point.getX(), point.getY(), point.getZ());
+	}
+	
+	public void beginFace() {
+		if (inFace) throw new IllegalStateException("face already begun");
+		inFace = true;
+	}
+	
+	public void addIndex(int index) {
+		if (!inFace) throw new IllegalStateException("face not begun");
+		if (indexCount >= indices.length) indices = Arrays.copyOf(indices, indices.length * 2);
+		indices[indexCount++] = index;
+	}
+	
+	/** Ends the current face and returns its index. */
+	public int endFace(Color color) {
+		if (!inFace) throw new IllegalStateException("face not begun");
+		inFace = false;
+		if (faceCount >= colorIndexes.length) {
+			colorIndexes = Arrays.copyOf(colorIndexes, colorIndexes.length * 2);
+			faceOffsets = Arrays.copyOf(faceOffsets, colorIndexes.length + 1);
+		}
+		colorIndexes[faceCount] = palette.add(color);
+		faceOffsets[++faceCount] = indexCount;
+		return faceCount - 1;
+	}
+	
+	/** Adds a face with the vertex indices of the specified face, in order or reversed. */
+	public int addFace(Polyhedron.Face face, boolean reverse, Color color) {
+		beginFace();
+		int n = face.vertices.size();
+		if (reverse) for (int i = n - 1; i >= 0; i--) addIndex(face.vertices.get(i).index);
+		else for (int i = 0; i < n; i++) addIndex(face.vertices.get(i).index);
+		return endFace(color);
+	}
+	
+	/**
+	 * Appends the vertices and faces of a builder filled separately, such as
+	 * on another thread. Vertex indices are copied as they are, so the faces
+	 * of the block must already refer to the indices their vertices will
+	 * have in this builder.
+	 */
+	public void append(PolyhedronBuilder block) {
+		if (inFace || block.inFace) throw new IllegalStateException("face not ended");
+		int vc = vertexCount + block.vertexCount;
+		if (vc * 3 > coords.length) coords = Arrays.copyOf(coords, Math.max(coords.length * 2, vc * 3));
+		System.arraycopy(block.coords, 0, coords, vertexCount * 3, block.vertexCount * 3);
+		vertexCount = vc;
+		int fc = faceCount + block.faceCount;
+		if (fc > colorIndexes.length) {
+			colorIndexes = Arrays.copyOf(colorIndexes, Math.max(colorIndexes.length * 2, fc));
+			faceOffsets = Arrays.copyOf(faceOffsets, colorIndexes.length + 1);
+		}
+		for (int i = 0; i < block.faceCount; i++) {
+			int ci = block.colorIndexes[i];
+			colorIndexes[faceCount] = (ci < 0) ? -1 : palette.add(block.palette.get(ci));
+			faceOffsets[++faceCount] = indexCount + block.faceOffsets[i + 1];
+		}
+		int ic = indexCount + block.indexCount;
+		if (ic > indices.length) indices = Arrays.copyOf(indices, Math.max(indices.length * 2, ic));
+		System.arraycopy(block.indices, 0, indices, indexCount, block.indexCount);
+		indexCount = ic;
+	}
+	
+	public Polyhedron build() {
+		if (inFace) throw new IllegalStateException("face not ended");
+		return new Polyhedron(this);
+	}
+	
+	/**
+	 * Builds a polyhedron with the current vertex positions and the faces of
+	 * a polyhedron previously built by this builder, sharing its topology.
+	 * Only valid if no vertices or faces have been added since.
+	 */
+	public Polyhedron build(Polyhedron previous) {
+		if (previous.vertices.size() != vertexCount || previous.faces.size() != faceCount) {
+			throw new IllegalStateException("faces changed since polyhedron was built");
+		}
+		return new Polyhedron(previous, Arrays.copyOf(coords, vertexCount * 3), false);
+	}
+}
\ No newline at end of file
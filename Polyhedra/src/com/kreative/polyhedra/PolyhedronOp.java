@@ -3,6 +3,15 @@ package com.kreative.polyhedra;
 public abstract class PolyhedronOp extends PolyhedronUtils {
 	public abstract Polyhedron op(Polyhedron seed);
 	
+	/**
+	 * If this operation does nothing but apply an affine transformation to
+	 * the vertices, returns that transformation as it would be applied to a
+	 * polyhedron with the specified center. Otherwise returns null.
+	 */
+	public AffineTransform3D getAffineTransform(Point3D center) {
+		return null;
+	}
+	
 	public static abstract class Factory<T extends PolyhedronOp> {
 		public abstract String name();
 		public abstract Option[] options();
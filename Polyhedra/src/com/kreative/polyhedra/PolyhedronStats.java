@@ -0,0 +1,169 @@
+package com.kreative.polyhedra;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Opt-in instrumentation for polyhedra. While enabled, each polyhedron
+ * constructed records how long it took to create its vertices, its faces,
+ * and to deduplicate its edges, and counts the adjacency queries made on it.
+ * Everything recorded is also added to a running total. Instrumentation is
+ * enabled with <code>setEnabled(true)</code> or by setting the system
+ * property <code>com.kreative.polyhedra.stats</code> to true; when disabled,
+ * <code>Polyhedron.getStats()</code> returns null and nothing is recorded.
+ * Memory sizes are estimates for a 64-bit JVM with compressed references.
+ */
+public final class PolyhedronStats {
+	public static enum Query {
+		GET_EDGES("getEdges(Vertex)"),
+		GET_VERTEX_FACES("getFaces(Vertex)"),
+		GET_EDGE_FACES("getFaces(Edge)"),
+		GET_OPPOSITE_FACES("getOppositeFaces"),
+		GET_ORDERED_EDGES("getOrderedEdges"),
+		GET_ORDERED_FACES("getOrderedFaces"),
+		GET_NEXT_EDGE("getNextEdge"),
+		GET_NEXT_FACE("getNextFace");
+		private final String name;
+		private Query(String name) { this.name = name; }
+		public String toString() { return name; }
+	}
+	
+	private static volatile boolean enabled = Boolean.getBoolean("com.kreative.polyhedra.stats");
+	private static final PolyhedronStats TOTAL = new PolyhedronStats();
+	
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	public static void setEnabled(boolean enabled) {
+		PolyhedronStats.enabled = enabled;
+	}
+	
+	/** Returns the sum of the statistics of every polyhedron constructed while enabled. */
+	public static PolyhedronStats getTotal() {
+		return TOTAL;
+	}
+	
+	/** Returns a new instance if instrumentation is enabled, or null otherwise. */
+	static PolyhedronStats begin() {
+		return enabled ? new PolyhedronStats() : null;
+	}
+	
+	private static final Timer NO_TIMER = new Timer(null);
+	
+	/** Returns a timer for constructing one polyhedron, which does nothing if <code>stats</code> is null. */
+	static Timer timer(PolyhedronStats stats) {
+		return (stats != null) ? new Timer(stats) : NO_TIMER;
+	}
+	
+	/** Times the phases of constructing one polyhedron and records them when it is done. */
+	static final class Timer {
+		private final PolyhedronStats stats;
+		private long start, vertexEnd, edgeStart, edgeNanos;
+		private Timer(PolyhedronStats stats) {
+			this.stats = stats;
+			if (stats != null) start = System.nanoTime();
+		}
+		void endVertices() {
+			if (stats != null) vertexEnd = System.nanoTime();
+		}
+		void beginEdges() {
+			if (stats != null) edgeStart = System.nanoTime();
+		}
+		void endEdges() {
+			if (stats != null) edgeNanos += System.nanoTime() - edgeStart;
+		}
+		void end() {
+			if (stats != null) stats.constructed(vertexEnd - start, System.nanoTime() - vertexEnd, edgeNanos);
+		}
+	}
+	
+	private final AtomicLong polyhedra = new AtomicLong();
+	private final AtomicLong vertexNanos = new AtomicLong();
+	private final AtomicLong faceNanos = new AtomicLong();
+	private final AtomicLong edgeNanos = new AtomicLong();
+	private final AtomicLongArray queries = new AtomicLongArray(Query.values().length);
+	
+	private PolyhedronStats() {}
+	
+	/** Records construction times. The face time includes the edge time. */
+	void constructed(long vertexNanos, long faceNanos, long edgeNanos) {
+		for (PolyhedronStats s : new PolyhedronStats[]{ this, TOTAL }) {
+			s.polyhedra.incrementAndGet();
+			s.vertexNanos.addAndGet(vertexNanos);
+			s.faceNanos.addAndGet(faceNanos - edgeNanos);
+			s.edgeNanos.addAndGet(edgeNanos);
+		}
+	}
+	
+	void query(Query q) {
+		queries.incrementAndGet(q.ordinal());
+		TOTAL.queries.incrementAndGet(q.ordinal());
+	}
+	
+	/** Clears all counters and times. */
+	public void reset() {
+		polyhedra.set(0);
+		vertexNanos.set(0);
+		faceNanos.set(0);
+		edgeNanos.set(0);
+		for (int i = 0; i < queries.length(); i++) queries.set(i, 0);
+	}
+	
+	public long getPolyhedronCount() { return polyhedra.get(); }
+	public long getVertexNanos() { return vertexNanos.get(); }
+	public long getFaceNanos() { return faceNanos.get(); }
+	/** Returns the time spent deduplicating edges, which is timed as a separate pass over all faces. */
+	public long getEdgeDedupNanos() { return edgeNanos.get(); }
+	public long getQueryCount(Query q) { return queries.get(q.ordinal()); }
+	
+	public long getQueryCount() {
+		long n = 0;
+		for (int i = 0; i < queries.length(); i++) n += queries.get(i);
+		return n;
+	}
+	
+	static long objectBytes(int fieldBytes) {
+		return (12 + fieldBytes + 7) & ~7L;
+	}
+	
+	static long arrayBytes(int elementBytes, int length) {
+		return (16 + (long)elementBytes * length + 7) & ~7L;
+	}
+	
+	private static long listBytes(int size) {
+		// ArrayList, its backing array, and an unmodifiable wrapper.
+		return objectBytes(12) + arrayBytes(4, size) + objectBytes(8);
+	}
+	
+	/** Estimates the memory retained by the vertices of the specified polyhedron. */
+	public static long estimateVertexBytes(Polyhedron p) {
+		int n = p.vertices.size();
+		return listBytes(n) + n * (objectBytes(12) + objectBytes(24));
+	}
+	
+	/** Estimates the memory retained by the distinct edges of the specified polyhedron. */
+	public static long estimateEdgeBytes(Polyhedron p) {
+		int n = p.edges.size();
+		return listBytes(n) + n * objectBytes(16);
+	}
+	
+	/** Estimates the memory retained by the faces of the specified polyhedron, including their own edge objects. */
+	public static long estimateFaceBytes(Polyhedron p) {
+		long bytes = listBytes(p.faces.size()) + arrayBytes(4, p.faces.size());
+		for (Polyhedron.Face f : p.faces) {
+			int n = f.vertices.size();
+			bytes += objectBytes(20) + listBytes(n) * 2 + n * objectBytes(16);
+		}
+		return bytes;
+	}
+	
+	/** Estimates the memory retained by the edge table, adjacency indexes, and cached face geometry of the specified polyhedron. */
+	public static long estimateIndexBytes(Polyhedron p) {
+		return p.indexBytes();
+	}
+	
+	public static long estimateBytes(Polyhedron p) {
+		return estimateVertexBytes(p) + estimateEdgeBytes(p) + estimateFaceBytes(p) + estimateIndexBytes(p);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.kreative.polyhedra;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A mergeable summary of a stream of values from which quantiles can be
+ * estimated in bounded memory. Values are kept in levels of sorted arrays
+ * of a fixed capacity; when a level fills up, every other value is promoted
+ * to the next level with twice the weight. Until the first level fills up,
+ * every value is kept and quantiles are exact. The compaction order is
+ * fixed, so the same values in the same order always give the same result.
+ */
+public final class QuantileSketch implements DoubleConsumer {
+	public static final int DEFAULT_CAPACITY = 2048;
+	
+	private final int capacity;
+	private double[][] levels;
+	private int[] sizes;
+	private int[] compactions;
+	private long count;
+	private double minimum;
+	private double maximum;
+	
+	public QuantileSketch() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	public QuantileSketch(int capacity) {
+		if (capacity < 2 || (capacity & 1) != 0) throw new IllegalArgumentException("capacity must be even and at least 2");
+		this.capacity = capacity;
+		this.levels = new double[0][];
+		this.sizes = new int[0];
+		this.compactions = new int[0];
+		this.count = 0;
+		this.minimum = 0;
+		this.maximum = 0;
+	}
+	
+	public long count() {
+		return count;
+	}
+	
+	/** Returns true if every value is still held, so that quantiles are exact. */
+	public boolean isExact() {
+		return levels.length <= 1;
+	}
+	
+	public void accept(double value) {
+		if (count == 0 || value < minimum) minimum = value;
+		if (count == 0 || value > maximum) maximum = value;
+		count++;
+		add(0, value);
+	}
+	
+	/** Adds the values summarized by the specified sketch, which must have the same capacity. */
+	public void merge(QuantileSketch other) {
+		if (other.capacity != capacity) throw new IllegalArgumentException("capacity mismatch");
+		if (other.count == 0) return;
+		if (count == 0 || other.minimum < minimum) minimum = other.minimum;
+		if (count == 0 || other.maximum > maximum) maximum = other.maximum;
+		count += other.count;
+		for (int level = 0; level < other.levels.length; level++) {
+			for (int i = 0; i < other.sizes[level]; i++) {
+				add(level, other.levels[level][i]);
+			}
+		}
+	}
+	
+	/** Returns the value below which the fraction <code>q</code> of the values fall, or 0 if there are none. */
+	public double quantile(double q) {
+		if (count == 0) return 0;
+		if (!(q > 0)) return minimum;
+		if (!(q < 1)) return maximum;
+		if (isExact()) {
+			double[] values = Arrays.copyOf(levels[0], sizes[0]);
+			Arrays.sort(values);
+			double rank = q * (values.length - 1);
+			int lo = (int)Math.floor(rank);
+			int hi = Math.min(lo + 1, values.length - 1);
+			double t = rank - lo;
+			if (t == 0) return values[lo];
+			return values[lo] + (values[hi] - values[lo]) * t;
+		}
+		double[][] sorted = new double[levels.length][];
+		for (int level = 0; level < levels.length; level++) {
+			sorted[level] = Arrays.copyOf(levels[level], sizes[level]);
+			Arrays.sort(sorted[level]);
+		}
+		int[] index = new int[levels.length];
+		long total = 0;
+		for (int level = 0; level < levels.length; level++) total += (long)sizes[level] << level;
+		double target = q * (total - 1);
+		long seen = 0;
+		while (true) {
+			int next = -1;
+			for (int level = 0; level < levels.length; level++) {
+				if (index[level] < sorted[level].length && (next < 0 || sorted[level][index[level]] < sorted[next][index[next]])) {
+					next = level;
+				}
+			}
+			if (next < 0) return maximum;
+			double value = sorted[next][index[next]++];
+			seen += 1L << next;
+			if (seen > target) return value;
+		}
+	}
+	
+	public double median() {
+		return quantile(0.5);
+	}
+	
+	private void add(int level, double value) {
+		if (level >= levels.length) {
+			levels = Arrays.copyOf(levels, level + 1);
+			sizes = Arrays.copyOf(sizes, level + 1);
+			compactions = Arrays.copyOf(compactions, level + 1);
+			levels[level] = new double[capacity];
+		}
+		levels[level][sizes[level]++] = value;
+		if (sizes[level] >= capacity) compact(level);
+	}
+	
+	private void compact(int level) {
+		double[] values = levels[level];
+		Arrays.sort(values, 0, sizes[level]);
+		int offset = compactions[level]++ & 1;
+		sizes[level] = 0;
+		for (int i = offset; i < capacity; i += 2) add(level + 1, values[i]);
+	}
+}
\ No newline at end of file
@@ -19,20 +19,15 @@ public class Report extends PolyhedronCon {
 		System.out.println(source);
 		Point3D o = Point3D.ZERO;
 		Point3D c = p.center();
+		MetricSummary originSummary = new MetricSummary(p, o, Metric.values());
+		MetricSummary centerSummary = new MetricSummary(p, c, true, Metric.values());
 		System.out.println("\tVertices: " + p.vertices.size());
-		TreeMap<Float,Integer> circumradii = new TreeMap<Float,Integer>();
 		for (Polyhedron.Vertex v : p.vertices) {
 			double m = v.point.distance(o);
 			double r = v.point.distance(c);
 			System.out.println("\t\t#" + v.index + "\t" + v.point + "\tmag=" + m + "\trad=" + r);
-			Float key = (float)r;
-			Integer value = circumradii.get(key);
-			circumradii.put(key, ((value != null) ? (value + 1) : 1));
 		}
 		System.out.println("\tEdges: " + p.edges.size());
-		TreeMap<Float,Integer> midradii = new TreeMap<Float,Integer>();
-		TreeMap<Float,Integer> lengths = new TreeMap<Float,Integer>();
-		TreeMap<Float,Integer> angles = new TreeMap<Float,Integer>();
 		for (Polyhedron.Edge e : p.edges) {
 			Point3D p1 = e.vertex1.point;
 			Point3D p2 = e.vertex2.point;
@@ -50,8 +45,7 @@ public class Report extends PolyhedronCon {
 			List<Polyhedron.Face> faces = p.getFaces(e);
 			List<Point3D> normals = new ArrayList<Point3D>();
 			for (Polyhedron.Face face : faces) {
-				List<Point3D> fv = face.points();
-				normals.add(Point3D.average(fv).normal(fv));
+				normals.add(face.normal());
 			}
 			for (int i = 0; i < faces.size(); i++) {
 				Point3D ni = normals.get(i);
@@ -60,28 +54,17 @@ public class Report extends PolyhedronCon {
 					double deg = 180 - ni.angle(nj);
 					double rad = Math.PI - ni.angleRad(nj);
 					System.out.println("\t\t\tdihedral angle\tdeg=" + deg + "\trad=" + rad);
-					Float key = (float)deg;
-					Integer value = angles.get(key);
-					angles.put(key, ((value != null) ? (value + 1) : 1));
 				}
 			}
-			Float key = (float)l;
-			Integer value = lengths.get(key);
-			lengths.put(key, ((value != null) ? (value + 1) : 1));
-			key = (float)r;
-			value = midradii.get(key);
-			midradii.put(key, ((value != null) ? (value + 1) : 1));
 		}
 		System.out.println("\tFaces: " + p.faces.size());
-		TreeMap<Float,Integer> inradii = new TreeMap<Float,Integer>();
 		HashMap<FaceInfo,Integer> faces = new HashMap<FaceInfo,Integer>();
 		for (Polyhedron.Face f: p.faces) {
 			FaceInfo info = new FaceInfo(f);
 			Integer value = faces.get(info);
 			faces.put(info, ((value != null) ? (value + 1) : 1));
-			List<Point3D> fv = f.points();
-			Point3D center = Point3D.average(fv);
-			Point3D normal = center.normal(fv);
+			Point3D center = f.center();
+			Point3D normal = f.normal();
 			double d = o.distanceToPlane(center, normal);
 			double r = c.distanceToPlane(center, normal);
 			System.out.println("\t\t#" + f.index + "\t" + info.typeString(1));
@@ -116,30 +99,32 @@ public class Report extends PolyhedronCon {
 			System.out.println("\t\t\tnormal\t" + normal);
 			System.out.println("\t\t\tdistance to origin\t" + d);
 			System.out.println("\t\t\tdistance to center\t" + r);
-			System.out.println("\t\t\tcolor\t" + f.color.getRed() + "," + f.color.getGreen() + "," + f.color.getBlue());
-			Float key = (float)r;
-			value = inradii.get(key);
-			inradii.put(key, ((value != null) ? (value + 1) : 1));
+			System.out.println("\t\t\tcolor\t" + f.color().getRed() + "," + f.color().getGreen() + "," + f.color().getBlue());
 		}
+		Histogram circumradii = centerSummary.histogram(Metric.VERTEX_MAGNITUDE);
 		System.out.println("\tCircumradii: " + circumradii.size());
-		for (Map.Entry<Float,Integer> e : circumradii.entrySet()) {
-			System.out.println("\t\t" + e.getValue() + "×" + e.getKey());
+		for (int i = 0; i < circumradii.size(); i++) {
+			System.out.println("\t\t" + circumradii.count(i) + "×" + (float)circumradii.value(i));
 		}
+		Histogram midradii = centerSummary.histogram(Metric.EDGE_DISTANCE_TO_ORIGIN);
 		System.out.println("\tMidradii: " + midradii.size());
-		for (Map.Entry<Float,Integer> e : midradii.entrySet()) {
-			System.out.println("\t\t" + e.getValue() + "×" + e.getKey());
+		for (int i = 0; i < midradii.size(); i++) {
+			System.out.println("\t\t" + midradii.count(i) + "×" + (float)midradii.value(i));
 		}
+		Histogram inradii = centerSummary.histogram(Metric.FACE_DISTANCE_TO_ORIGIN);
 		System.out.println("\tInradii: " + inradii.size());
-		for (Map.Entry<Float,Integer> e : inradii.entrySet()) {
-			System.out.println("\t\t" + e.getValue() + "×" + e.getKey());
+		for (int i = 0; i < inradii.size(); i++) {
+			System.out.println("\t\t" + inradii.count(i) + "×" + (float)inradii.value(i));
 		}
+		Histogram lengths = centerSummary.histogram(Metric.EDGE_LENGTH);
 		System.out.println("\tEdge Lengths: " + lengths.size());
-		for (Map.Entry<Float,Integer> e : lengths.entrySet()) {
-			System.out.println("\t\t" + e.getValue() + "×" + e.getKey());
+		for (int i = 0; i < lengths.size(); i++) {
+			System.out.println("\t\t" + lengths.count(i) + "×" + (float)lengths.value(i));
 		}
+		Histogram angles = centerSummary.histogram(Metric.DIHEDRAL_ANGLE);
 		System.out.println("\tDihedral Angles: " + angles.size());
-		for (Map.Entry<Float,Integer> e : angles.entrySet()) {
-			System.out.println("\t\t" + e.getValue() + "×" + e.getKey() + "°");
+		for (int i = 0; i < angles.size(); i++) {
+			System.out.println("\t\t" + angles.count(i) + "×" + (float)angles.value(i) + "°");
 		}
 		System.out.println("\tFace Types: " + faces.size());
 		for (Map.Entry<FaceInfo,Integer> e : faces.entrySet()) {
@@ -150,7 +135,7 @@ public class Report extends PolyhedronCon {
 		for (Metric metric : Metric.values()) {
 			System.out.print("\t\t" + metric);
 			for (MetricAggregator agg : MetricAggregator.values()) {
-				System.out.print("\t" + agg + "=" + agg.aggregate(metric.iterator(p, o)));
+				System.out.print("\t" + agg + "=" + originSummary.get(metric, agg));
 			}
 			System.out.println();
 		}
@@ -158,7 +143,7 @@ public class Report extends PolyhedronCon {
 		for (Metric metric : Metric.values()) {
 			System.out.print("\t\t" + metric);
 			for (MetricAggregator agg : MetricAggregator.values()) {
-				System.out.print("\t" + agg + "=" + agg.aggregate(metric.iterator(p, c)));
+				System.out.print("\t" + agg + "=" + centerSummary.get(metric, agg));
 			}
 			System.out.println();
 		}
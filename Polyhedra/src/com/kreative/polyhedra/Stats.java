@@ -0,0 +1,56 @@
+package com.kreative.polyhedra;
+
+public class Stats extends PolyhedronCon {
+	public static void main(String[] args) {
+		PolyhedronStats.setEnabled(true);
+		new Stats().processArgs(args);
+	}
+	
+	public void defaultAction() {
+		printOptions();
+	}
+	
+	public void consume(String source, Polyhedron p) {
+		System.out.println(source);
+		long vb = PolyhedronStats.estimateVertexBytes(p);
+		long eb = PolyhedronStats.estimateEdgeBytes(p);
+		long fb = PolyhedronStats.estimateFaceBytes(p);
+		long ib = PolyhedronStats.estimateIndexBytes(p);
+		System.out.println("\tVertices: " + p.vertices.size() + "\t~" + vb + " bytes");
+		System.out.println("\tEdges: " + p.edges.size() + "\t~" + eb + " bytes");
+		System.out.println("\tFaces: " + p.faces.size() + "\t~" + fb + " bytes");
+		System.out.println("\tIndexes:\t~" + ib + " bytes");
+		System.out.println("\tTotal:\t~" + (vb + eb + fb + ib) + " bytes");
+		PolyhedronStats s = p.getStats();
+		if (s != null) {
+			System.out.println("\tConstruction:");
+			printTimes(s);
+		}
+		PolyhedronStats t = PolyhedronStats.getTotal();
+		System.out.println("\tPipeline: " + t.getPolyhedronCount() + " polyhedra");
+		printTimes(t);
+		System.out.println("\tQueries: " + t.getQueryCount());
+		for (PolyhedronStats.Query q : PolyhedronStats.Query.values()) {
+			System.out.println("\t\t" + q + "\t" + t.getQueryCount(q));
+		}
+		System.out.println("\tMetric Cache: " + MetricCache.getHitCount() + " hits, " + MetricCache.getMissCount() + " misses");
+		System.out.println("\tAffine Fusion: " + AffineFusion.getPassesSaved() + " passes saved");
+		t.reset();
+		MetricCache.resetCounters();
+		AffineFusion.resetCounters();
+	}
+	
+	private static void printTimes(PolyhedronStats s) {
+		System.out.println("\t\tvertices\t" + millis(s.getVertexNanos()) + " ms");
+		System.out.println("\t\tfaces\t" + millis(s.getFaceNanos()) + " ms");
+		System.out.println("\t\tedge dedup\t" + millis(s.getEdgeDedupNanos()) + " ms");
+	}
+	
+	private static String millis(long nanos) {
+		return Double.toString(nanos / 1000000.0);
+	}
+	
+	public void reportError(String message, Exception e) {
+		System.err.println(message);
+	}
+}
\ No newline at end of file
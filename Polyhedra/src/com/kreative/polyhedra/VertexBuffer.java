@@ -0,0 +1,152 @@
+package com.kreative.polyhedra;
+
+/**
+ * A set of points stored as three parallel coordinate arrays. The kernels
+ * here are simple unit-stride loops over those arrays so that the JIT can
+ * vectorize them, and each one produces the same result, bit for bit, as
+ * the corresponding <code>Point3D</code> method applied point by point.
+ */
+public final class VertexBuffer {
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+	private final int size;
+	
+	public VertexBuffer(int size) {
+		this.x = new double[size];
+		this.y = new double[size];
+		this.z = new double[size];
+		this.size = size;
+	}
+	
+	public VertexBuffer(Polyhedron p) {
+		this(p.vertices.size());
+		int i = 0;
+		for (Polyhedron.Vertex v : p.vertices) {
+			x[i] = v.point.getX();
+			y[i] = v.point.getY();
+			z[i] = v.point.getZ();
+			i++;
+		}
+	}
+	
+	/** Creates a buffer from points stored as x, y, z triples. */
+	public VertexBuffer(double[] coords) {
+		this(coords.length / 3);
+		for (int i = 0, j = 0; i < size; i++, j += 3) {
+			x[i] = coords[j];
+			y[i] = coords[j + 1];
+			z[i] = coords[j + 2];
+		}
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public double getX(int index) { return x[index]; }
+	public double getY(int index) { return y[index]; }
+	public double getZ(int index) { return z[index]; }
+	
+	public Point3D get(int index) {
+		return new Point3D(x[index], y[index], z[index]);
+	}
+	
+	public void set(int index, double x, double y, double z) {
+		this.x[index] = x;
+		this.y[index] = y;
+		this.z[index] = z;
+	}
+	
+	/** Copies the first <code>size()</code> points of the specified buffer into this one. */
+	public void set(VertexBuffer b) {
+		System.arraycopy(b.x, 0, x, 0, size);
+		System.arraycopy(b.y, 0, y, 0, size);
+		System.arraycopy(b.z, 0, z, 0, size);
+	}
+	
+	/** Returns the points as x, y, z triples. */
+	public double[] coords() {
+		double[] coords = new double[size * 3];
+		for (int i = 0, j = 0; i < size; i++, j += 3) {
+			coords[j] = x[i];
+			coords[j + 1] = y[i];
+			coords[j + 2] = z[i];
+		}
+		return coords;
+	}
+	
+	public Point3D average() {
+		if (size == 0) return Point3D.ZERO;
+		double sx = 0, sy = 0, sz = 0;
+		for (int i = 0; i < size; i++) sx += x[i];
+		for (int i = 0; i < size; i++) sy += y[i];
+		for (int i = 0; i < size; i++) sz += z[i];
+		return new Point3D(sx / size, sy / size, sz / size);
+	}
+	
+	/** Stores the distance of each point from the specified point in <code>dst</code>. */
+	public void distances(Point3D o, double[] dst) {
+		double ox = o.getX(), oy = o.getY(), oz = o.getZ();
+		for (int i = 0; i < size; i++) {
+			double dx = x[i] - ox;
+			double dy = y[i] - oy;
+			double dz = z[i] - oz;
+			dst[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		}
+	}
+	
+	/** Stores the magnitude of each point in <code>dst</code>. */
+	public void magnitudes(double[] dst) {
+		for (int i = 0; i < size; i++) {
+			dst[i] = Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+		}
+	}
+	
+	public double averageMagnitude() {
+		if (size == 0) return 0;
+		double[] m = new double[size];
+		magnitudes(m);
+		double s = 0;
+		for (int i = 0; i < size; i++) s += m[i];
+		return s / size;
+	}
+	
+	public double maxMagnitude() {
+		if (size == 0) return Double.NaN;
+		double[] m = new double[size];
+		magnitudes(m);
+		double max = m[0];
+		for (int i = 1; i < size; i++) if (m[i] > max) max = m[i];
+		return max;
+	}
+	
+	public double minMagnitude() {
+		if (size == 0) return Double.NaN;
+		double[] m = new double[size];
+		magnitudes(m);
+		double min = m[0];
+		for (int i = 1; i < size; i++) if (m[i] < min) min = m[i];
+		return min;
+	}
+	
+	/** Scales every nonzero point to the specified magnitude, like <code>Point3D.normalize(double)</code>. */
+	public void normalize(double magnitude) {
+		if (magnitude == 0) {
+			for (int i = 0; i < size; i++) x[i] = y[i] = z[i] = 0;
+			return;
+		}
+		for (int i = 0; i < size; i++) {
+			double m = Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+			if (m != 0) {
+				x[i] = x[i] * magnitude / m;
+				y[i] = y[i] * magnitude / m;
+				z[i] = z[i] * magnitude / m;
+			}
+		}
+	}
+	
+	public void transform(PointTransform3D tx) {
+		tx.transform(x, y, z, 0, size);
+	}
+}
\ No newline at end of file
@@ -35,7 +35,7 @@ public class Compose extends PolyhedronGen {
 					face.add(v.index + firstIndex);
 				}
 				faces.add(face);
-				faceColors.add(f.color);
+				faceColors.add(f.color());
 			}
 		}
 		return new Polyhedron(vertices, faces, faceColors);
@@ -4,11 +4,11 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import com.kreative.polyhedra.Point3D;
+import com.kreative.polyhedra.PointSet;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronGen;
 
@@ -147,30 +147,61 @@ public class PointCloud extends PolyhedronGen {
 	}
 	
 	public static final class SetExclusiveOr extends BinaryOp {
+		private final double epsilon;
+		public SetExclusiveOr() {
+			this.epsilon = PointSet.DEFAULT_EPSILON;
+		}
+		public SetExclusiveOr(double epsilon) {
+			this.epsilon = epsilon;
+		}
 		public void op(List<Point3D> left, List<Point3D> right, List<Point3D> dst) {
-			LinkedHashSet<Point3D> a = new LinkedHashSet<Point3D>(left); a.removeAll(right);
-			LinkedHashSet<Point3D> b = new LinkedHashSet<Point3D>(right); b.removeAll(left);
-			dst.addAll(a); dst.addAll(b);
+			PointSet a = new PointSet(left, epsilon);
+			PointSet b = new PointSet(right, epsilon);
+			for (Point3D p : a) if (!b.contains(p)) dst.add(p);
+			for (Point3D p : b) if (!a.contains(p)) dst.add(p);
 		}
 	}
 	
 	public static final class SetIntersect extends BinaryOp {
+		private final double epsilon;
+		public SetIntersect() {
+			this.epsilon = PointSet.DEFAULT_EPSILON;
+		}
+		public SetIntersect(double epsilon) {
+			this.epsilon = epsilon;
+		}
 		public void op(List<Point3D> left, List<Point3D> right, List<Point3D> dst) {
-			LinkedHashSet<Point3D> set = new LinkedHashSet<Point3D>(left);
-			set.retainAll(right); dst.addAll(set);
+			PointSet a = new PointSet(left, epsilon);
+			PointSet b = new PointSet(right, epsilon);
+			for (Point3D p : a) if (b.contains(p)) dst.add(p);
 		}
 	}
 	
 	public static final class SetSubtract extends BinaryOp {
+		private final double epsilon;
+		public SetSubtract() {
+			this.epsilon = PointSet.DEFAULT_EPSILON;
+		}
+		public SetSubtract(double epsilon) {
+			this.epsilon = epsilon;
+		}
 		public void op(List<Point3D> left, List<Point3D> right, List<Point3D> dst) {
-			LinkedHashSet<Point3D> set = new LinkedHashSet<Point3D>(left);
-			set.removeAll(right); dst.addAll(set);
+			PointSet a = new PointSet(left, epsilon);
+			PointSet b = new PointSet(right, epsilon);
+			for (Point3D p : a) if (!b.contains(p)) dst.add(p);
 		}
 	}
 	
 	public static final class SetUnion extends BinaryOp {
+		private final double epsilon;
+		public SetUnion() {
+			this.epsilon = PointSet.DEFAULT_EPSILON;
+		}
+		public SetUnion(double epsilon) {
+			this.epsilon = epsilon;
+		}
 		public void op(List<Point3D> left, List<Point3D> right, List<Point3D> dst) {
-			LinkedHashSet<Point3D> set = new LinkedHashSet<Point3D>(left);
+			PointSet set = new PointSet(left, epsilon);
 			set.addAll(right); dst.addAll(set);
 		}
 	}
@@ -1,9 +1,5 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import com.kreative.polyhedra.AffineTransform3D;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
@@ -19,20 +15,13 @@ public class AffineTransform extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			vertices.add(tx.transform(vertex.point));
-		}
-		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Polyhedron.Vertex v : face.vertices) indices.add(v.index);
-			if (reverse) Collections.reverse(indices);
-			faces.add(indices);
-			faceColors.add(face.color);
-		}
-		return new Polyhedron(vertices, faces, faceColors);
+		double[] coords = seed.coords();
+		tx.transform(coords, 0, seed.vertices.size());
+		return new Polyhedron(seed, coords, reverse);
+	}
+	
+	public AffineTransform3D getAffineTransform(Point3D center) {
+		return tx;
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<AffineTransform> {
@@ -1,10 +1,9 @@
 package com.kreative.polyhedra.op;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Ambo extends PolyhedronOp {
@@ -16,36 +15,29 @@ public class Ambo extends PolyhedronOp {
 	
 	public Polyhedron op(Polyhedron seed) {
 		int vfSize = seed.vertices.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.edges.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(vfSize);
-		List<Color> faceColors = new ArrayList<Color>(vfSize);
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.edges.size(), vfSize);
 		
-		for (Polyhedron.Edge edge : seed.edges) vertices.add(edge.midpoint());
+		for (Polyhedron.Edge edge : seed.edges) b.addVertex(edge.midpoint());
 		
+		Polyhedron.Fans fans = new Polyhedron.Fans();
 		for (Polyhedron.Vertex vertex : seed.vertices) {
-			List<Polyhedron.Face> seedFaces = seed.getFaces(vertex);
-			List<Polyhedron.Edge> seedEdges = seed.getEdges(vertex);
-			while (!seedEdges.isEmpty()) {
-				List<Integer> amboFace = new ArrayList<Integer>();
-				for (Polyhedron.Edge seedEdge : seed.getOrderedEdges(vertex, seedEdges, seedFaces)) {
-					amboFace.add(seed.edges.indexOf(seedEdge));
-					seedEdges.remove(seedEdge);
-				}
-				faces.add(amboFace);
-				faceColors.add(color);
+			seed.getEdgeFans(vertex, fans);
+			for (int f = 0; f < fans.count(); f++) {
+				b.beginFace();
+				for (int j = fans.start(f); j < fans.end(f); j++) b.addIndex(fans.get(j));
+				b.endFace(color);
 			}
 		}
 		
 		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.edges.size());
+			b.beginFace();
 			for (Polyhedron.Edge edge : face.edges) {
-				indices.add(seed.edges.indexOf(edge));
+				b.addIndex(edge.index);
 			}
-			faces.add(indices);
-			faceColors.add(face.color);
+			b.endFace(face.color());
 		}
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Ambo> {
@@ -1,11 +1,10 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Augment extends PolyhedronOp {
@@ -46,19 +45,15 @@ public class Augment extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.vertices.size(), seed.faces.size());
+		b.addVertices(seed);
 		
-		List<Point3D> seedVertices = seed.points();
-		vertices.addAll(seedVertices);
-		
-		FacePredicate.reset(predicates, seed);
+		OpContext ctx = new OpContext(seed);
+		FacePredicate.reset(predicates, ctx);
 		for (Polyhedron.Face f : seed.faces) {
-			if (FacePredicate.matches(predicates, f)) {
-				List<Point3D> points = f.points();
-				Point3D center = Point3D.average(points);
-				Point3D normal = center.normal(points);
+			if (FacePredicate.matches(predicates, ctx, f)) {
+				Point3D center = f.center();
+				Point3D normal = f.normal();
 				Point3D ch = center.add(normal.multiply(h));
 				List<Point3D> midpoints = new ArrayList<Point3D>();
 				for (Polyhedron.Edge e : f.edges) {
@@ -66,47 +61,41 @@ public class Augment extends PolyhedronOp {
 						midpoints.add(e.midpoint());
 					}
 				}
-				List<Integer> newVertices = new ArrayList<Integer>();
+				int s = b.vertexCount();
 				if (midpoints.isEmpty()) {
-					newVertices.add(vertices.size());
-					vertices.add(ch);
+					b.addVertex(ch);
 				} else {
 					for (int i = 0, n = midpoints.size(); i < n; i++) {
-						newVertices.add(vertices.size());
 						Point3D p1 = midpoints.get(i);
 						Point3D p2 = midpoints.get((i + 1) % n);
 						Point3D p3 = p1.midpoint(p2).add(normal.multiply(h));
 						Point3D p4 = p3.subtract(ch).normalize(r).add(ch);
-						vertices.add(p4);
+						b.addVertex(p4);
 					}
 				}
-				faces.add(newVertices);
-				faceColors.add(f.color);
-				int i = 0, n = newVertices.size();
+				int i = 0, n = b.vertexCount() - s;
+				b.beginFace();
+				for (int j = 0; j < n; j++) b.addIndex(s + j);
+				b.endFace(f.color());
 				for (Polyhedron.Edge e : f.edges) {
+					b.beginFace();
+					b.addIndex(e.vertex1.index);
+					b.addIndex(e.vertex2.index);
 					if (spec.createTriangle(seed, e, f)) {
-						faces.add(Arrays.asList(
-							e.vertex1.index, e.vertex2.index,
-							newVertices.get((i + n - 1) % n)
-						));
+						b.addIndex(s + (i + n - 1) % n);
 					} else {
-						faces.add(Arrays.asList(
-							e.vertex1.index, e.vertex2.index,
-							newVertices.get(i % n),
-							newVertices.get((i + n - 1) % n)
-						));
+						b.addIndex(s + i % n);
+						b.addIndex(s + (i + n - 1) % n);
 						i++;
 					}
+					b.endFace(f.color());
 				}
 				continue;
 			}
-			List<Integer> face = new ArrayList<Integer>();
-			for (Polyhedron.Vertex v : f.vertices) face.add(v.index);
-			faces.add(face);
-			faceColors.add(f.color);
+			b.addFace(f, false, f.color());
 		}
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Augment> {
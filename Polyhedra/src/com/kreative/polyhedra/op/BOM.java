@@ -15,6 +15,7 @@ public class BOM {
 			new Augment.Factory(),
 			new Bevel.Factory(),
 			// new Bowtie.Factory(),
+			new Canonicalize.Factory(),
 			new Center.Factory(),
 			new Chain.Factory(),
 			// new Chamfer.Factory(),
@@ -56,6 +57,7 @@ public class BOM {
 			new Truncate.Factory(),
 			// new Volute.Factory(),
 			// new Waffle.Factory(),
+			new Weld.Factory(),
 			// new Whirl.Factory(),
 			new Zip.Factory()
 		)
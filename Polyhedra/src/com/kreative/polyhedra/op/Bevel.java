@@ -1,96 +1,114 @@
 package com.kreative.polyhedra.op;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import com.kreative.polyhedra.HalfEdgeMesh;
+import com.kreative.polyhedra.MutablePoint3D;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.Polyhedron.Edge;
 import com.kreative.polyhedra.Polyhedron.Face;
 import com.kreative.polyhedra.Polyhedron.Vertex;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Bevel extends PolyhedronOp {
 	public static enum VertexGen {
 		FIXED_DISTANCE_FROM_CENTER_ALONG_APOTHEM {
-			public Point3D createVertex(
+			public void createVertex(
 				Polyhedron seed,
 				Face face, Point3D center,
 				Edge edge, Point3D midpoint,
-				Point3D vertex, double size
+				Point3D vertex, double size,
+				MutablePoint3D dst
 			) {
-				double a = vertex.angleRad(center, midpoint);
+				double a = dst.set(vertex).angleRad(center, midpoint);
 				double s = Math.cos((Math.PI - a * 2) / 4);
 				double t = size / s;
-				return center.angleBisector(midpoint, vertex, t);
+				dst.set(center).angleBisector(midpoint, vertex, t);
 			}
 		},
 		RELATIVE_DISTANCE_FROM_CENTER_ALONG_APOTHEM {
-			public Point3D createVertex(
+			public void createVertex(
 				Polyhedron seed,
 				Face face, Point3D center,
 				Edge edge, Point3D midpoint,
-				Point3D vertex, double size
+				Point3D vertex, double size,
+				MutablePoint3D dst
 			) {
-				double a = vertex.angleRad(center, midpoint);
+				double a = dst.set(vertex).angleRad(center, midpoint);
 				double s = Math.cos((Math.PI - a * 2) / 4);
 				double t = midpoint.distance(center) * size / s;
-				return center.angleBisector(midpoint, vertex, t);
+				dst.set(center).angleBisector(midpoint, vertex, t);
 			}
 		},
 		FIXED_DISTANCE_FROM_EDGE_ALONG_APOTHEM {
-			public Point3D createVertex(
+			public void createVertex(
 				Polyhedron seed,
 				Face face, Point3D center,
 				Edge edge, Point3D midpoint,
-				Point3D vertex, double size
+				Point3D vertex, double size,
+				MutablePoint3D dst
 			) {
-				double a = vertex.angleRad(center, midpoint);
+				double a = dst.set(vertex).angleRad(center, midpoint);
 				double s = Math.cos((Math.PI - a * 2) / 4);
 				double t = (midpoint.distance(center) - size) / s;
-				return center.angleBisector(midpoint, vertex, t);
+				dst.set(center).angleBisector(midpoint, vertex, t);
 			}
 		},
 		RELATIVE_DISTANCE_FROM_EDGE_ALONG_APOTHEM {
-			public Point3D createVertex(
+			public void createVertex(
 				Polyhedron seed,
 				Face face, Point3D center,
 				Edge edge, Point3D midpoint,
-				Point3D vertex, double size
+				Point3D vertex, double size,
+				MutablePoint3D dst
 			) {
-				double a = vertex.angleRad(center, midpoint);
+				double a = dst.set(vertex).angleRad(center, midpoint);
 				double s = Math.cos((Math.PI - a * 2) / 4);
 				double t = midpoint.distance(center) * (1 - size) / s;
-				return center.angleBisector(midpoint, vertex, t);
+				dst.set(center).angleBisector(midpoint, vertex, t);
 			}
 		},
 		REGULAR {
-			public Point3D createVertex(
+			public void createVertex(
 				Polyhedron seed,
 				Face face, Point3D center,
 				Edge edge, Point3D midpoint,
-				Point3D vertex, double size
+				Point3D vertex, double size,
+				MutablePoint3D dst
 			) {
 				double fa = 0;
+				dst.set(midpoint);
 				for (Face f : seed.getOppositeFaces(edge, face)) {
-					double a = midpoint.angleRad(center, f.center());
+					double a = dst.angleRad(center, f.center());
 					if (a > fa) fa = a;
 				}
-				double ea = vertex.angleRad(center, midpoint);
+				double ea = dst.set(vertex).angleRad(center, midpoint);
 				double s1 = Math.cos((Math.PI - ea * 2) / 4);
 				double s2 = Math.tan((Math.PI - ea * 2) / 4) / Math.sin(fa / 2);
 				double t = midpoint.distance(center) / (s1 + s1 * s2);
-				return center.angleBisector(midpoint, vertex, t);
+				dst.set(center).angleBisector(midpoint, vertex, t);
 			}
 		};
-		public abstract Point3D createVertex(
+		/** Stores the vertex generated for the specified end of the specified edge in <code>dst</code>. */
+		public abstract void createVertex(
 			Polyhedron seed,
 			Face face, Point3D center,
 			Edge edge, Point3D midpoint,
-			Point3D vertex, double size
+			Point3D vertex, double size,
+			MutablePoint3D dst
 		);
+		public Point3D createVertex(
+			Polyhedron seed,
+			Face face, Point3D center,
+			Edge edge, Point3D midpoint,
+			Point3D vertex, double size
+		) {
+			MutablePoint3D dst = new MutablePoint3D();
+			createVertex(seed, face, center, edge, midpoint, vertex, size, dst);
+			return dst.toPoint3D();
+		}
 	}
 	
 	private final VertexGen gen;
@@ -105,57 +123,74 @@ public class Bevel extends PolyhedronOp {
 		this.vertexColor = vertexColor;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
+	public Polyhedron op(final Polyhedron seed) {
 		int vefSize = seed.vertices.size() + seed.edges.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.edges.size() * 4);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(vefSize);
-		List<Color> faceColors = new ArrayList<Color>(vefSize);
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.edges.size() * 4, vefSize);
 		
-		Map<Face,Integer> faceStartIndexMap = new HashMap<Face,Integer>();
-		for (Face f : seed.faces) {
-			int startIndex = vertices.size();
-			faceStartIndexMap.put(f, startIndex);
-			Point3D c = f.center();
-			List<Integer> beveledFace = new ArrayList<Integer>();
-			for (Edge e : f.edges) {
-				Point3D m = e.midpoint();
-				vertices.add(gen.createVertex(seed, f, c, e, m, e.vertex1.point, size));
-				vertices.add(gen.createVertex(seed, f, c, e, m, e.vertex2.point, size));
-				beveledFace.add(startIndex++);
-				beveledFace.add(startIndex++);
-			}
-			faces.add(beveledFace);
-			faceColors.add(f.color);
+		final int[] faceStartIndex = new int[seed.faces.size()];
+		for (int fi = 0, vi = b.vertexCount(); fi < faceStartIndex.length; fi++) {
+			faceStartIndex[fi] = vi;
+			vi += seed.faces.get(fi).edges.size() * 2;
 		}
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				MutablePoint3D point = new MutablePoint3D();
+				for (int fi = start; fi < end; fi++) {
+					Face f = seed.faces.get(fi);
+					int vi = faceStartIndex[fi];
+					Point3D c = f.center();
+					b.beginFace();
+					for (Edge e : f.edges) {
+						Point3D m = e.midpoint();
+						gen.createVertex(seed, f, c, e, m, e.vertex1.point, size, point);
+						b.addVertex(point);
+						b.addIndex(vi++);
+						gen.createVertex(seed, f, c, e, m, e.vertex2.point, size, point);
+						b.addVertex(point);
+						b.addIndex(vi++);
+					}
+					b.endFace(f.color());
+				}
+			}
+		});
 		
-		for (Edge e : seed.edges) {
-			List<Integer> beveledFace = new ArrayList<Integer>();
-			for (Face f : seed.getFaces(e)) {
-				int i = faceStartIndexMap.get(f);
-				beveledFace.add(i + f.edges.indexOf(e) * 2 + 1);
-				beveledFace.add(i + f.edges.indexOf(e) * 2);
+		ParallelBuild.build(b, seed.edges.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int ei = start; ei < end; ei++) {
+					Edge e = seed.edges.get(ei);
+					b.beginFace();
+					for (Face f : seed.getFaces(e)) {
+						int i = faceStartIndex[f.index];
+						b.addIndex(i + f.edges.indexOf(e) * 2 + 1);
+						b.addIndex(i + f.edges.indexOf(e) * 2);
+					}
+					b.endFace(edgeColor);
+				}
 			}
-			faces.add(beveledFace);
-			faceColors.add(edgeColor);
-		}
+		});
 		
-		for (Vertex v : seed.vertices) {
-			List<Face> seedFaces = seed.getFaces(v);
-			while (!seedFaces.isEmpty()) {
-				List<Integer> beveledFace = new ArrayList<Integer>();
-				for (Face seedFace : seed.getOrderedFaces(v, seedFaces)) {
-					int i = faceStartIndexMap.get(seedFace);
-					int n = seedFace.edges.size() * 2;
-					beveledFace.add(i + seedFace.vertices.indexOf(v) * 2);
-					beveledFace.add(i + (seedFace.vertices.indexOf(v) * 2 + n - 1) % n);
-					seedFaces.remove(seedFace);
+		final HalfEdgeMesh mesh = seed.getHalfEdgeMesh();
+		ParallelBuild.build(b, seed.vertices.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				Polyhedron.Fans fans = new Polyhedron.Fans();
+				for (int vi = start; vi < end; vi++) {
+					seed.getFaceFans(seed.vertices.get(vi), fans);
+					for (int f = 0; f < fans.count(); f++) {
+						b.beginFace();
+						for (int j = fans.start(f); j < fans.end(f); j++) {
+							int h = fans.get(j);
+							int i = faceStartIndex[mesh.face(h)];
+							int n = mesh.faceSize(mesh.face(h)) * 2;
+							b.addIndex(i + mesh.corner(h) * 2);
+							b.addIndex(i + (mesh.corner(h) * 2 + n - 1) % n);
+						}
+						b.endFace(vertexColor);
+					}
 				}
-				faces.add(beveledFace);
-				faceColors.add(vertexColor);
 			}
-		}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Bevel> {
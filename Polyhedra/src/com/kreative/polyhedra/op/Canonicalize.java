@@ -0,0 +1,305 @@
+package com.kreative.polyhedra.op;
+
+import com.kreative.polyhedra.ParallelBuild;
+import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronOp;
+
+/**
+ * Moves the vertices of a polyhedron toward its canonical form, in which
+ * every face is planar, every edge is tangent to the unit sphere, and the
+ * points of tangency have their centroid at the origin. Each iteration
+ * pulls the edges toward the sphere, recenters, and then moves each vertex
+ * toward the planes of its faces, using the face incidence and planes of
+ * <code>PlanarizeFaces</code>. The steps are small and local, so they are
+ * mixed with Anderson acceleration by default.
+ * <p>
+ * Not every seed converges within the iteration budget; some settle far
+ * from tangent (dkkkD, for one, is still off by a few hundredths after
+ * 10000 iterations). The polyhedron returned is then the best iterate, and
+ * <code>Result</code> reports how far its edges are from tangent.
+ */
+public class Canonicalize extends PolyhedronOp {
+	/** The canonical polyhedron and how the iteration that produced it went. */
+	public static final class Result {
+		public final Polyhedron polyhedron;
+		public final int iterations;
+		/** The farthest any vertex moved in the last iteration. */
+		public final double difference;
+		public final boolean converged;
+		/** The farthest any point of tangency is from the unit sphere. */
+		public final double tangencyError;
+		public Result(Polyhedron polyhedron, int iterations, double difference, boolean converged, double tangencyError) {
+			this.polyhedron = polyhedron;
+			this.iterations = iterations;
+			this.difference = difference;
+			this.converged = converged;
+			this.tangencyError = tangencyError;
+		}
+		public String toString() {
+			return "Canonicalize: n=" + iterations + ", delta=" + difference + ", tangency=" + tangencyError + (converged ? "" : " (not converged)");
+		}
+	}
+	
+	/** The vertices at either end of each edge and the edges around each vertex, as arrays. */
+	private static final class Edges {
+		private final int edgeCount;
+		private final int[] edgeVertices;
+		private final int[] vertexStart;
+		private final int[] vertexNeighbors;
+		
+		public Edges(Polyhedron p) {
+			int vn = p.vertices.size();
+			edgeCount = p.edges.size();
+			edgeVertices = new int[edgeCount * 2];
+			vertexStart = new int[vn + 1];
+			for (Polyhedron.Edge e : p.edges) {
+				edgeVertices[e.index * 2] = e.vertex1.index;
+				edgeVertices[e.index * 2 + 1] = e.vertex2.index;
+				vertexStart[e.vertex1.index + 1]++;
+				vertexStart[e.vertex2.index + 1]++;
+			}
+			for (int i = 0; i < vn; i++) vertexStart[i + 1] += vertexStart[i];
+			vertexNeighbors = new int[vertexStart[vn]];
+			int[] fill = new int[vn];
+			System.arraycopy(vertexStart, 0, fill, 0, vn);
+			for (int e = 0; e < edgeCount; e++) {
+				int a = edgeVertices[e * 2], b = edgeVertices[e * 2 + 1];
+				vertexNeighbors[fill[a]++] = b;
+				vertexNeighbors[fill[b]++] = a;
+			}
+		}
+		
+		/**
+		 * Stores in dst at the specified offset the point on the line
+		 * through two vertices closest to the origin. Returns false, leaving
+		 * dst alone, if the vertices coincide.
+		 */
+		public static boolean tangentPoint(double[] coords, int a, int b, double[] dst, int j) {
+			int ka = a * 3, kb = b * 3;
+			double ax = coords[ka], ay = coords[ka + 1], az = coords[ka + 2];
+			double dx = coords[kb] - ax, dy = coords[kb + 1] - ay, dz = coords[kb + 2] - az;
+			double dd = dx * dx + dy * dy + dz * dz;
+			if (dd == 0) return false;
+			double s = -(ax * dx + ay * dy + az * dz) / dd;
+			dst[j] = ax + dx * s;
+			dst[j + 1] = ay + dy * s;
+			dst[j + 2] = az + dz * s;
+			return true;
+		}
+		
+		/**
+		 * Moves a vertex by the average of what it would take to bring each
+		 * of its edges to the unit sphere, from x into y.
+		 */
+		public void tangentify(double[] x, int v, double[] y, double[] t) {
+			int k = v * 3;
+			double sx = 0, sy = 0, sz = 0;
+			int n = 0;
+			for (int i = vertexStart[v]; i < vertexStart[v + 1]; i++) {
+				if (!tangentPoint(x, v, vertexNeighbors[i], t, 0)) continue;
+				double r = Math.sqrt(t[0] * t[0] + t[1] * t[1] + t[2] * t[2]);
+				if (r == 0) continue;
+				double m = (1 - r) / r;
+				sx += t[0] * m; sy += t[1] * m; sz += t[2] * m;
+				n++;
+			}
+			if (n > 0) { sx /= n; sy /= n; sz /= n; }
+			y[k] = x[k] + sx;
+			y[k + 1] = x[k + 1] + sy;
+			y[k + 2] = x[k + 2] + sz;
+		}
+		
+		/** Moves every vertex so that the centroid of the points of tangency is at the origin. */
+		public void recenter(double[] x) {
+			double[] t = new double[3];
+			double cx = 0, cy = 0, cz = 0;
+			int n = 0;
+			for (int e = 0; e < edgeCount; e++) {
+				if (!tangentPoint(x, edgeVertices[e * 2], edgeVertices[e * 2 + 1], t, 0)) continue;
+				cx += t[0]; cy += t[1]; cz += t[2];
+				n++;
+			}
+			if (n == 0) return;
+			cx /= n; cy /= n; cz /= n;
+			for (int k = 0; k < x.length; k += 3) {
+				x[k] -= cx; x[k + 1] -= cy; x[k + 2] -= cz;
+			}
+		}
+		
+		/** Returns the greatest difference between 1 and the distance of any point of tangency from the origin. */
+		public double tangencyError(double[] x) {
+			double[] t = new double[3];
+			double max = 0;
+			for (int e = 0; e < edgeCount; e++) {
+				if (!tangentPoint(x, edgeVertices[e * 2], edgeVertices[e * 2 + 1], t, 0)) continue;
+				double d = Math.abs(Math.sqrt(t[0] * t[0] + t[1] * t[1] + t[2] * t[2]) - 1);
+				if (d > max) max = d;
+			}
+			return max;
+		}
+		
+		/** Scales every vertex so that the points of tangency are at unit distance on average. */
+		public void rescale(double[] x) {
+			double[] t = new double[3];
+			double r = 0;
+			int n = 0;
+			for (int e = 0; e < edgeCount; e++) {
+				if (!tangentPoint(x, edgeVertices[e * 2], edgeVertices[e * 2 + 1], t, 0)) continue;
+				r += Math.sqrt(t[0] * t[0] + t[1] * t[1] + t[2] * t[2]);
+				n++;
+			}
+			if (n == 0 || r == 0) return;
+			r = n / r;
+			for (int k = 0; k < x.length; k++) x[k] *= r;
+		}
+	}
+	
+	/** How much larger than its smallest so far a step may get before the iteration is considered to diverge. */
+	private static final double DIVERGENCE_FACTOR = 100;
+	
+	public static final int DEFAULT_ANDERSON_DEPTH = 10;
+	
+	private final int maxIterations;
+	private final double maxDifference;
+	private final int andersonDepth;
+	private final boolean project;
+	
+	public Canonicalize(int maxIterations, double maxDifference) {
+		this(maxIterations, maxDifference, DEFAULT_ANDERSON_DEPTH, true);
+	}
+	
+	/**
+	 * @param andersonDepth the number of previous iterates to mix, or 0 for
+	 * no Anderson acceleration.
+	 * @param project whether to start from the vertices of the seed projected
+	 * onto a sphere. The local steps can fold faces over when the edges of the
+	 * seed are far from tangent relative to their length, as on large,
+	 * nearly spherical seeds built up by repeated operations.
+	 */
+	public Canonicalize(int maxIterations, double maxDifference, int andersonDepth, boolean project) {
+		this.maxIterations = (maxIterations > 0) ? maxIterations : Integer.MAX_VALUE;
+		this.maxDifference = (maxDifference > 0) ? maxDifference : 0;
+		this.andersonDepth = (andersonDepth > 0) ? andersonDepth : 0;
+		this.project = project;
+	}
+	
+	public Polyhedron op(Polyhedron seed) {
+		return canonicalize(seed).polyhedron;
+	}
+	
+	public Result canonicalize(Polyhedron seed) {
+		final PlanarizeFaces.Solver solver = new PlanarizeFaces.Solver(seed);
+		final Edges edges = new Edges(seed);
+		double[] seedCoords = seed.coords();
+		edges.recenter(seedCoords);
+		if (project) {
+			for (int k = 0; k < seedCoords.length; k += 3) {
+				double px = seedCoords[k], py = seedCoords[k + 1], pz = seedCoords[k + 2];
+				double m = Math.sqrt(px * px + py * py + pz * pz);
+				if (m == 0) continue;
+				seedCoords[k] = px / m;
+				seedCoords[k + 1] = py / m;
+				seedCoords[k + 2] = pz / m;
+			}
+		}
+		edges.rescale(seedCoords);
+		double[] x = seedCoords.clone();
+		double[] gx = new double[x.length];
+		final double[] y = new double[x.length];
+		double[] best = x.clone();
+		PlanarizeFaces.Anderson anderson = (andersonDepth > 0) ? new PlanarizeFaces.Anderson(andersonDepth, 1, x.length) : null;
+		
+		int iterations = 0;
+		double difference = 0;
+		double minDifference = Double.POSITIVE_INFINITY;
+		boolean converged = false;
+		while (iterations < maxIterations) {
+			iterations++;
+			final double[] cx = x;
+			ParallelBuild.run(solver.vertexCount, new ParallelBuild.Range() {
+				public void run(int start, int end) {
+					double[] t = new double[3];
+					for (int v = start; v < end; v++) edges.tangentify(cx, v, y, t);
+				}
+			});
+			edges.recenter(y);
+			solver.computePlanes(y);
+			final double[] cgx = gx;
+			ParallelBuild.run(solver.vertexCount, new ParallelBuild.Range() {
+				public void run(int start, int end) {
+					for (int v = start; v < end; v++) solver.projectVertex(y, v, cgx, v * 3);
+				}
+			});
+			difference = PlanarizeFaces.Solver.maxDistance(x, gx);
+			// Anderson acceleration can stall and then overshoot. If the
+			// iteration starts running away, go back to the best iterate so
+			// far and forget the history; if the plain iteration runs away,
+			// stop there.
+			if (!(difference <= minDifference * DIVERGENCE_FACTOR)) {
+				System.arraycopy(best, 0, x, 0, x.length);
+				if (anderson == null) break;
+				anderson.reset();
+				continue;
+			}
+			if (difference < minDifference) {
+				minDifference = difference;
+				System.arraycopy(x, 0, best, 0, x.length);
+			}
+			if (difference <= maxDifference || anderson == null) {
+				double[] t = x; x = gx; gx = t;
+			} else {
+				anderson.step(x, gx);
+			}
+			if (difference <= maxDifference) {
+				converged = true;
+				break;
+			}
+		}
+		if (!converged && minDifference < difference) {
+			x = best;
+			difference = minDifference;
+		}
+		
+		return new Result(new Polyhedron(seed, x, false), iterations, difference, converged, edges.tangencyError(x));
+	}
+	
+	public static class Factory extends PolyhedronOp.Factory<Canonicalize> {
+		public String name() { return "Canonicalize"; }
+		
+		public Canonicalize parse(String[] args) {
+			int maxIterations = 10000;
+			double maxDifference = 1e-10;
+			int andersonDepth = DEFAULT_ANDERSON_DEPTH;
+			boolean project = true;
+			int argi = 0;
+			while (argi < args.length) {
+				String arg = args[argi++];
+				if (arg.equals("-n") && argi < args.length) {
+					maxIterations = parseInt(args[argi++], maxIterations);
+				} else if (arg.equals("-e") && argi < args.length) {
+					maxDifference = parseDouble(args[argi++], maxDifference);
+				} else if (arg.equals("-a") && argi < args.length) {
+					andersonDepth = parseInt(args[argi++], andersonDepth);
+				} else if (arg.equals("-s")) {
+					project = false;
+				} else {
+					return null;
+				}
+			}
+			return new Canonicalize(maxIterations, maxDifference, andersonDepth, project);
+		}
+		
+		public Option[] options() {
+			return new Option[] {
+				new Option("n", Type.INT, "maximum number of iterations (default 10000)"),
+				new Option("e", Type.REAL, "maximum difference in vertex locations (default 10^-10)"),
+				new Option("a", Type.INT, "number of previous iterations to mix for Anderson acceleration, or 0 for none (default 10)"),
+				new Option("s", Type.VOID, "start from the seed as is instead of projecting it onto a sphere")
+			};
+		}
+	}
+	
+	public static void main(String[] args) {
+		new Factory().main(args);
+	}
+}
\ No newline at end of file
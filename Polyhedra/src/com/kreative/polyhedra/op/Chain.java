@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import com.kreative.polyhedra.AffineFusion;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronOp;
 
@@ -20,8 +21,7 @@ public class Chain extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		for (PolyhedronOp op : ops) seed = op.op(seed);
-		return seed;
+		return AffineFusion.apply(ops, seed);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Chain> {
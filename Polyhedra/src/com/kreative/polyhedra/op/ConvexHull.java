@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 import quickhull3d.Point3d;
 import quickhull3d.QuickHull3D;
@@ -25,21 +26,18 @@ public class ConvexHull extends PolyhedronOp {
 		QuickHull3D hull = new QuickHull3D();
 		hull.build(points.toArray(new Point3d[points.size()]));
 		
-		List<Point3D> vertices = new ArrayList<Point3D>();
+		PolyhedronBuilder b = new PolyhedronBuilder(hull.getNumVertices(), hull.getNumFaces());
 		for (Point3d v : hull.getVertices()) {
-			vertices.add(new Point3D(v.x, v.y, v.z));
+			b.addVertex(v.x, v.y, v.z);
 		}
 		
-		List<List<Integer>> faces = new ArrayList<List<Integer>>();
-		List<Color> faceColors = new ArrayList<Color>();
 		for (int[] f : hull.getFaces()) {
-			List<Integer> face = new ArrayList<Integer>();
-			for (int i : f) face.add(i);
-			faces.add(face);
-			faceColors.add(color);
+			b.beginFace();
+			for (int i : f) b.addIndex(i);
+			b.endFace(color);
 		}
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<ConvexHull> {
@@ -4,122 +4,126 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import com.kreative.polyhedra.HalfEdgeMesh;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MutablePoint3D;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Dual extends PolyhedronOp {
 	public static enum RescaleMode {
 		NONE("d", "do not rescale dual polyhedron") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
 				return false;
 			}
 		},
 		MAX_VERTEX_MAGNITUDE("rmax", "vmax", "rescale dual polyhedron to match original maximum circumradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MAXIMUM, Metric.VERTEX_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MAXIMUM, Metric.VERTEX_MAGNITUDE);
 			}
 		},
 		AVERAGE_VERTEX_MAGNITUDE("r", "v", "rescale dual polyhedron to match original average circumradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.AVERAGE, Metric.VERTEX_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.AVERAGE, Metric.VERTEX_MAGNITUDE);
 			}
 		},
 		MIN_VERTEX_MAGNITUDE("rmin", "vmin", "rescale dual polyhedron to match original minimum circumradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MINIMUM, Metric.VERTEX_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MINIMUM, Metric.VERTEX_MAGNITUDE);
 			}
 		},
 		MAX_EDGE_MIDPOINT_MAGNITUDE("emax", "rescale dual polyhedron to match original maximum edge magnitude") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MAXIMUM, Metric.EDGE_MIDPOINT_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MAXIMUM, Metric.EDGE_MIDPOINT_MAGNITUDE);
 			}
 		},
 		AVERAGE_EDGE_MIDPOINT_MAGNITUDE("e", "rescale dual polyhedron to match original average edge magnitude") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.AVERAGE, Metric.EDGE_MIDPOINT_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.AVERAGE, Metric.EDGE_MIDPOINT_MAGNITUDE);
 			}
 		},
 		MIN_EDGE_MIDPOINT_MAGNITUDE("emin", "rescale dual polyhedron to match original minimum edge magnitude") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MINIMUM, Metric.EDGE_MIDPOINT_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MINIMUM, Metric.EDGE_MIDPOINT_MAGNITUDE);
 			}
 		},
 		MAX_EDGE_DISTANCE_TO_ORIGIN("mmax", "rescale dual polyhedron to match original maximum midradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MAXIMUM, Metric.EDGE_DISTANCE_TO_ORIGIN);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MAXIMUM, Metric.EDGE_DISTANCE_TO_ORIGIN);
 			}
 		},
 		AVERAGE_EDGE_DISTANCE_TO_ORIGIN("m", "rescale dual polyhedron to match original average midradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.AVERAGE, Metric.EDGE_DISTANCE_TO_ORIGIN);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.AVERAGE, Metric.EDGE_DISTANCE_TO_ORIGIN);
 			}
 		},
 		MIN_EDGE_DISTANCE_TO_ORIGIN("mmin", "rescale dual polyhedron to match original minimum midradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MINIMUM, Metric.EDGE_DISTANCE_TO_ORIGIN);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MINIMUM, Metric.EDGE_DISTANCE_TO_ORIGIN);
 			}
 		},
 		MAX_FACE_CENTER_MAGNITUDE("fmax", "rescale dual polyhedron to match original maximum face magnitude") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MAXIMUM, Metric.FACE_CENTER_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MAXIMUM, Metric.FACE_CENTER_MAGNITUDE);
 			}
 		},
 		AVERAGE_FACE_CENTER_MAGNITUDE("f", "rescale dual polyhedron to match original average face magnitude") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.AVERAGE, Metric.FACE_CENTER_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.AVERAGE, Metric.FACE_CENTER_MAGNITUDE);
 			}
 		},
 		MIN_FACE_CENTER_MAGNITUDE("fmin", "rescale dual polyhedron to match original minimum face magnitude") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MINIMUM, Metric.FACE_CENTER_MAGNITUDE);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MINIMUM, Metric.FACE_CENTER_MAGNITUDE);
 			}
 		},
 		MAX_FACE_DISTANCE_TO_ORIGIN("imax", "rescale dual polyhedron to match original maximum inradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MAXIMUM, Metric.FACE_DISTANCE_TO_ORIGIN);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MAXIMUM, Metric.FACE_DISTANCE_TO_ORIGIN);
 			}
 		},
 		AVERAGE_FACE_DISTANCE_TO_ORIGIN("i", "rescale dual polyhedron to match original average inradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.AVERAGE, Metric.FACE_DISTANCE_TO_ORIGIN);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.AVERAGE, Metric.FACE_DISTANCE_TO_ORIGIN);
 			}
 		},
 		MIN_FACE_DISTANCE_TO_ORIGIN("imin", "rescale dual polyhedron to match original minimum inradius") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MINIMUM, Metric.FACE_DISTANCE_TO_ORIGIN);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MINIMUM, Metric.FACE_DISTANCE_TO_ORIGIN);
 			}
 		},
 		MAX_EDGE_LENGTH("amax", "rescale dual polyhedron to match original maximum edge length") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MAXIMUM, Metric.EDGE_LENGTH);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MAXIMUM, Metric.EDGE_LENGTH);
 			}
 		},
 		AVERAGE_EDGE_LENGTH("a", "rescale dual polyhedron to match original average edge length") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.AVERAGE, Metric.EDGE_LENGTH);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.AVERAGE, Metric.EDGE_LENGTH);
 			}
 		},
 		MIN_EDGE_LENGTH("amin", "rescale dual polyhedron to match original minimum edge length") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.MINIMUM, Metric.EDGE_LENGTH);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.MINIMUM, Metric.EDGE_LENGTH);
 			}
 		},
 		X_SIZE("x", "rescale dual polyhedron to match original length along the x axis") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.RANGE, Metric.X_POSITION);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.RANGE, Metric.X_POSITION);
 			}
 		},
 		Y_SIZE("y", "rescale dual polyhedron to match original length along the y axis") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.RANGE, Metric.Y_POSITION);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.RANGE, Metric.Y_POSITION);
 			}
 		},
 		Z_SIZE("z", "rescale dual polyhedron to match original length along the z axis") {
-			public boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> vertices) {
-				return rescaleChecked(seed, dual, vertices, MetricAggregator.RANGE, Metric.Z_POSITION);
+			public boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder) {
+				return rescaleChecked(seed, dual, dualBuilder, MetricAggregator.RANGE, Metric.Z_POSITION);
 			}
 		};
 		
@@ -142,7 +146,7 @@ public class Dual extends PolyhedronOp {
 			this.description = description;
 		}
 		
-		public abstract boolean rescale(Polyhedron seed, Polyhedron dual, List<Point3D> dualVertices);
+		public abstract boolean rescale(Polyhedron seed, Polyhedron dual, PolyhedronBuilder dualBuilder);
 		
 		public final Option option(String... mutex) {
 			return new Option(flagWithoutDash, Type.VOID, description, optionMutexes(mutex));
@@ -169,15 +173,16 @@ public class Dual extends PolyhedronOp {
 			return null;
 		}
 		
-		private static boolean rescaleChecked(Polyhedron seed, Polyhedron dual, List<Point3D> points, MetricAggregator agg, Metric metric) {
-			double seedScale = agg.aggregate(metric.iterator(seed, seed.center()));
-			double dualScale = agg.aggregate(metric.iterator(dual, dual.center()));
-			return seedScale != 0 && dualScale != 0 && seedScale != dualScale && resizeUnsafe(points, Point3D.average(points), seedScale / dualScale);
+		private static boolean rescaleChecked(Polyhedron seed, Polyhedron dual, PolyhedronBuilder b, MetricAggregator agg, Metric metric) {
+			Point3D dualCenter = dual.center();
+			double seedScale = agg.aggregate(metric, seed, seed.center());
+			double dualScale = agg.aggregate(metric, dual, dualCenter);
+			return seedScale != 0 && dualScale != 0 && seedScale != dualScale && resizeUnsafe(b, dualCenter, seedScale / dualScale);
 		}
 		
-		private static boolean resizeUnsafe(List<Point3D> points, Point3D origin, double m) {
-			for (int i = 0, n = points.size(); i < n; i++) {
-				points.set(i, points.get(i).subtract(origin).multiply(m).add(origin));
+		private static boolean resizeUnsafe(PolyhedronBuilder b, Point3D origin, double m) {
+			for (int i = 0, n = b.vertexCount(); i < n; i++) {
+				b.setVertex(i, b.getPoint(i).subtract(origin).multiply(m).add(origin));
 			}
 			return true;
 		}
@@ -193,32 +198,43 @@ public class Dual extends PolyhedronOp {
 		this.color = color;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.faces.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.vertices.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.vertices.size());
+	public Polyhedron op(final Polyhedron seed) {
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.faces.size(), seed.vertices.size());
 		
-		fvgen.reset(seed, seed.points());
-		for (Polyhedron.Face face : seed.faces) {
-			vertices.add(fvgen.createVertex(face, face.points()));
-		}
+		final OpContext ctx = new OpContext(seed);
+		fvgen.reset(ctx);
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				MutablePoint3D point = new MutablePoint3D();
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face face = seed.faces.get(fi);
+					fvgen.createVertex(ctx, face, face.points(), point);
+					b.addVertex(point);
+				}
+			}
+		});
 		
-		for (Polyhedron.Vertex v : seed.vertices) {
-			List<Polyhedron.Face> seedFaces = seed.getFaces(v);
-			while (!seedFaces.isEmpty()) {
-				List<Integer> dualFace = new ArrayList<Integer>();
-				for (Polyhedron.Face seedFace : seed.getOrderedFaces(v, seedFaces)) {
-					dualFace.add(seedFace.index);
-					seedFaces.remove(seedFace);
+		final HalfEdgeMesh mesh = seed.getHalfEdgeMesh();
+		ParallelBuild.build(b, seed.vertices.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				Polyhedron.Fans fans = new Polyhedron.Fans();
+				for (int vi = start; vi < end; vi++) {
+					seed.getFaceFans(seed.vertices.get(vi), fans);
+					for (int f = 0; f < fans.count(); f++) {
+						b.beginFace();
+						for (int j = fans.start(f); j < fans.end(f); j++) {
+							int h = fans.get(j);
+							b.addIndex(mesh.face(h));
+						}
+						b.endFace(color);
+					}
 				}
-				faces.add(dualFace);
-				faceColors.add(color);
 			}
-		}
+		});
 		
-		Polyhedron dual = new Polyhedron(vertices, faces, faceColors);
-		if (!mode.rescale(seed, dual, vertices)) return dual;
-		return new Polyhedron(vertices, faces, faceColors);
+		Polyhedron dual = b.build();
+		if (!mode.rescale(seed, dual, b)) return dual;
+		return b.build(dual);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Dual> {
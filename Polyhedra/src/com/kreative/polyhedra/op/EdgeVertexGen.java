@@ -5,30 +5,43 @@ import java.util.Arrays;
 import java.util.List;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MutablePoint3D;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronUtils.Option;
 import com.kreative.polyhedra.PolyhedronUtils.Type;
 
 public abstract class EdgeVertexGen {
-	public void reset(Polyhedron seed, List<Point3D> seedVertices) {}
+	/** Computes anything that depends on the seed and stores it in the context. */
+	public void reset(OpContext ctx) {}
 	
-	public abstract Point3D createVertex(
-		Polyhedron.Face face, List<Point3D> faceVertices,
-		Polyhedron.Edge edge, Point3D defaultVertex
+	/** Replaces <code>vertex</code>, initially the default vertex for the specified edge, with the generated vertex. */
+	public abstract void createVertex(
+		OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+		Polyhedron.Edge edge, MutablePoint3D vertex
 	);
 	
+	public Point3D createVertex(
+		OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+		Polyhedron.Edge edge, Point3D defaultVertex
+	) {
+		MutablePoint3D vertex = new MutablePoint3D(defaultVertex);
+		createVertex(ctx, face, faceVertices, edge, vertex);
+		return vertex.toPoint3D();
+	}
+	
 	public static final class FaceOffset extends EdgeVertexGen {
 		private final double size;
 		public FaceOffset(double size) {
 			this.size = size;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> fv,
-			Polyhedron.Edge edge, Point3D dv
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> fv,
+			Polyhedron.Edge edge, MutablePoint3D v
 		) {
-			if (fv == null || fv.isEmpty() || size == 0) return dv;
-			return dv.normal(fv).multiply(size).add(dv);
+			if (fv == null || fv.isEmpty() || size == 0) return;
+			Point3D dv = v.toPoint3D();
+			v.set(dv.normal(fv)).multiply(size).add(dv);
 		}
 	}
 	
@@ -41,17 +54,16 @@ public abstract class EdgeVertexGen {
 			this.met = metric;
 			this.size = size;
 		}
-		private Point3D sc;
-		private double sm;
-		public void reset(Polyhedron s, List<Point3D> sv) {
-			this.sc = Point3D.average(sv);
-			this.sm = agg.aggregate(met.iterator(s, sc));
+		public void reset(OpContext ctx) {
+			ctx.put(this, agg.aggregate(met, ctx.seed, ctx.seedCenter()));
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> fv,
-			Polyhedron.Edge edge, Point3D dv
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> fv,
+			Polyhedron.Edge edge, MutablePoint3D v
 		) {
-			return dv.subtract(sc).normalize(sm + size).add(sc);
+			Point3D sc = ctx.seedCenter();
+			double sm = (Double)ctx.get(this);
+			v.subtract(sc).normalize(sm + size).add(sc);
 		}
 	}
 	
@@ -60,16 +72,17 @@ public abstract class EdgeVertexGen {
 		public EdgeMidpointMagnitudeOffset(double size) {
 			this.size = size;
 		}
-		private Point3D sc;
-		public void reset(Polyhedron s, List<Point3D> sv) {
-			this.sc = Point3D.average(sv);
-		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> fv,
-			Polyhedron.Edge edge, Point3D dv
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> fv,
+			Polyhedron.Edge edge, MutablePoint3D v
 		) {
-			double m = edge.midpoint().distance(sc) + size;
-			return dv.subtract(sc).normalize(m).add(sc);
+			Point3D p1 = edge.vertex1.point, p2 = edge.vertex2.point;
+			double mx = (p1.getX() + p2.getX()) / 2;
+			double my = (p1.getY() + p2.getY()) / 2;
+			double mz = (p1.getZ() + p2.getZ()) / 2;
+			Point3D sc = ctx.seedCenter();
+			double m = sc.distance(mx, my, mz) + size;
+			v.subtract(sc).normalize(m).add(sc);
 		}
 	}
 	
@@ -78,17 +91,14 @@ public abstract class EdgeVertexGen {
 		public DefaultVertexMagnitudeOffset(double size) {
 			this.size = size;
 		}
-		private Point3D sc;
-		public void reset(Polyhedron s, List<Point3D> sv) {
-			this.sc = Point3D.average(sv);
-		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> fv,
-			Polyhedron.Edge edge, Point3D dv
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> fv,
+			Polyhedron.Edge edge, MutablePoint3D v
 		) {
-			if (size == 0) return dv;
-			double m = dv.distance(sc) + size;
-			return dv.subtract(sc).normalize(m).add(sc);
+			if (size == 0) return;
+			Point3D sc = ctx.seedCenter();
+			double m = v.distance(sc) + size;
+			v.subtract(sc).normalize(m).add(sc);
 		}
 	}
 	
@@ -97,18 +107,15 @@ public abstract class EdgeVertexGen {
 		public FaceOffsetFromOrigin(double size) {
 			this.size = size;
 		}
-		private Point3D sc;
-		public void reset(Polyhedron s, List<Point3D> sv) {
-			this.sc = Point3D.average(sv);
-		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> fv,
-			Polyhedron.Edge edge, Point3D dv
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> fv,
+			Polyhedron.Edge edge, MutablePoint3D v
 		) {
-			if (fv == null || fv.isEmpty()) return dv;
+			if (fv == null || fv.isEmpty()) return;
+			Point3D dv = v.toPoint3D();
 			Point3D normal = dv.normal(fv);
-			double fm = sc.distanceToPlane(dv, normal);
-			return normal.multiply(size - fm).add(dv);
+			double fm = ctx.seedCenter().distanceToPlane(dv, normal);
+			v.set(normal).multiply(size - fm).add(dv);
 		}
 	}
 	
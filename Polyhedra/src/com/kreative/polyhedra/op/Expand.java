@@ -2,11 +2,12 @@ package com.kreative.polyhedra.op;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import com.kreative.polyhedra.HalfEdgeMesh;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Expand extends PolyhedronOp {
@@ -81,50 +82,64 @@ public class Expand extends PolyhedronOp {
 		this.vertexColor = vertexColor;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
+	public Polyhedron op(final Polyhedron seed) {
 		int vefSize = seed.vertices.size() + seed.edges.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>();
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(vefSize);
-		List<Color> faceColors = new ArrayList<Color>(vefSize);
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.edges.size() * 2, vefSize);
 		
-		Map<Polyhedron.Face,Integer> faceStartIndexMap = new HashMap<Polyhedron.Face,Integer>();
-		for (Polyhedron.Face face : seed.faces) {
-			int startIndex = vertices.size();
-			faceStartIndexMap.put(face, startIndex);
-			vertices.addAll(gen.createFace(face, face.center(), size));
-			int n = vertices.size() - startIndex;
-			List<Integer> expandedFace = new ArrayList<Integer>(n);
-			for (int i = 0; i < n; i++) expandedFace.add(startIndex++);
-			faces.add(expandedFace);
-			faceColors.add(face.color);
+		final int[] faceStartIndex = new int[seed.faces.size()];
+		for (int fi = 0, vi = b.vertexCount(); fi < faceStartIndex.length; fi++) {
+			faceStartIndex[fi] = vi;
+			vi += seed.faces.get(fi).vertices.size();
 		}
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face face = seed.faces.get(fi);
+					int vi = faceStartIndex[fi];
+					b.beginFace();
+					for (Point3D p : gen.createFace(face, face.center(), size)) {
+						b.addVertex(p);
+						b.addIndex(vi++);
+					}
+					b.endFace(face.color());
+				}
+			}
+		});
 		
-		for (Polyhedron.Edge edge : seed.edges) {
-			List<Integer> expandedFace = new ArrayList<Integer>();
-			for (Polyhedron.Face seedFace : seed.getFaces(edge)) {
-				int i = faceStartIndexMap.get(seedFace), n = seedFace.edges.size();
-				expandedFace.add(i + (seedFace.edges.indexOf(edge) + 1) % n);
-				expandedFace.add(i + seedFace.edges.indexOf(edge));
+		ParallelBuild.build(b, seed.edges.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int ei = start; ei < end; ei++) {
+					Polyhedron.Edge edge = seed.edges.get(ei);
+					b.beginFace();
+					for (Polyhedron.Face seedFace : seed.getFaces(edge)) {
+						int i = faceStartIndex[seedFace.index], n = seedFace.edges.size();
+						b.addIndex(i + (seedFace.edges.indexOf(edge) + 1) % n);
+						b.addIndex(i + seedFace.edges.indexOf(edge));
+					}
+					b.endFace(edgeColor);
+				}
 			}
-			faces.add(expandedFace);
-			faceColors.add(edgeColor);
-		}
+		});
 		
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			List<Polyhedron.Face> seedFaces = seed.getFaces(vertex);
-			while (!seedFaces.isEmpty()) {
-				List<Integer> expandedFace = new ArrayList<Integer>();
-				for (Polyhedron.Face seedFace : seed.getOrderedFaces(vertex, seedFaces)) {
-					int i = faceStartIndexMap.get(seedFace);
-					expandedFace.add(i + seedFace.vertices.indexOf(vertex));
-					seedFaces.remove(seedFace);
+		final HalfEdgeMesh mesh = seed.getHalfEdgeMesh();
+		ParallelBuild.build(b, seed.vertices.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				Polyhedron.Fans fans = new Polyhedron.Fans();
+				for (int vi = start; vi < end; vi++) {
+					seed.getFaceFans(seed.vertices.get(vi), fans);
+					for (int f = 0; f < fans.count(); f++) {
+						b.beginFace();
+						for (int j = fans.start(f); j < fans.end(f); j++) {
+							int h = fans.get(j);
+							b.addIndex(faceStartIndex[mesh.face(h)] + mesh.corner(h));
+						}
+						b.endFace(vertexColor);
+					}
 				}
-				faces.add(expandedFace);
-				faceColors.add(vertexColor);
 			}
-		}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Expand> {
@@ -9,8 +9,9 @@ import com.kreative.polyhedra.PolyhedronUtils.Option;
 import com.kreative.polyhedra.PolyhedronUtils.Type;
 
 public abstract class FacePredicate {
-	public void reset(Polyhedron seed) {}
-	public abstract boolean matches(Polyhedron.Face face);
+	/** Computes anything that depends on the seed and stores it in the context. */
+	public void reset(OpContext ctx) {}
+	public abstract boolean matches(OpContext ctx, Polyhedron.Face face);
 	
 	public static final class Degree extends FacePredicate {
 		private final Set<Integer> degrees;
@@ -22,7 +23,7 @@ public abstract class FacePredicate {
 			this.degrees = new HashSet<Integer>();
 			for (int d : degrees) this.degrees.add(d);
 		}
-		public boolean matches(Polyhedron.Face face) {
+		public boolean matches(OpContext ctx, Polyhedron.Face face) {
 			return degrees.contains(face.vertices.size());
 		}
 	}
@@ -37,10 +38,12 @@ public abstract class FacePredicate {
 			this.indices = new HashSet<Integer>();
 			for (int i : indices) this.indices.add(i);
 		}
-		private int currentIndex = 0;
-		public void reset(Polyhedron seed) { currentIndex = 0; }
-		public boolean matches(Polyhedron.Face face) {
-			return indices.contains(currentIndex++);
+		public void reset(OpContext ctx) {
+			ctx.put(this, new int[1]);
+		}
+		public boolean matches(OpContext ctx, Polyhedron.Face face) {
+			int[] currentIndex = (int[])ctx.get(this);
+			return indices.contains(currentIndex[0]++);
 		}
 	}
 	
@@ -54,28 +57,30 @@ public abstract class FacePredicate {
 			this.angles = new HashSet<Number>();
 			for (Number a : angles) this.angles.add(a);
 		}
-		private Point3D center = null;
-		private final Set<Integer> indices = new HashSet<Integer>();
-		private final Set<Point3D> centers = new HashSet<Point3D>();
-		public void reset(Polyhedron seed) {
-			this.center = seed.center();
-			this.indices.clear();
-			this.centers.clear();
+		private static final class State {
+			private final Point3D center;
+			private final Set<Integer> indices = new HashSet<Integer>();
+			private final Set<Point3D> centers = new HashSet<Point3D>();
+			private State(Point3D center) { this.center = center; }
+		}
+		public void reset(OpContext ctx) {
+			ctx.put(this, new State(ctx.seed.center()));
 		}
-		public boolean matches(Polyhedron.Face face) {
-			if (indices.contains(face.index)) return true;
+		public boolean matches(OpContext ctx, Polyhedron.Face face) {
+			State state = (State)ctx.get(this);
+			if (state.indices.contains(face.index)) return true;
 			Point3D c1 = face.center();
-			for (Point3D c2 : centers) {
+			for (Point3D c2 : state.centers) {
 				boolean matches = false;
-				double angle = center.angle(c1, c2);
+				double angle = state.center.angle(c1, c2);
 				for (Number a : angles) {
 					double diff = Math.abs(angle - a.doubleValue());
 					if (diff < 1e-12) matches = true;
 				}
 				if (!matches) return false;
 			}
-			indices.add(face.index);
-			centers.add(c1);
+			state.indices.add(face.index);
+			state.centers.add(c1);
 			return true;
 		}
 	}
@@ -90,7 +95,7 @@ public abstract class FacePredicate {
 			this.degrees = new HashSet<Integer>();
 			for (int d : degrees) this.degrees.add(d);
 		}
-		public boolean matches(Polyhedron.Face face) {
+		public boolean matches(OpContext ctx, Polyhedron.Face face) {
 			for (Polyhedron.Vertex v : face.vertices) {
 				int d = face.parent.getEdges(v).size();
 				if (!degrees.contains(d)) return false;
@@ -147,12 +152,12 @@ public abstract class FacePredicate {
 		}
 	}
 	
-	public static void reset(Collection<? extends FacePredicate> c, Polyhedron seed) {
-		if (c != null) for (FacePredicate p : c) p.reset(seed);
+	public static void reset(Collection<? extends FacePredicate> c, OpContext ctx) {
+		if (c != null) for (FacePredicate p : c) p.reset(ctx);
 	}
 	
-	public static boolean matches(Collection<? extends FacePredicate> c, Polyhedron.Face face) {
-		if (c != null) for (FacePredicate p : c) if (!p.matches(face)) return false;
+	public static boolean matches(Collection<? extends FacePredicate> c, OpContext ctx, Polyhedron.Face face) {
+		if (c != null) for (FacePredicate p : c) if (!p.matches(ctx, face)) return false;
 		return true;
 	}
 }
\ No newline at end of file
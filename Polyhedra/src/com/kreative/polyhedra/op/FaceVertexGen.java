@@ -5,24 +5,34 @@ import java.util.Arrays;
 import java.util.List;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MutablePoint3D;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronUtils.Option;
 import com.kreative.polyhedra.PolyhedronUtils.Type;
 
 public abstract class FaceVertexGen {
-	public void reset(Polyhedron seed, List<Point3D> seedVertices) {}
+	/** Computes anything that depends on the seed and stores it in the context. */
+	public void reset(OpContext ctx) {}
 	
-	public abstract Point3D createVertex(Polyhedron.Face face, List<Point3D> faceVertices);
+	/** Stores the vertex generated for the specified face in <code>dst</code>. */
+	public abstract void createVertex(OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices, MutablePoint3D dst);
+	
+	public Point3D createVertex(OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices) {
+		MutablePoint3D dst = new MutablePoint3D();
+		createVertex(ctx, face, faceVertices, dst);
+		return dst.toPoint3D();
+	}
 	
 	public static final class FaceOffset extends FaceVertexGen {
 		private final double size;
 		public FaceOffset(double size) {
 			this.size = size;
 		}
-		public Point3D createVertex(Polyhedron.Face f, List<Point3D> fv) {
-			Point3D fc = Point3D.average(fv);
-			return (size == 0) ? fc : fc.normal(fv).multiply(size).add(fc);
+		public void createVertex(OpContext ctx, Polyhedron.Face f, List<Point3D> fv, MutablePoint3D dst) {
+			Point3D fc = f.center();
+			if (size == 0) dst.set(fc);
+			else dst.set(f.normal()).multiply(size).add(fc);
 		}
 	}
 	
@@ -35,14 +45,13 @@ public abstract class FaceVertexGen {
 			this.met = metric;
 			this.size = size;
 		}
-		private Point3D sc;
-		private double sm;
-		public void reset(Polyhedron s, List<Point3D> sv) {
-			this.sc = Point3D.average(sv);
-			this.sm = agg.aggregate(met.iterator(s, sc));
+		public void reset(OpContext ctx) {
+			ctx.put(this, agg.aggregate(met, ctx.seed, ctx.seedCenter()));
 		}
-		public Point3D createVertex(Polyhedron.Face f, List<Point3D> fv) {
-			return Point3D.average(fv).subtract(sc).normalize(sm + size).add(sc);
+		public void createVertex(OpContext ctx, Polyhedron.Face f, List<Point3D> fv, MutablePoint3D dst) {
+			Point3D sc = ctx.seedCenter();
+			double sm = (Double)ctx.get(this);
+			dst.set(f.center()).subtract(sc).normalize(sm + size).add(sc);
 		}
 	}
 	
@@ -51,50 +60,57 @@ public abstract class FaceVertexGen {
 		public FaceCenterMagnitudeOffset(double size) {
 			this.size = size;
 		}
-		private Point3D sc;
-		public void reset(Polyhedron s, List<Point3D> sv) {
-			this.sc = Point3D.average(sv);
-		}
-		public Point3D createVertex(Polyhedron.Face f, List<Point3D> fv) {
-			Point3D fc = Point3D.average(fv);
-			if (size == 0) return fc;
+		public void createVertex(OpContext ctx, Polyhedron.Face f, List<Point3D> fv, MutablePoint3D dst) {
+			Point3D fc = f.center();
+			if (size == 0) { dst.set(fc); return; }
+			Point3D sc = ctx.seedCenter();
 			double m = fc.distance(sc) + size;
-			return fc.subtract(sc).normalize(m).add(sc);
+			dst.set(fc).subtract(sc).normalize(m).add(sc);
 		}
 	}
 	
 	public static final class Equilateral extends FaceVertexGen {
-		public Point3D createVertex(Polyhedron.Face f, List<Point3D> fv) {
-			Point3D fc = Point3D.average(fv);
-			if (fv.size() > 5) return fc;
+		public void createVertex(OpContext ctx, Polyhedron.Face f, List<Point3D> fv, MutablePoint3D dst) {
+			Point3D fc = f.center();
+			if (fv.size() > 5) { dst.set(fc); return; }
 			double heights = 0;
 			for (int i = 0, n = fv.size(); i < n; i++) {
 				Point3D v1 = fv.get(i);
 				Point3D v2 = fv.get((i + 1) % n);
-				Point3D m = v1.midpoint(v2);
-				double h2 = v1.distanceSq(v2) * 0.75 - m.distanceSq(fc);
+				dst.midpoint(v1, v2);
+				double h2 = v1.distanceSq(v2) * 0.75 - dst.distanceSq(fc);
 				if (h2 > 0) heights += Math.sqrt(h2);
 			}
-			return (heights == 0) ? fc : fc.normal(fv).multiply(heights / fv.size()).add(fc);
+			if (heights == 0) dst.set(fc);
+			else dst.set(f.normal()).multiply(heights / fv.size()).add(fc);
 		}
 	}
 	
 	public static final class Planar extends FaceVertexGen {
-		public Point3D createVertex(Polyhedron.Face f, List<Point3D> fv) {
-			Point3D fc = Point3D.average(fv);
+		public void createVertex(OpContext ctx, Polyhedron.Face f, List<Point3D> fv, MutablePoint3D dst) {
+			Point3D fc = f.center();
 			double heights = 0;
 			for (Polyhedron.Edge e : f.edges) {
-				List<Point3D> avs = new ArrayList<Point3D>();
+				// Average the vertices of the adjacent faces the way Point3D.average does.
+				double ax = 0, ay = 0, az = 0;
+				int count = 0;
 				for (Polyhedron.Face af : f.parent.getOppositeFaces(e, f)) {
 					for (Polyhedron.Vertex av : af.vertices) {
-						avs.add(av.point);
+						ax += av.point.getX();
+						ay += av.point.getY();
+						az += av.point.getZ();
+						count++;
 					}
 				}
-				Point3D ac = Point3D.average(avs), m = e.midpoint();
-				double d = m.distance(fc), ad = m.distance(ac);
-				heights += d / Math.tan(m.angleRad(fc, ac) * d / (d + ad));
+				if (count > 0) { ax /= count; ay /= count; az /= count; }
+				dst.midpoint(e.vertex1.point, e.vertex2.point);
+				double mx = dst.getX(), my = dst.getY(), mz = dst.getZ();
+				double d = dst.distance(fc), ad = dst.distance(ax, ay, az);
+				double a = dst.set(fc).subtract(mx, my, mz).angleRad(ax - mx, ay - my, az - mz);
+				heights += d / Math.tan(a * d / (d + ad));
 			}
-			return (heights == 0) ? fc : fc.normal(fv).multiply(heights / f.edges.size()).add(fc);
+			if (heights == 0) dst.set(fc);
+			else dst.set(f.normal()).multiply(heights / f.edges.size()).add(fc);
 		}
 	}
 	
@@ -112,19 +128,18 @@ public abstract class FaceVertexGen {
 			this.met = null;
 			this.rad = radius;
 		}
-		private Point3D sc;
-		private double sm;
-		public void reset(Polyhedron s, List<Point3D> sv) {
-			this.sc = Point3D.average(sv);
-			this.sm = (agg != null && met != null) ? agg.aggregate(met.iterator(s, sc)) : rad;
-		}
-		public Point3D createVertex(Polyhedron.Face f, List<Point3D> fv) {
-			Point3D fc = Point3D.average(fv);
-			Point3D rc = fc.subtract(sc);
-			double rm = rc.magnitude();
-			if (rm == 0) return fc;
+		public void reset(OpContext ctx) {
+			ctx.put(this, (agg != null && met != null) ? agg.aggregate(met, ctx.seed, ctx.seedCenter()) : rad);
+		}
+		public void createVertex(OpContext ctx, Polyhedron.Face f, List<Point3D> fv, MutablePoint3D dst) {
+			Point3D fc = f.center();
+			Point3D sc = ctx.seedCenter();
+			double sm = (Double)ctx.get(this);
+			dst.set(fc).subtract(sc);
+			double rm = dst.magnitude();
+			if (rm == 0) { dst.set(fc); return; }
 			double h = sm * sm / rm;
-			return rc.normalize(h).add(sc);
+			dst.normalize(h).add(sc);
 		}
 	}
 	
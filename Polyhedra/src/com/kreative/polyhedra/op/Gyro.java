@@ -1,15 +1,13 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MutablePoint3D;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Gyro extends PolyhedronOp {
@@ -23,50 +21,69 @@ public class Gyro extends PolyhedronOp {
 		this.evgen = evgen;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
+	public Polyhedron op(final Polyhedron seed) {
 		int vefSize = seed.vertices.size() + (seed.edges.size() * 2) + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(vefSize);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>();
-		List<Color> faceColors = new ArrayList<Color>();
+		PolyhedronBuilder b = new PolyhedronBuilder(vefSize, seed.edges.size() * 2);
 		
-		vertices.addAll(seed.points());
-		fvgen.reset(seed, vertices);
-		gvgen.reset(seed, vertices);
-		evgen.reset(seed, vertices);
+		final OpContext ctx = new OpContext(seed);
+		b.addVertices(seed);
+		fvgen.reset(ctx);
+		gvgen.reset(ctx);
+		evgen.reset(ctx);
 		
-		Map<Integer,Integer> edgeStartIndexMap = new HashMap<Integer,Integer>();
-		Map<Integer,List<Point3D>> faceVertexMap = new HashMap<Integer,List<Point3D>>();
-		for (Polyhedron.Face f : seed.faces) {
-			edgeStartIndexMap.put(f.index, vertices.size());
-			List<Point3D> fv = f.points();
-			faceVertexMap.put(f.index, fv);
-			for (Polyhedron.Edge e : f.edges) {
-				Point3D v = gvgen.createVertex(f, fv, e, e.vertex2.point);
-				vertices.add(evgen.createVertex(f, fv, e, v));
-			}
+		final int[] edgeStartIndexMap = new int[seed.faces.size()];
+		int vc = b.vertexCount();
+		for (int fi = 0; fi < edgeStartIndexMap.length; fi++) {
+			edgeStartIndexMap[fi] = vc;
+			vc += seed.faces.get(fi).edges.size();
 		}
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				MutablePoint3D v = new MutablePoint3D();
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face f = seed.faces.get(fi);
+					List<Point3D> fv = f.points();
+					for (Polyhedron.Edge e : f.edges) {
+						gvgen.createVertex(ctx, f, fv, e, e.vertex2.point, v);
+						evgen.createVertex(ctx, f, fv, e, v);
+						b.addVertex(v);
+					}
+				}
+			}
+		});
 		
-		int faceStartIndex = vertices.size();
-		for (Polyhedron.Face f : seed.faces) {
-			List<Point3D> faceVertices = faceVertexMap.get(f.index);
-			vertices.add(fvgen.createVertex(f, faceVertices));
-			int fi = faceStartIndex + f.index;
-			int edgeStartIndex = edgeStartIndexMap.get(f.index);
-			for (int i = 0, n = f.vertices.size(); i < n; i++) {
-				int vi = f.vertices.get(i).index;
-				int nei = edgeStartIndex + i;
-				int pei = edgeStartIndex + ((i + n - 1) % n);
-				Polyhedron.Edge nextEdge = f.edges.get(i);
-				for (Polyhedron.Face af : seed.getOppositeFaces(nextEdge, f)) {
-					int afesi = edgeStartIndexMap.get(af.index);
-					int afei = afesi + af.edges.indexOf(nextEdge);
-					faces.add(Arrays.asList(fi, pei, vi, afei, nei));
-					faceColors.add(f.color);
+		final int faceStartIndex = vc;
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				MutablePoint3D v = new MutablePoint3D();
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face f = seed.faces.get(fi);
+					fvgen.createVertex(ctx, f, f.points(), v);
+					b.addVertex(v);
+					int fvi = faceStartIndex + fi;
+					int edgeStartIndex = edgeStartIndexMap[fi];
+					for (int i = 0, n = f.vertices.size(); i < n; i++) {
+						int vi = f.vertices.get(i).index;
+						int nei = edgeStartIndex + i;
+						int pei = edgeStartIndex + ((i + n - 1) % n);
+						Polyhedron.Edge nextEdge = f.edges.get(i);
+						for (Polyhedron.Face af : seed.getOppositeFaces(nextEdge, f)) {
+							int afesi = edgeStartIndexMap[af.index];
+							int afei = afesi + af.edges.indexOf(nextEdge);
+							b.beginFace();
+							b.addIndex(fvi);
+							b.addIndex(pei);
+							b.addIndex(vi);
+							b.addIndex(afei);
+							b.addIndex(nei);
+							b.endFace(f.color());
+						}
+					}
 				}
 			}
-		}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Gyro> {
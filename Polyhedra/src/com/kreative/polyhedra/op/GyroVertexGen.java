@@ -3,31 +3,43 @@ package com.kreative.polyhedra.op;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import com.kreative.polyhedra.MutablePoint3D;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronUtils.Option;
 import com.kreative.polyhedra.PolyhedronUtils.Type;
 
 public abstract class GyroVertexGen {
-	public void reset(Polyhedron seed, List<Point3D> seedVertices) {}
+	/** Computes anything that depends on the seed and stores it in the context. */
+	public void reset(OpContext ctx) {}
 	
-	public abstract Point3D createVertex(
-		Polyhedron.Face face, List<Point3D> faceVertices,
-		Polyhedron.Edge edge, Point3D vertex
+	/** Stores the vertex generated for the specified edge of the specified face in <code>dst</code>. */
+	public abstract void createVertex(
+		OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+		Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 	);
 	
+	public Point3D createVertex(
+		OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+		Polyhedron.Edge edge, Point3D vertex
+	) {
+		MutablePoint3D dst = new MutablePoint3D();
+		createVertex(ctx, face, faceVertices, edge, vertex, dst);
+		return dst.toPoint3D();
+	}
+	
 	public static final class FixedDistanceFromVertexAlongEdge extends GyroVertexGen {
 		private final double size;
 		public FixedDistanceFromVertexAlongEdge(double distance) {
 			this.size = distance;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> faceVertices,
-			Polyhedron.Edge edge, Point3D vertex
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+			Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 		) {
-			if (size == 0) return vertex;
-			Point3D midpoint = edge.midpoint();
-			return midpoint.subtract(vertex).normalize(size).add(vertex);
+			if (size == 0) { dst.set(vertex); return; }
+			dst.midpoint(edge.vertex1.point, edge.vertex2.point);
+			dst.subtract(vertex).normalize(size).add(vertex);
 		}
 	}
 	
@@ -36,13 +48,13 @@ public abstract class GyroVertexGen {
 		public RelativeDistanceFromVertexAlongEdge(double distance) {
 			this.size = distance;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> faceVertices,
-			Polyhedron.Edge edge, Point3D vertex
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+			Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 		) {
-			if (size == 0) return vertex;
-			Point3D midpoint = edge.midpoint();
-			return midpoint.subtract(vertex).multiply(size).add(vertex);
+			if (size == 0) { dst.set(vertex); return; }
+			dst.midpoint(edge.vertex1.point, edge.vertex2.point);
+			dst.subtract(vertex).multiply(size).add(vertex);
 		}
 	}
 	
@@ -51,16 +63,19 @@ public abstract class GyroVertexGen {
 		public FixedAngleFromVertexAlongEdge(double angle) {
 			this.size = angle;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> faceVertices,
-			Polyhedron.Edge edge, Point3D vertex
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+			Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 		) {
-			if (size == 0) return vertex;
-			Point3D midpoint = edge.midpoint();
+			if (size == 0) { dst.set(vertex); return; }
 			Point3D center = face.center();
 			double b = center.distance(vertex) * Math.sin(Math.toRadians(size));
-			double c = Math.sin(vertex.angleRad(midpoint, center) + Math.toRadians(size));
-			return midpoint.subtract(vertex).normalize(b / c).add(vertex);
+			dst.midpoint(edge.vertex1.point, edge.vertex2.point).subtract(vertex);
+			double cx = center.getX() - vertex.getX();
+			double cy = center.getY() - vertex.getY();
+			double cz = center.getZ() - vertex.getZ();
+			double c = Math.sin(dst.angleRad(cx, cy, cz) + Math.toRadians(size));
+			dst.normalize(b / c).add(vertex);
 		}
 	}
 	
@@ -69,13 +84,14 @@ public abstract class GyroVertexGen {
 		public FixedDistanceFromMidpointAlongEdge(double distance) {
 			this.size = distance;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> faceVertices,
-			Polyhedron.Edge edge, Point3D vertex
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+			Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 		) {
-			Point3D midpoint = edge.midpoint();
-			if (size == 0) return midpoint;
-			return vertex.subtract(midpoint).normalize(size).add(midpoint);
+			dst.midpoint(edge.vertex1.point, edge.vertex2.point);
+			if (size == 0) return;
+			double mx = dst.getX(), my = dst.getY(), mz = dst.getZ();
+			dst.set(vertex).subtract(mx, my, mz).normalize(size).add(mx, my, mz);
 		}
 	}
 	
@@ -84,13 +100,14 @@ public abstract class GyroVertexGen {
 		public RelativeDistanceFromMidpointAlongEdge(double distance) {
 			this.size = distance;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> faceVertices,
-			Polyhedron.Edge edge, Point3D vertex
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+			Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 		) {
-			Point3D midpoint = edge.midpoint();
-			if (size == 0) return midpoint;
-			return vertex.subtract(midpoint).multiply(size).add(midpoint);
+			dst.midpoint(edge.vertex1.point, edge.vertex2.point);
+			if (size == 0) return;
+			double mx = dst.getX(), my = dst.getY(), mz = dst.getZ();
+			dst.set(vertex).subtract(mx, my, mz).multiply(size).add(mx, my, mz);
 		}
 	}
 	
@@ -99,15 +116,15 @@ public abstract class GyroVertexGen {
 		public FixedAngleFromMidpointAlongEdge(double angle) {
 			this.size = angle;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> faceVertices,
-			Polyhedron.Edge edge, Point3D vertex
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+			Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 		) {
-			Point3D midpoint = edge.midpoint();
-			if (size == 0) return midpoint;
-			Point3D center = face.center();
-			double a = center.distance(midpoint) * Math.tan(Math.toRadians(size));
-			return vertex.subtract(midpoint).normalize(a).add(midpoint);
+			dst.midpoint(edge.vertex1.point, edge.vertex2.point);
+			if (size == 0) return;
+			double a = face.center().distance(dst.getX(), dst.getY(), dst.getZ()) * Math.tan(Math.toRadians(size));
+			double mx = dst.getX(), my = dst.getY(), mz = dst.getZ();
+			dst.set(vertex).subtract(mx, my, mz).normalize(a).add(mx, my, mz);
 		}
 	}
 	
@@ -116,18 +133,21 @@ public abstract class GyroVertexGen {
 		public TwistAngle(double angle) {
 			this.size = angle;
 		}
-		public Point3D createVertex(
-			Polyhedron.Face face, List<Point3D> faceVertices,
-			Polyhedron.Edge edge, Point3D vertex
+		public void createVertex(
+			OpContext ctx, Polyhedron.Face face, List<Point3D> faceVertices,
+			Polyhedron.Edge edge, Point3D vertex, MutablePoint3D dst
 		) {
-			if (size == 0) return vertex;
-			Point3D midpoint = edge.midpoint();
+			if (size == 0) { dst.set(vertex); return; }
 			Point3D center = face.center();
 			double a = center.distance(vertex);
 			double b = a * Math.sin(Math.toRadians(size));
-			double c = Math.sin(vertex.angleRad(midpoint, center) + Math.toRadians(size));
-			Point3D v = midpoint.subtract(vertex).normalize(b / c).add(vertex);
-			return v.subtract(center).normalize(a).add(center);
+			dst.midpoint(edge.vertex1.point, edge.vertex2.point).subtract(vertex);
+			double cx = center.getX() - vertex.getX();
+			double cy = center.getY() - vertex.getY();
+			double cz = center.getZ() - vertex.getZ();
+			double c = Math.sin(dst.angleRad(cx, cy, cz) + Math.toRadians(size));
+			dst.normalize(b / c).add(vertex);
+			dst.subtract(center).normalize(a).add(center);
 		}
 	}
 	
@@ -1,29 +1,20 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class InsideOut extends PolyhedronOp {
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.vertices.size(), seed.faces.size());
 		for (Polyhedron.Vertex vertex : seed.vertices) {
-			vertices.add(vertex.point);
+			b.addVertex(vertex.point);
 		}
 		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Polyhedron.Vertex v : face.vertices) indices.add(v.index);
-			Collections.reverse(indices);
-			faces.add(indices);
-			faceColors.add(face.color);
+			b.addFace(face, true, face.color());
 		}
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<InsideOut> {
@@ -1,15 +1,12 @@
 package com.kreative.polyhedra.op;
 
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Join extends PolyhedronOp {
@@ -23,34 +20,37 @@ public class Join extends PolyhedronOp {
 	
 	public Polyhedron op(Polyhedron seed) {
 		int vfSize = seed.vertices.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(vfSize);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.edges.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.edges.size());
+		PolyhedronBuilder b = new PolyhedronBuilder(vfSize, seed.edges.size() * 2);
 		
-		vertices.addAll(seed.points());
-		fvgen.reset(seed, vertices);
+		b.addVertices(seed);
+		OpContext ctx = new OpContext(seed);
+		fvgen.reset(ctx);
 		
-		Map<Polyhedron.Edge,Integer> edgeVertexMap = new HashMap<Polyhedron.Edge,Integer>();
+		int[] edgeVertex = new int[seed.edges.size()];
+		Arrays.fill(edgeVertex, -1);
 		for (Polyhedron.Face f : seed.faces) {
-			Point3D newVertex = fvgen.createVertex(f, f.points());
+			Point3D newVertex = fvgen.createVertex(ctx, f, f.points());
 			if (newVertex != null) {
-				int i0 = vertices.size();
-				vertices.add(newVertex);
+				int i0 = b.addVertex(newVertex);
 				for (int i = 0, n = f.edges.size(); i < n; i++) {
-					Integer i2 = edgeVertexMap.get(f.edges.get(i));
-					if (i2 == null) {
-						edgeVertexMap.put(f.edges.get(i), i0);
+					int i2 = edgeVertex[f.edges.get(i).index];
+					if (i2 < 0) {
+						edgeVertex[f.edges.get(i).index] = i0;
 					} else {
 						int i1 = f.vertices.get(i).index;
 						int i3 = f.vertices.get((i + 1) % n).index;
-						faces.add(Arrays.asList(i0, i1, i2, i3));
-						faceColors.add(color);
+						b.beginFace();
+						b.addIndex(i0);
+						b.addIndex(i1);
+						b.addIndex(i2);
+						b.addIndex(i3);
+						b.endFace(color);
 					}
 				}
 			}
 		}
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Join> {
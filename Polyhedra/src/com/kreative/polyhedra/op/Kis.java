@@ -1,11 +1,11 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Kis extends PolyhedronOp {
@@ -17,37 +17,57 @@ public class Kis extends PolyhedronOp {
 		this.fvgen = fvgen;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
+	public Polyhedron op(final Polyhedron seed) {
+		int vfSize = seed.vertices.size() + seed.faces.size();
+		PolyhedronBuilder b = new PolyhedronBuilder(vfSize, seed.faces.size());
 		
-		vertices.addAll(seed.points());
-		fvgen.reset(seed, vertices);
+		b.addVertices(seed);
+		final OpContext ctx = new OpContext(seed);
+		fvgen.reset(ctx);
 		
-		FacePredicate.reset(predicates, seed);
+		// Predicates may depend on the order they are called in, so match serially.
+		final Point3D[] newVertices = new Point3D[seed.faces.size()];
+		final boolean[] matched = new boolean[seed.faces.size()];
+		FacePredicate.reset(predicates, ctx);
 		for (Polyhedron.Face f : seed.faces) {
-			if (FacePredicate.matches(predicates, f)) {
-				Point3D newVertex = fvgen.createVertex(f, f.points());
-				if (newVertex != null) {
-					int i0 = vertices.size();
-					vertices.add(newVertex);
-					for (int i = 0, n = f.vertices.size(); i < n; i++) {
-						int i1 = f.vertices.get(i).index;
-						int i2 = f.vertices.get((i + 1) % n).index;
-						faces.add(Arrays.asList(i0, i1, i2));
-						faceColors.add(f.color);
-					}
-					continue;
+			matched[f.index] = FacePredicate.matches(predicates, ctx, f);
+		}
+		ParallelBuild.run(seed.faces.size(), new ParallelBuild.Range() {
+			public void run(int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					if (!matched[fi]) continue;
+					Polyhedron.Face f = seed.faces.get(fi);
+					newVertices[fi] = fvgen.createVertex(ctx, f, f.points());
 				}
 			}
-			List<Integer> face = new ArrayList<Integer>();
-			for (Polyhedron.Vertex v : f.vertices) face.add(v.index);
-			faces.add(face);
-			faceColors.add(f.color);
+		});
+		
+		final int[] newIndex = new int[seed.faces.size()];
+		for (int fi = 0, vi = b.vertexCount(); fi < newIndex.length; fi++) {
+			newIndex[fi] = (newVertices[fi] != null) ? vi++ : -1;
 		}
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face f = seed.faces.get(fi);
+					if (newVertices[fi] != null) {
+						int i0 = newIndex[fi];
+						b.addVertex(newVertices[fi]);
+						for (int i = 0, n = f.vertices.size(); i < n; i++) {
+							b.beginFace();
+							b.addIndex(i0);
+							b.addIndex(f.vertices.get(i).index);
+							b.addIndex(f.vertices.get((i + 1) % n).index);
+							b.endFace(f.color());
+						}
+					} else {
+						b.addFace(f, false, f.color());
+					}
+				}
+			}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Kis> {
@@ -1,13 +1,11 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
-import com.kreative.polyhedra.Point3D;
+import com.kreative.polyhedra.MutablePoint3D;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Meta extends PolyhedronOp {
@@ -19,37 +17,57 @@ public class Meta extends PolyhedronOp {
 		this.evgen = evgen;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
+	public Polyhedron op(final Polyhedron seed) {
 		int vefSize = seed.vertices.size() + seed.edges.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(vefSize);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>();
-		List<Color> faceColors = new ArrayList<Color>();
+		PolyhedronBuilder b = new PolyhedronBuilder(vefSize, seed.edges.size() * 4);
 		
-		vertices.addAll(seed.points());
-		fvgen.reset(seed, vertices);
-		evgen.reset(seed, vertices);
+		final OpContext ctx = new OpContext(seed);
+		b.addVertices(seed);
+		fvgen.reset(ctx);
+		evgen.reset(ctx);
 		
-		int edgeStartIndex = vertices.size();
-		for (Polyhedron.Edge e : seed.edges) {
-			vertices.add(evgen.createVertex(null, null, e, e.midpoint()));
-		}
+		final int edgeStartIndex = b.vertexCount();
+		ParallelBuild.build(b, seed.edges.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				MutablePoint3D v = new MutablePoint3D();
+				for (int ei = start; ei < end; ei++) {
+					Polyhedron.Edge e = seed.edges.get(ei);
+					v.midpoint(e.vertex1.point, e.vertex2.point);
+					evgen.createVertex(ctx, null, null, e, v);
+					b.addVertex(v);
+				}
+			}
+		});
 		
-		int faceStartIndex = vertices.size();
-		for (Polyhedron.Face f : seed.faces) {
-			vertices.add(fvgen.createVertex(f, f.points()));
-			int fi = faceStartIndex + f.index;
-			for (int i = 0, n = f.vertices.size(); i < n; i++) {
-				int vi = f.vertices.get(i).index;
-				int nei = edgeStartIndex + seed.edges.indexOf(f.edges.get(i));
-				int pei = edgeStartIndex + seed.edges.indexOf(f.edges.get((i + n - 1) % n));
-				faces.add(Arrays.asList(fi, pei, vi));
-				faces.add(Arrays.asList(fi, vi, nei));
-				faceColors.add(f.color);
-				faceColors.add(f.color);
+		final int faceStartIndex = edgeStartIndex + seed.edges.size();
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				MutablePoint3D v = new MutablePoint3D();
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face f = seed.faces.get(fi);
+					fvgen.createVertex(ctx, f, f.points(), v);
+					b.addVertex(v);
+					int fvi = faceStartIndex + fi;
+					for (int i = 0, n = f.vertices.size(); i < n; i++) {
+						int vi = f.vertices.get(i).index;
+						int nei = edgeStartIndex + f.edges.get(i).index;
+						int pei = edgeStartIndex + f.edges.get((i + n - 1) % n).index;
+						b.beginFace();
+						b.addIndex(fvi);
+						b.addIndex(pei);
+						b.addIndex(vi);
+						b.endFace(f.color());
+						b.beginFace();
+						b.addIndex(fvi);
+						b.addIndex(vi);
+						b.addIndex(nei);
+						b.endFace(f.color());
+					}
+				}
 			}
-		}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Meta> {
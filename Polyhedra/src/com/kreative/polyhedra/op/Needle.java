@@ -1,13 +1,11 @@
 package com.kreative.polyhedra.op;
 
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Needle extends PolyhedronOp {
@@ -19,38 +17,77 @@ public class Needle extends PolyhedronOp {
 		this.color = color;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
+	public Polyhedron op(final Polyhedron seed) {
 		int vfSize = seed.vertices.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(vfSize);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.edges.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.edges.size());
+		PolyhedronBuilder b = new PolyhedronBuilder(vfSize, seed.edges.size() * 2);
 		
-		vertices.addAll(seed.points());
-		fvgen.reset(seed, vertices);
+		b.addVertices(seed);
+		final OpContext ctx = new OpContext(seed);
+		fvgen.reset(ctx);
 		
-		Map<Polyhedron.Edge,Integer> edgeVertexMap = new HashMap<Polyhedron.Edge,Integer>();
-		for (Polyhedron.Face f : seed.faces) {
-			Point3D newVertex = fvgen.createVertex(f, f.points());
-			if (newVertex != null) {
-				int i0 = vertices.size();
-				vertices.add(newVertex);
+		final Point3D[] newVertices = new Point3D[seed.faces.size()];
+		ParallelBuild.run(seed.faces.size(), new ParallelBuild.Range() {
+			public void run(int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face f = seed.faces.get(fi);
+					newVertices[fi] = fvgen.createVertex(ctx, f, f.points());
+				}
+			}
+		});
+		
+		// The new vertex and corner of the first face to reach each edge.
+		final int[] newIndex = new int[seed.faces.size()];
+		final int[] cornerStart = new int[seed.faces.size()];
+		final int[] edgeVertex = new int[seed.edges.size()];
+		final int[] edgeCorner = new int[seed.edges.size()];
+		Arrays.fill(edgeVertex, -1);
+		for (int fi = 0, vi = b.vertexCount(), ci = 0; fi < newIndex.length; fi++) {
+			Polyhedron.Face f = seed.faces.get(fi);
+			cornerStart[fi] = ci;
+			if (newVertices[fi] != null) {
+				newIndex[fi] = vi++;
 				for (int i = 0, n = f.edges.size(); i < n; i++) {
-					Integer i2 = edgeVertexMap.get(f.edges.get(i));
-					if (i2 == null) {
-						edgeVertexMap.put(f.edges.get(i), i0);
-					} else {
+					int e = f.edges.get(i).index;
+					if (edgeVertex[e] < 0) {
+						edgeVertex[e] = newIndex[fi];
+						edgeCorner[e] = ci + i;
+					}
+				}
+			} else {
+				newIndex[fi] = -1;
+			}
+			ci += f.edges.size();
+		}
+		
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					if (newVertices[fi] == null) continue;
+					Polyhedron.Face f = seed.faces.get(fi);
+					int i0 = newIndex[fi];
+					b.addVertex(newVertices[fi]);
+					for (int i = 0, n = f.edges.size(); i < n; i++) {
+						int e = f.edges.get(i).index;
+						if (edgeCorner[e] == cornerStart[fi] + i) continue;
 						int i1 = f.vertices.get(i).index;
+						int i2 = edgeVertex[e];
 						int i3 = f.vertices.get((i + 1) % n).index;
-						faces.add(Arrays.asList(i0, i1, i2));
-						faces.add(Arrays.asList(i2, i3, i0));
-						faceColors.add(color);
-						faceColors.add(color);
+						b.beginFace();
+						b.addIndex(i0);
+						b.addIndex(i1);
+						b.addIndex(i2);
+						b.endFace(color);
+						b.beginFace();
+						b.addIndex(i2);
+						b.addIndex(i3);
+						b.addIndex(i0);
+						b.endFace(color);
 					}
 				}
 			}
-		}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Needle> {
@@ -1,11 +1,8 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
-import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronOp;
+import com.kreative.polyhedra.VertexBuffer;
 
 public class NormalizeVertices extends PolyhedronOp {
 	private final double magnitude;
@@ -19,19 +16,9 @@ public class NormalizeVertices extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			vertices.add(vertex.point.normalize(magnitude));
-		}
-		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Polyhedron.Vertex v : face.vertices) indices.add(v.index);
-			faces.add(indices);
-			faceColors.add(face.color);
-		}
-		return new Polyhedron(vertices, faces, faceColors);
+		VertexBuffer vertices = new VertexBuffer(seed);
+		vertices.normalize(magnitude);
+		return new Polyhedron(seed, vertices.coords(), false);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<NormalizeVertices> {
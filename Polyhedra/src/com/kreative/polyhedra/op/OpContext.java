@@ -0,0 +1,47 @@
+package com.kreative.polyhedra.op;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import com.kreative.polyhedra.Point3D;
+import com.kreative.polyhedra.Polyhedron;
+
+/**
+ * The state of one application of an operation to one seed. Predicates and
+ * vertex generators keep whatever they compute in <code>reset</code> here,
+ * keyed on themselves, rather than in their own fields, so that a single
+ * operation can be applied to many seeds from many threads at once. A
+ * context is created by the operation for each seed and must be reset
+ * serially, but may then be read from any number of threads.
+ */
+public final class OpContext {
+	public final Polyhedron seed;
+	public final List<Point3D> seedVertices;
+	private final Map<Object,Object> state = new IdentityHashMap<Object,Object>();
+	private Point3D seedCenter;
+	
+	public OpContext(Polyhedron seed) {
+		this(seed, seed.points());
+	}
+	
+	public OpContext(Polyhedron seed, List<Point3D> seedVertices) {
+		this.seed = seed;
+		this.seedVertices = seedVertices;
+	}
+	
+	/** Returns the average of the seed vertices, computing it on first use. */
+	public Point3D seedCenter() {
+		Point3D c = seedCenter;
+		if (c == null) seedCenter = c = Point3D.average(seedVertices);
+		return c;
+	}
+	
+	/** Returns the state stored for the specified predicate or generator, or null if there is none. */
+	public Object get(Object owner) {
+		return state.get(owner);
+	}
+	
+	public void put(Object owner, Object value) {
+		state.put(owner, value);
+	}
+}
\ No newline at end of file
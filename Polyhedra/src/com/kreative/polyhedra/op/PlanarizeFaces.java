@@ -1,105 +1,422 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.awt.geom.NoninvertibleTransformException;
-import java.util.ArrayList;
-import java.util.List;
-import com.kreative.polyhedra.AffineTransform3D;
-import com.kreative.polyhedra.Point3D;
+import java.util.Arrays;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class PlanarizeFaces extends PolyhedronOp {
-	private static Point3D getIntersectionPoint(
-		Point3D normal1, Point3D center1,
-		Point3D normal2, Point3D center2,
-		Point3D normal3, Point3D center3
-	) {
-		AffineTransform3D matrix = new AffineTransform3D(
-			normal1.getX(), normal2.getX(), normal3.getX(),
-			normal1.getY(), normal2.getY(), normal3.getY(),
-			normal1.getZ(), normal2.getZ(), normal3.getZ(),
-			-normal1.dotProduct(center1),
-			-normal2.dotProduct(center2),
-			-normal3.dotProduct(center3)
-		);
-		try { return matrix.inverseTransform(Point3D.ZERO); }
-		catch (NoninvertibleTransformException e) { return null; }
+	/** How vertices see the planes of their faces during an iteration. */
+	public static enum Update {
+		/** Every vertex moves toward the planes from the start of the iteration, in parallel. */
+		JACOBI,
+		/** Each vertex moves toward the planes as updated by the vertices before it. */
+		GAUSS_SEIDEL;
 	}
 	
-	private static double planarizeFaces(Polyhedron p, List<Point3D> vertices) {
-		// Find (average) center and normal of each face.
-		List<Point3D> normals = new ArrayList<Point3D>();
-		List<Point3D> centers = new ArrayList<Point3D>();
-		for (Polyhedron.Face f : p.faces) {
-			List<Point3D> faceVertices = new ArrayList<Point3D>();
-			for (Polyhedron.Vertex v : f.vertices) faceVertices.add(vertices.get(v.index));
-			Point3D center = Point3D.average(faceVertices);
-			Point3D normal = center.normal(faceVertices);
-			normals.add(normal);
-			centers.add(center);
-		}
-		// Move each vertex to the (average) point where the planes of its faces intersect.
-		// Track the maximum distance of each vertex from its original location.
-		double maxDifference = 0;
-		for (Polyhedron.Vertex v : p.vertices) {
-			List<Point3D> intersectionPoints = new ArrayList<Point3D>();
-			List<Polyhedron.Face> faces = p.getFaces(v);
-			for (Polyhedron.Face f1 : faces) {
-				for (Polyhedron.Face f2 : faces) {
-					if (f2 == f1) continue;
-					for (Polyhedron.Face f3 : faces) {
-						if (f3 == f2 || f3 == f1) continue;
-						Point3D intersectionPoint = getIntersectionPoint(
-							normals.get(f1.index), centers.get(f1.index),
-							normals.get(f2.index), centers.get(f2.index),
-							normals.get(f3.index), centers.get(f3.index)
-						);
-						if (intersectionPoint == null) continue;
-						intersectionPoints.add(intersectionPoint);
+	/** The planarized polyhedron and how the iteration that produced it went. */
+	public static final class Result {
+		public final Polyhedron polyhedron;
+		public final int iterations;
+		/** The farthest any vertex moved in the last iteration. */
+		public final double difference;
+		public final boolean converged;
+		public Result(Polyhedron polyhedron, int iterations, double difference, boolean converged) {
+			this.polyhedron = polyhedron;
+			this.iterations = iterations;
+			this.difference = difference;
+			this.converged = converged;
+		}
+		public String toString() {
+			return "PlanarizeFaces: n=" + iterations + ", delta=" + difference + (converged ? "" : " (not converged)");
+		}
+	}
+	
+	/**
+	 * Vertex and face incidence of a polyhedron in compressed sparse row
+	 * form, along with the center and unit normal of each face for a set of
+	 * vertex coordinates stored as consecutive x, y, z values.
+	 */
+	static final class Solver {
+		final int vertexCount;
+		final int faceCount;
+		final int[] faceStart;
+		final int[] faceVertices;
+		final int[] vertexStart;
+		final int[] vertexFaces;
+		final double[] centers;
+		final double[] normals;
+		
+		Solver(Polyhedron p) {
+			vertexCount = p.vertices.size();
+			faceCount = p.faces.size();
+			faceStart = new int[faceCount + 1];
+			for (Polyhedron.Face f : p.faces) faceStart[f.index + 1] = f.vertices.size();
+			for (int i = 0; i < faceCount; i++) faceStart[i + 1] += faceStart[i];
+			faceVertices = new int[faceStart[faceCount]];
+			vertexStart = new int[vertexCount + 1];
+			int[] last = new int[vertexCount];
+			Arrays.fill(last, -1);
+			for (Polyhedron.Face f : p.faces) {
+				int j = faceStart[f.index];
+				for (Polyhedron.Vertex v : f.vertices) {
+					faceVertices[j++] = v.index;
+					if (last[v.index] == f.index) continue;
+					last[v.index] = f.index;
+					vertexStart[v.index + 1]++;
+				}
+			}
+			for (int i = 0; i < vertexCount; i++) vertexStart[i + 1] += vertexStart[i];
+			vertexFaces = new int[vertexStart[vertexCount]];
+			int[] fill = Arrays.copyOf(vertexStart, vertexCount);
+			Arrays.fill(last, -1);
+			for (int f = 0; f < faceCount; f++) {
+				for (int j = faceStart[f]; j < faceStart[f + 1]; j++) {
+					int v = faceVertices[j];
+					if (last[v] == f) continue;
+					last[v] = f;
+					vertexFaces[fill[v]++] = f;
+				}
+			}
+			centers = new double[faceCount * 3];
+			normals = new double[faceCount * 3];
+		}
+		
+		/** Computes the center and normal of a face the way Point3D.average and Point3D.normal do. */
+		void computePlane(double[] coords, int f) {
+			int start = faceStart[f], n = faceStart[f + 1] - start;
+			double cx = 0, cy = 0, cz = 0;
+			for (int j = start; j < start + n; j++) {
+				int k = faceVertices[j] * 3;
+				cx += coords[k]; cy += coords[k + 1]; cz += coords[k + 2];
+			}
+			if (n > 0) { cx /= n; cy /= n; cz /= n; }
+			double nx = 0, ny = 0, nz = 0;
+			int count = 0;
+			for (int i = 0; i < n; i++) {
+				int k1 = faceVertices[start + i] * 3;
+				int k2 = faceVertices[start + (i + 1) % n] * 3;
+				double x1 = coords[k1] - cx, y1 = coords[k1 + 1] - cy, z1 = coords[k1 + 2] - cz;
+				double x2 = coords[k2] - cx, y2 = coords[k2 + 1] - cy, z2 = coords[k2 + 2] - cz;
+				if (x1 * x1 + y1 * y1 + z1 * z1 == 0 || x2 * x2 + y2 * y2 + z2 * z2 == 0) continue;
+				double x = y1 * z2 - z1 * y2, y = z1 * x2 - x1 * z2, z = x1 * y2 - y1 * x2;
+				double m = Math.sqrt(x * x + y * y + z * z);
+				if (m != 0) { x /= m; y /= m; z /= m; }
+				nx += x; ny += y; nz += z;
+				count++;
+			}
+			if (count > 0) {
+				double m = Math.sqrt(nx * nx + ny * ny + nz * nz);
+				if (m != 0) { nx /= m; ny /= m; nz /= m; }
+			}
+			int j = f * 3;
+			centers[j] = cx; centers[j + 1] = cy; centers[j + 2] = cz;
+			normals[j] = nx; normals[j + 1] = ny; normals[j + 2] = nz;
+		}
+		
+		void computePlanes(final double[] coords) {
+			ParallelBuild.run(faceCount, new ParallelBuild.Range() {
+				public void run(int start, int end) {
+					for (int f = start; f < end; f++) computePlane(coords, f);
+				}
+			});
+		}
+		
+		/**
+		 * Stores in dst at the specified offset the point closest in the least-squares sense to the
+		 * planes of the faces around a vertex. The solve is damped by a tiny
+		 * multiple of the identity, which leaves its fixed points alone but
+		 * keeps the vertex in place along directions no plane constrains, as
+		 * when all of its faces are coplanar.
+		 */
+		void solveVertex(double[] coords, int v, double[] dst, int j0) {
+			int k = v * 3;
+			double x = coords[k], y = coords[k + 1], z = coords[k + 2];
+			double axx = 0, axy = 0, axz = 0, ayy = 0, ayz = 0, azz = 0;
+			double rx = 0, ry = 0, rz = 0;
+			for (int i = vertexStart[v]; i < vertexStart[v + 1]; i++) {
+				int j = vertexFaces[i] * 3;
+				double nx = normals[j], ny = normals[j + 1], nz = normals[j + 2];
+				double d = nx * (centers[j] - x) + ny * (centers[j + 1] - y) + nz * (centers[j + 2] - z);
+				axx += nx * nx; axy += nx * ny; axz += nx * nz;
+				ayy += ny * ny; ayz += ny * nz; azz += nz * nz;
+				rx += nx * d; ry += ny * d; rz += nz * d;
+			}
+			double lambda = (axx + ayy + azz) * 1e-9;
+			if (lambda == 0) {
+				dst[j0] = x; dst[j0 + 1] = y; dst[j0 + 2] = z;
+				return;
+			}
+			axx += lambda; ayy += lambda; azz += lambda;
+			double cxx = ayy * azz - ayz * ayz;
+			double cxy = axz * ayz - axy * azz;
+			double cxz = axy * ayz - axz * ayy;
+			double det = axx * cxx + axy * cxy + axz * cxz;
+			double cyy = axx * azz - axz * axz;
+			double cyz = axy * axz - axx * ayz;
+			double czz = axx * ayy - axy * axy;
+			dst[j0] = x + (cxx * rx + cxy * ry + cxz * rz) / det;
+			dst[j0 + 1] = y + (cxy * rx + cyy * ry + cyz * rz) / det;
+			dst[j0 + 2] = z + (cxz * rx + cyz * ry + czz * rz) / det;
+		}
+		
+		/**
+		 * Stores in dst at the specified offset the average of the
+		 * projections of a vertex onto the planes of the faces around it.
+		 * This converges more slowly than solveVertex but stays well
+		 * conditioned when those planes are nearly parallel.
+		 */
+		void projectVertex(double[] coords, int v, double[] dst, int j0) {
+			int k = v * 3;
+			double x = coords[k], y = coords[k + 1], z = coords[k + 2];
+			double sx = 0, sy = 0, sz = 0;
+			int n = vertexStart[v + 1] - vertexStart[v];
+			for (int i = vertexStart[v]; i < vertexStart[v + 1]; i++) {
+				int j = vertexFaces[i] * 3;
+				double nx = normals[j], ny = normals[j + 1], nz = normals[j + 2];
+				double d = nx * (centers[j] - x) + ny * (centers[j + 1] - y) + nz * (centers[j + 2] - z);
+				sx += nx * d; sy += ny * d; sz += nz * d;
+			}
+			if (n > 0) { sx /= n; sy /= n; sz /= n; }
+			dst[j0] = x + sx;
+			dst[j0 + 1] = y + sy;
+			dst[j0 + 2] = z + sz;
+		}
+		
+		/**
+		 * Performs one iteration from x into gx. A Gauss-Seidel iteration
+		 * goes vertex by vertex, refreshing the planes of the faces around
+		 * each vertex from where their vertices are now and then moving that
+		 * vertex once, by the specified fraction of the way to its solution.
+		 */
+		void iterate(final double[] x, final double[] gx, Update update, double relaxation) {
+			if (update == Update.GAUSS_SEIDEL) {
+				System.arraycopy(x, 0, gx, 0, x.length);
+				double[] p = new double[3];
+				for (int v = 0; v < vertexCount; v++) {
+					for (int i = vertexStart[v]; i < vertexStart[v + 1]; i++) computePlane(gx, vertexFaces[i]);
+					int k = v * 3;
+					solveVertex(gx, v, p, 0);
+					gx[k] += (p[0] - gx[k]) * relaxation;
+					gx[k + 1] += (p[1] - gx[k + 1]) * relaxation;
+					gx[k + 2] += (p[2] - gx[k + 2]) * relaxation;
+				}
+			} else {
+				computePlanes(x);
+				ParallelBuild.run(vertexCount, new ParallelBuild.Range() {
+					public void run(int start, int end) {
+						for (int v = start; v < end; v++) solveVertex(x, v, gx, v * 3);
 					}
+				});
+				if (relaxation != 1) {
+					for (int i = 0; i < x.length; i++) gx[i] = x[i] + (gx[i] - x[i]) * relaxation;
 				}
 			}
-			if (intersectionPoints.isEmpty()) continue;
-			Point3D intersectionPoint = Point3D.average(intersectionPoints);
-			double diff = intersectionPoint.distance(vertices.get(v.index));
-			if (diff > maxDifference) maxDifference = diff;
-			vertices.set(v.index, intersectionPoint);
 		}
-		return maxDifference;
+		
+		/** Returns the farthest distance between corresponding vertices. */
+		static double maxDistance(double[] a, double[] b) {
+			double max = 0;
+			for (int k = 0; k < a.length; k += 3) {
+				double dx = a[k] - b[k], dy = a[k + 1] - b[k + 1], dz = a[k + 2] - b[k + 2];
+				double d = dx * dx + dy * dy + dz * dz;
+				if (d > max) max = d;
+			}
+			return Math.sqrt(max);
+		}
 	}
 	
+	/**
+	 * Anderson acceleration of a fixed-point iteration x = G(x). Each step
+	 * mixes the last few iterates so as to minimize the combined residual
+	 * G(x) - x, and starts over whenever the residual grows.
+	 */
+	static final class Anderson {
+		private final int depth;
+		private final double beta;
+		private final double[][] dx;
+		private final double[][] df;
+		private final double[] prevX;
+		private final double[] prevF;
+		private final double[] f;
+		private double prevNorm = Double.POSITIVE_INFINITY;
+		private int count = 0;
+		private int next = 0;
+		
+		Anderson(int depth, double beta, int length) {
+			this.depth = depth;
+			this.beta = beta;
+			this.dx = new double[depth][length];
+			this.df = new double[depth][length];
+			this.prevX = new double[length];
+			this.prevF = new double[length];
+			this.f = new double[length];
+		}
+		
+		/** Forgets the previous iterates. */
+		void reset() {
+			prevNorm = Double.POSITIVE_INFINITY;
+			count = 0;
+			next = 0;
+		}
+		
+		/** Given x and G(x), stores the next iterate in x. */
+		void step(double[] x, double[] gx) {
+			int n = x.length;
+			double norm = 0;
+			for (int i = 0; i < n; i++) {
+				f[i] = gx[i] - x[i];
+				norm += f[i] * f[i];
+			}
+			if (norm > prevNorm) {
+				count = 0;
+				next = 0;
+			} else if (prevNorm != Double.POSITIVE_INFINITY) {
+				double[] sx = dx[next], sf = df[next];
+				for (int i = 0; i < n; i++) {
+					sx[i] = x[i] - prevX[i];
+					sf[i] = f[i] - prevF[i];
+				}
+				next = (next + 1) % depth;
+				if (count < depth) count++;
+			}
+			prevNorm = norm;
+			System.arraycopy(x, 0, prevX, 0, n);
+			System.arraycopy(f, 0, prevF, 0, n);
+			double[] gamma = solveGamma();
+			for (int i = 0; i < n; i++) x[i] += beta * f[i];
+			for (int j = 0; j < count; j++) {
+				if (gamma[j] == 0) continue;
+				double[] sx = dx[j], sf = df[j];
+				for (int i = 0; i < n; i++) x[i] -= gamma[j] * (sx[i] + beta * sf[i]);
+			}
+		}
+		
+		private double[] solveGamma() {
+			int m = count;
+			double[] gamma = new double[m];
+			if (m == 0) return gamma;
+			double[][] a = new double[m][m + 1];
+			double trace = 0;
+			for (int j = 0; j < m; j++) {
+				for (int k = j; k < m; k++) a[j][k] = a[k][j] = dot(df[j], df[k]);
+				a[j][m] = dot(df[j], f);
+				trace += a[j][j];
+			}
+			if (trace == 0) return gamma;
+			for (int j = 0; j < m; j++) a[j][j] += trace * 1e-12;
+			// Gaussian elimination with partial pivoting.
+			for (int c = 0; c < m; c++) {
+				int p = c;
+				for (int r = c + 1; r < m; r++) if (Math.abs(a[r][c]) > Math.abs(a[p][c])) p = r;
+				double[] t = a[c]; a[c] = a[p]; a[p] = t;
+				if (a[c][c] == 0) return new double[m];
+				for (int r = c + 1; r < m; r++) {
+					double s = a[r][c] / a[c][c];
+					for (int k = c; k <= m; k++) a[r][k] -= s * a[c][k];
+				}
+			}
+			for (int r = m - 1; r >= 0; r--) {
+				double s = a[r][m];
+				for (int k = r + 1; k < m; k++) s -= a[r][k] * gamma[k];
+				gamma[r] = s / a[r][r];
+			}
+			return gamma;
+		}
+		
+		private static double dot(double[] a, double[] b) {
+			double s = 0;
+			for (int i = 0; i < a.length; i++) s += a[i] * b[i];
+			return s;
+		}
+	}
+	
+	/** How much larger than its smallest so far a step may get before the iteration is considered to diverge. */
+	private static final double DIVERGENCE_FACTOR = 100;
+	
 	private final int maxIterations;
 	private final double maxDifference;
+	private final Update update;
+	private final double relaxation;
+	private final int andersonDepth;
 	
 	public PlanarizeFaces(int maxIterations, double maxDifference) {
+		this(maxIterations, maxDifference, Update.JACOBI, 1, 0);
+	}
+	
+	/**
+	 * @param relaxation the fraction of the way each vertex moves toward its
+	 * solution per iteration; values between 1 and 2 over-relax. With
+	 * Anderson acceleration this is the mixing parameter instead.
+	 * @param andersonDepth the number of previous iterates to mix, or 0 for
+	 * no Anderson acceleration.
+	 */
+	public PlanarizeFaces(int maxIterations, double maxDifference, Update update, double relaxation, int andersonDepth) {
 		this.maxIterations = (maxIterations > 0) ? maxIterations : Integer.MAX_VALUE;
 		this.maxDifference = (maxDifference > 0) ? maxDifference : 0;
+		this.update = (update != null) ? update : Update.JACOBI;
+		this.relaxation = (relaxation > 0) ? relaxation : 1;
+		this.andersonDepth = (andersonDepth > 0) ? andersonDepth : 0;
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		
-		for (Polyhedron.Vertex v : seed.vertices) vertices.add(v.point);
-		for (Polyhedron.Face f : seed.faces) {
-			List<Integer> face = new ArrayList<Integer>(f.vertices.size());
-			for (Polyhedron.Vertex v : f.vertices) face.add(v.index);
-			faces.add(face);
-			faceColors.add(f.color);
-		}
+		return planarize(seed).polyhedron;
+	}
+	
+	public Result planarize(Polyhedron seed) {
+		Solver solver = new Solver(seed);
+		double[] seedCoords = seed.coords();
+		double[] x = seedCoords.clone();
+		double[] gx = new double[x.length];
+		double[] best = x.clone();
+		Anderson anderson = (andersonDepth > 0) ? new Anderson(andersonDepth, relaxation, x.length) : null;
+		Update update = this.update;
+		double relaxation = this.relaxation;
 		
 		int iterations = 0;
 		double difference = 0;
+		double minDifference = Double.POSITIVE_INFINITY;
+		boolean converged = false;
 		while (iterations < maxIterations) {
 			iterations++;
-			difference = planarizeFaces(seed, vertices);
-			if (difference <= maxDifference) break;
+			solver.iterate(x, gx, update, (anderson != null) ? 1 : relaxation);
+			difference = Solver.maxDistance(x, gx);
+			// Gauss-Seidel and acceleration can overshoot on badly shaped
+			// seeds. If the iteration starts running away, start over from
+			// the seed with plain Jacobi updates. If those run away too, stop
+			// at the best iterate so far.
+			if (!(difference <= minDifference * DIVERGENCE_FACTOR)) {
+				if (update == Update.JACOBI && relaxation == 1 && anderson == null) {
+					System.arraycopy(best, 0, x, 0, x.length);
+					break;
+				}
+				System.arraycopy(seedCoords, 0, x, 0, x.length);
+				update = Update.JACOBI;
+				relaxation = 1;
+				anderson = null;
+				minDifference = Double.POSITIVE_INFINITY;
+				continue;
+			}
+			if (difference < minDifference) {
+				minDifference = difference;
+				System.arraycopy(x, 0, best, 0, x.length);
+			}
+			if (difference <= maxDifference || anderson == null) {
+				double[] t = x; x = gx; gx = t;
+			} else {
+				anderson.step(x, gx);
+			}
+			if (difference <= maxDifference) {
+				converged = true;
+				break;
+			}
+		}
+		if (!converged && minDifference < difference) {
+			x = best;
+			difference = minDifference;
 		}
 		
-		System.err.println("PlanarizeFaces: n=" + iterations + ", delta=" + difference);
-		return new Polyhedron(vertices, faces, faceColors);
+		return new Result(new Polyhedron(seed, x, false), iterations, difference, converged);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<PlanarizeFaces> {
@@ -107,7 +424,10 @@ public class PlanarizeFaces extends PolyhedronOp {
 		
 		public PlanarizeFaces parse(String[] args) {
 			int maxIterations = 100;
-			double maxDifference = 1e-15;
+			double maxDifference = 1e-12;
+			Update update = Update.JACOBI;
+			double relaxation = 1;
+			int andersonDepth = 0;
 			int argi = 0;
 			while (argi < args.length) {
 				String arg = args[argi++];
@@ -115,17 +435,29 @@ public class PlanarizeFaces extends PolyhedronOp {
 					maxIterations = parseInt(args[argi++], maxIterations);
 				} else if (arg.equals("-e") && argi < args.length) {
 					maxDifference = parseDouble(args[argi++], maxDifference);
+				} else if (arg.equals("-j")) {
+					update = Update.JACOBI;
+				} else if (arg.equals("-g")) {
+					update = Update.GAUSS_SEIDEL;
+				} else if (arg.equals("-w") && argi < args.length) {
+					relaxation = parseDouble(args[argi++], relaxation);
+				} else if (arg.equals("-a") && argi < args.length) {
+					andersonDepth = parseInt(args[argi++], andersonDepth);
 				} else {
 					return null;
 				}
 			}
-			return new PlanarizeFaces(maxIterations, maxDifference);
+			return new PlanarizeFaces(maxIterations, maxDifference, update, relaxation, andersonDepth);
 		}
 		
 		public Option[] options() {
 			return new Option[] {
 				new Option("n", Type.INT, "maximum number of iterations (default 100)"),
-				new Option("e", Type.REAL, "maximum difference in vertex locations (default 10^-15)")
+				new Option("e", Type.REAL, "maximum difference in vertex locations (default 10^-12)"),
+				new Option("j", Type.VOID, "move all vertices at once, in parallel (default)", "g"),
+				new Option("g", Type.VOID, "move one vertex at a time (Gauss-Seidel)", "j"),
+				new Option("w", Type.REAL, "relaxation factor; between 1 and 2 to over-relax (default 1)"),
+				new Option("a", Type.INT, "number of previous iterations to mix for Anderson acceleration (default 0)")
 			};
 		}
 	}
@@ -10,7 +10,6 @@ import java.util.TreeMap;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.Polyhedron.Face;
-import com.kreative.polyhedra.Polyhedron.Vertex;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Recolor extends PolyhedronOp {
@@ -351,7 +350,7 @@ public class Recolor extends PolyhedronOp {
 	}
 	
 	public Color getFaceColor(Face face, double epsilon) {
-		Color color = face.color;
+		Color color = face.color();
 		for (Map.Entry<Classifier,Color> e : colorMap.entrySet()) {
 			if (e.getKey().matches(face, epsilon)) {
 				color = e.getValue();
@@ -361,17 +360,9 @@ public class Recolor extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
 		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		for (Vertex vertex : seed.vertices) vertices.add(vertex.point);
-		for (Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Vertex v : face.vertices) indices.add(v.index);
-			faces.add(indices);
-			faceColors.add(getFaceColor(face, 1e-10));
-		}
-		return new Polyhedron(vertices, faces, faceColors);
+		for (Face face : seed.faces) faceColors.add(getFaceColor(face, 1e-10));
+		return new Polyhedron(seed, faceColors);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Recolor> {
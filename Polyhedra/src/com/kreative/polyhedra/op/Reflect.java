@@ -1,29 +1,19 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import com.kreative.polyhedra.AffineTransform3D;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Reflect extends PolyhedronOp {
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			vertices.add(vertex.point.negate());
-		}
-		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Polyhedron.Vertex v : face.vertices) indices.add(v.index);
-			Collections.reverse(indices);
-			faces.add(indices);
-			faceColors.add(face.color);
-		}
-		return new Polyhedron(vertices, faces, faceColors);
+		double[] coords = seed.coords();
+		for (int i = 0; i < coords.length; i++) coords[i] = -coords[i];
+		return new Polyhedron(seed, coords, true);
+	}
+	
+	public AffineTransform3D getAffineTransform(Point3D center) {
+		return AffineTransform3D.getScaleInstance(-1, -1, -1);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Reflect> {
@@ -22,9 +22,10 @@ public class RemoveFaces extends PolyhedronOp {
 		
 		// Get indices of vertices to be removed.
 		Set<Integer> indices = new HashSet<Integer>();
-		FacePredicate.reset(predicates, seed);
+		OpContext ctx = new OpContext(seed);
+		FacePredicate.reset(predicates, ctx);
 		for (Polyhedron.Face f : seed.faces) {
-			if (FacePredicate.matches(predicates, f)) {
+			if (FacePredicate.matches(predicates, ctx, f)) {
 				for (Polyhedron.Vertex v : f.vertices) {
 					indices.add(v.index);
 				}
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Set;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class RemoveVertices extends PolyhedronOp {
@@ -27,11 +28,12 @@ public class RemoveVertices extends PolyhedronOp {
 		
 		// Get indices of vertices to be removed.
 		Set<Integer> indices = new HashSet<Integer>();
-		VertexPredicate.reset(predicates, seed);
+		OpContext ctx = new OpContext(seed);
+		VertexPredicate.reset(predicates, ctx);
 		for (Polyhedron.Vertex v : seed.vertices) {
 			List<Polyhedron.Face> f = seed.getFaces(v);
 			List<Polyhedron.Edge> e = seed.getEdges(v);
-			if (VertexPredicate.matches(predicates, v, e, f)) {
+			if (VertexPredicate.matches(predicates, ctx, v, e, f)) {
 				indices.add(v.index);
 			}
 		}
@@ -40,13 +42,11 @@ public class RemoveVertices extends PolyhedronOp {
 	}
 	
 	public static Polyhedron removeVertices(Polyhedron seed, Set<Integer> indices, Color color) {
-		List<Point3D> vertices = new ArrayList<Point3D>();
-		List<List<Integer>> faces = new ArrayList<List<Integer>>();
-		List<Color> faceColors = new ArrayList<Color>();
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.vertices.size(), seed.faces.size());
 		
 		// Group together removed vertices that were once connected. (vertexGroupMap)
 		// Create map of old vertex indices to new vertex indices. (vertexIndexMap)
-		// Add retained vertices to new polyhedron. (vertices)
+		// Add retained vertices to new polyhedron. (b)
 		Map<Integer,Integer> vertexGroupMap = new HashMap<Integer,Integer>();
 		Map<Integer,Integer> vertexIndexMap = new HashMap<Integer,Integer>();
 		for (Polyhedron.Vertex v : seed.vertices) {
@@ -65,13 +65,12 @@ public class RemoveVertices extends PolyhedronOp {
 					}
 				}
 			} else {
-				vertexIndexMap.put(v.index, vertices.size());
-				vertices.add(v.point);
+				vertexIndexMap.put(v.index, b.addVertex(v.point));
 			}
 		}
 		
 		// Remember directed edges no longer connected by removed vertices. (disconnectedEdges)
-		// Recreate existing faces without removed vertices. (faces, faceColors)
+		// Recreate existing faces without removed vertices. (b)
 		Map<Integer,Map<Integer,Set<Integer>>> disconnectedEdges = new HashMap<Integer,Map<Integer,Set<Integer>>>();
 		for (Polyhedron.Face f : seed.faces) {
 			Map<Integer,Integer> disconnectedIndices = new HashMap<Integer,Integer>();
@@ -102,8 +101,9 @@ public class RemoveVertices extends PolyhedronOp {
 				}
 			}
 			if (n >= 3) {
-				faces.add(face);
-				faceColors.add(f.color);
+				b.beginFace();
+				for (int i : face) b.addIndex(i);
+				b.endFace(f.color());
 			}
 		}
 		
@@ -114,13 +114,14 @@ public class RemoveVertices extends PolyhedronOp {
 				List<Integer> prefix = Arrays.asList(iter.next());
 				List<Integer> face = findPath(edges, prefix);
 				if (face != null && face.size() >= 3) {
-					faces.add(face);
-					faceColors.add(color);
+					b.beginFace();
+					for (int i : face) b.addIndex(i);
+					b.endFace(color);
 				}
 			}
 		}
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	private static List<Integer> findPath(Map<Integer,Set<Integer>> edges, List<Integer> prefix) {
@@ -1,9 +1,7 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
@@ -120,21 +118,21 @@ public class Resize extends PolyhedronOp {
 		},
 		X_SIZE("X", Type.REAL, "scale along the x axis only to match the specified length") {
 			public boolean resize(Polyhedron seed, List<Point3D> points, Object arg) {
-				double current = MetricAggregator.RANGE.aggregate(Metric.X_POSITION.iterator(seed, seed.center()));
+				double current = MetricAggregator.RANGE.aggregate(Metric.X_POSITION, seed, seed.center());
 				double size = (arg instanceof Number) ? ((Number)arg).doubleValue() : 1;
 				return current != 0 && current != size && resizeUnsafe(points, Point3D.average(points), size / current, 1, 1);
 			}
 		},
 		Y_SIZE("Y", Type.REAL, "scale along the y axis only to match the specified length") {
 			public boolean resize(Polyhedron seed, List<Point3D> points, Object arg) {
-				double current = MetricAggregator.RANGE.aggregate(Metric.Y_POSITION.iterator(seed, seed.center()));
+				double current = MetricAggregator.RANGE.aggregate(Metric.Y_POSITION, seed, seed.center());
 				double size = (arg instanceof Number) ? ((Number)arg).doubleValue() : 1;
 				return current != 0 && current != size && resizeUnsafe(points, Point3D.average(points), 1, size / current, 1);
 			}
 		},
 		Z_SIZE("Z", Type.REAL, "scale along the z axis only to match the specified length") {
 			public boolean resize(Polyhedron seed, List<Point3D> points, Object arg) {
-				double current = MetricAggregator.RANGE.aggregate(Metric.Z_POSITION.iterator(seed, seed.center()));
+				double current = MetricAggregator.RANGE.aggregate(Metric.Z_POSITION, seed, seed.center());
 				double size = (arg instanceof Number) ? ((Number)arg).doubleValue() : 1;
 				return current != 0 && current != size && resizeUnsafe(points, Point3D.average(points), 1, 1, size / current);
 			}
@@ -198,7 +196,7 @@ public class Resize extends PolyhedronOp {
 		}
 		
 		private static boolean resizeChecked(Polyhedron seed, List<Point3D> points, Object arg, MetricAggregator agg, Metric metric) {
-			double current = agg.aggregate(metric.iterator(seed, seed.center()));
+			double current = agg.aggregate(metric, seed, seed.center());
 			double size = (arg instanceof Number) ? ((Number)arg).doubleValue() : 1;
 			return current != 0 && current != size && resizeUnsafe(points, Point3D.average(points), size / current);
 		}
@@ -227,19 +225,9 @@ public class Resize extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		for (Polyhedron.Vertex vertex : seed.vertices) vertices.add(vertex.point);
+		List<Point3D> vertices = seed.points();
 		boolean reverse = mode.resize(seed, vertices, argument);
-		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Polyhedron.Vertex v : face.vertices) indices.add(v.index);
-			if (reverse) Collections.reverse(indices);
-			faces.add(indices);
-			faceColors.add(face.color);
-		}
-		return new Polyhedron(vertices, faces, faceColors);
+		return new Polyhedron(seed, vertices, reverse);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Resize> {
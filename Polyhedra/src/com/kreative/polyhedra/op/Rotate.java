@@ -3,6 +3,7 @@ package com.kreative.polyhedra.op;
 import java.util.ArrayList;
 import java.util.List;
 import com.kreative.polyhedra.AffineTransform3D;
+import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronOp;
 
@@ -51,6 +52,10 @@ public class Rotate extends PolyhedronOp {
 		return new Polyhedron(seed, tx);
 	}
 	
+	public AffineTransform3D getAffineTransform(Point3D center) {
+		return tx;
+	}
+	
 	public static class Factory extends PolyhedronOp.Factory<Rotate> {
 		public String name() { return "Rotate"; }
 		
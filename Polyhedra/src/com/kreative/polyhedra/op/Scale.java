@@ -1,9 +1,6 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import com.kreative.polyhedra.AffineTransform3D;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronOp;
@@ -29,23 +26,17 @@ public class Scale extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			double x = vertex.point.getX() * sx;
-			double y = vertex.point.getY() * sy;
-			double z = vertex.point.getZ() * sz;
-			vertices.add(new Point3D(x, y, z));
+		double[] coords = seed.coords();
+		for (int i = 0; i < coords.length; i += 3) {
+			coords[i] *= sx;
+			coords[i + 1] *= sy;
+			coords[i + 2] *= sz;
 		}
-		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Polyhedron.Vertex v : face.vertices) indices.add(v.index);
-			if (reverse) Collections.reverse(indices);
-			faces.add(indices);
-			faceColors.add(face.color);
-		}
-		return new Polyhedron(vertices, faces, faceColors);
+		return new Polyhedron(seed, coords, reverse);
+	}
+	
+	public AffineTransform3D getAffineTransform(Point3D center) {
+		return AffineTransform3D.getScaleInstance(sx, sy, sz);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Scale> {
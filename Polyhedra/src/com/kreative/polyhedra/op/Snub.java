@@ -1,15 +1,15 @@
 package com.kreative.polyhedra.op;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import com.kreative.polyhedra.HalfEdgeMesh;
 import com.kreative.polyhedra.Metric;
 import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MutablePoint3D;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Snub extends PolyhedronOp {
@@ -23,62 +23,79 @@ public class Snub extends PolyhedronOp {
 		this.color = color;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.edges.size() * 2);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>();
-		List<Color> faceColors = new ArrayList<Color>();
+	public Polyhedron op(final Polyhedron seed) {
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.edges.size() * 2, seed.edges.size() * 2);
 		
-		List<Point3D> seedVertices = seed.points();
-		gvgen.reset(seed, seedVertices);
-		evgen.reset(seed, seedVertices);
+		final OpContext ctx = new OpContext(seed);
+		gvgen.reset(ctx);
+		evgen.reset(ctx);
 		
-		Map<Integer,Integer> edgeStartIndexMap = new HashMap<Integer,Integer>();
-		Map<Integer,List<Point3D>> faceVertexMap = new HashMap<Integer,List<Point3D>>();
-		for (Polyhedron.Face f : seed.faces) {
-			edgeStartIndexMap.put(f.index, vertices.size());
-			List<Point3D> fv = f.points();
-			faceVertexMap.put(f.index, fv);
-			List<Integer> faceVertexIndices = new ArrayList<Integer>(f.edges.size());
-			for (Polyhedron.Edge e : f.edges) {
-				faceVertexIndices.add(vertices.size());
-				Point3D v = gvgen.createVertex(f, fv, e, e.vertex1.point);
-				vertices.add(evgen.createVertex(f, fv, e, v));
-			}
-			faces.add(faceVertexIndices);
-			faceColors.add(f.color);
+		final int[] edgeStartIndexMap = new int[seed.faces.size()];
+		for (int fi = 0, vi = b.vertexCount(); fi < edgeStartIndexMap.length; fi++) {
+			edgeStartIndexMap[fi] = vi;
+			vi += seed.faces.get(fi).edges.size();
 		}
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				MutablePoint3D v = new MutablePoint3D();
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face f = seed.faces.get(fi);
+					List<Point3D> fv = f.points();
+					int vi = edgeStartIndexMap[fi];
+					b.beginFace();
+					for (Polyhedron.Edge e : f.edges) {
+						gvgen.createVertex(ctx, f, fv, e, e.vertex1.point, v);
+						evgen.createVertex(ctx, f, fv, e, v);
+						b.addVertex(v);
+						b.addIndex(vi++);
+					}
+					b.endFace(f.color());
+				}
+			}
+		});
 		
-		for (Polyhedron.Face f : seed.faces) {
-			int edgeStartIndex = edgeStartIndexMap.get(f.index);
-			for (int i = 0, n = f.vertices.size(); i < n; i++) {
-				int nei = edgeStartIndex + i;
-				int pei = edgeStartIndex + ((i + n - 1) % n);
-				Polyhedron.Edge prevEdge = f.edges.get((i + n - 1) % n);
-				for (Polyhedron.Face af : seed.getOppositeFaces(prevEdge, f)) {
-					int afesi = edgeStartIndexMap.get(af.index);
-					int afei = afesi + af.edges.indexOf(prevEdge);
-					faces.add(Arrays.asList(pei, afei, nei));
-					faceColors.add(f.color);
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face f = seed.faces.get(fi);
+					int edgeStartIndex = edgeStartIndexMap[fi];
+					for (int i = 0, n = f.vertices.size(); i < n; i++) {
+						int nei = edgeStartIndex + i;
+						int pei = edgeStartIndex + ((i + n - 1) % n);
+						Polyhedron.Edge prevEdge = f.edges.get((i + n - 1) % n);
+						for (Polyhedron.Face af : seed.getOppositeFaces(prevEdge, f)) {
+							int afesi = edgeStartIndexMap[af.index];
+							int afei = afesi + af.edges.indexOf(prevEdge);
+							b.beginFace();
+							b.addIndex(pei);
+							b.addIndex(afei);
+							b.addIndex(nei);
+							b.endFace(f.color());
+						}
+					}
 				}
 			}
-		}
+		});
 		
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			List<Polyhedron.Face> seedFaces = seed.getFaces(vertex);
-			while (!seedFaces.isEmpty()) {
-				List<Integer> truncatedFace = new ArrayList<Integer>();
-				for (Polyhedron.Face seedFace : seed.getOrderedFaces(vertex, seedFaces)) {
-					int sfesi = edgeStartIndexMap.get(seedFace.index);
-					int sfei = sfesi + seedFace.vertices.indexOf(vertex);
-					truncatedFace.add(sfei);
-					seedFaces.remove(seedFace);
+		final HalfEdgeMesh mesh = seed.getHalfEdgeMesh();
+		ParallelBuild.build(b, seed.vertices.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				Polyhedron.Fans fans = new Polyhedron.Fans();
+				for (int vi = start; vi < end; vi++) {
+					seed.getFaceFans(seed.vertices.get(vi), fans);
+					for (int f = 0; f < fans.count(); f++) {
+						b.beginFace();
+						for (int j = fans.start(f); j < fans.end(f); j++) {
+							int h = fans.get(j);
+							b.addIndex(edgeStartIndexMap[mesh.face(h)] + mesh.corner(h));
+						}
+						b.endFace(color);
+					}
 				}
-				faces.add(truncatedFace);
-				faceColors.add(color);
 			}
-		}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Snub> {
@@ -1,8 +1,6 @@
 package com.kreative.polyhedra.op;
 
-import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
+import com.kreative.polyhedra.AffineTransform3D;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.PolyhedronOp;
@@ -19,22 +17,17 @@ public class Translate extends PolyhedronOp {
 	}
 	
 	public Polyhedron op(Polyhedron seed) {
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.vertices.size());
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(seed.faces.size());
-		List<Color> faceColors = new ArrayList<Color>(seed.faces.size());
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			double x = vertex.point.getX() + tx;
-			double y = vertex.point.getY() + ty;
-			double z = vertex.point.getZ() + tz;
-			vertices.add(new Point3D(x, y, z));
+		double[] coords = seed.coords();
+		for (int i = 0; i < coords.length; i += 3) {
+			coords[i] += tx;
+			coords[i + 1] += ty;
+			coords[i + 2] += tz;
 		}
-		for (Polyhedron.Face face : seed.faces) {
-			List<Integer> indices = new ArrayList<Integer>(face.vertices.size());
-			for (Polyhedron.Vertex v : face.vertices) indices.add(v.index);
-			faces.add(indices);
-			faceColors.add(face.color);
-		}
-		return new Polyhedron(vertices, faces, faceColors);
+		return new Polyhedron(seed, coords, false);
+	}
+	
+	public AffineTransform3D getAffineTransform(Point3D center) {
+		return AffineTransform3D.getTranslateInstance(tx, ty, tz);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Translate> {
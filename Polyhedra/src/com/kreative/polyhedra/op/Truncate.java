@@ -3,14 +3,15 @@ package com.kreative.polyhedra.op;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import com.kreative.polyhedra.MutablePoint3D;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.Polyhedron.Edge;
 import com.kreative.polyhedra.Polyhedron.Face;
 import com.kreative.polyhedra.Polyhedron.Vertex;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Truncate extends PolyhedronOp {
@@ -38,96 +39,77 @@ public class Truncate extends PolyhedronOp {
 	
 	public static enum TruncatedVertexGen {
 		FIXED_DISTANCE_FROM_VERTEX {
-			public List<TruncatedVertex> createVertices(
+			public void createVertices(
 				List<Edge> seedEdges,
 				Vertex seedVertex,
-				double size
+				double size,
+				double[] dst
 			) {
-				List<Point3D> points = new ArrayList<Point3D>(seedEdges.size());
-				for (Edge seedEdge : seedEdges) {
-					Vertex v = seedEdge.oppositeVertex(seedVertex);
-					if (v != null) points.add(v.point);
-				}
-				Point3D vertexVector = Point3D.average(points).subtract(seedVertex.point).normalize(size);
-				List<TruncatedVertex> tvs = new ArrayList<TruncatedVertex>(seedEdges.size());
-				for (Edge seedEdge : seedEdges) {
-					Vertex v = seedEdge.oppositeVertex(seedVertex); if (v == null) continue;
-					Point3D seedEdgeVector = v.point.subtract(seedVertex.point);
-					double a = vertexVector.angleRad(seedEdgeVector);
+				MutablePoint3D vertexVector = averageOpposite(seedEdges, seedVertex).subtract(seedVertex.point).normalize(size);
+				MutablePoint3D tv = new MutablePoint3D();
+				for (int i = 0, n = seedEdges.size(); i < n; i++) {
+					Vertex v = seedEdges.get(i).oppositeVertex(seedVertex); if (v == null) continue;
+					tv.set(v.point).subtract(seedVertex.point);
+					double a = vertexVector.angleRad(tv.getX(), tv.getY(), tv.getZ());
 					double h = vertexVector.magnitude() / Math.cos(a);
-					Point3D truncatedEdgeVector = seedEdgeVector.normalize(h);
-					Point3D truncatedVertex = truncatedEdgeVector.add(seedVertex.point);
-					tvs.add(new TruncatedVertex(seedVertex, seedEdge, truncatedVertex));
+					put(dst, i, tv.normalize(h).add(seedVertex.point));
 				}
-				return tvs;
 			}
 		},
 		RELATIVE_DISTANCE_FROM_VERTEX {
-			public List<TruncatedVertex> createVertices(
+			public void createVertices(
 				List<Edge> seedEdges,
 				Vertex seedVertex,
-				double size
+				double size,
+				double[] dst
 			) {
-				List<Point3D> points = new ArrayList<Point3D>(seedEdges.size());
-				for (Edge seedEdge : seedEdges) {
-					Vertex v = seedEdge.oppositeVertex(seedVertex);
-					if (v != null) points.add(v.point);
-				}
-				Point3D vertexVector = Point3D.average(points).subtract(seedVertex.point).multiply(size);
-				List<TruncatedVertex> tvs = new ArrayList<TruncatedVertex>(seedEdges.size());
-				for (Edge seedEdge : seedEdges) {
-					Vertex v = seedEdge.oppositeVertex(seedVertex); if (v == null) continue;
-					Point3D seedEdgeVector = v.point.subtract(seedVertex.point);
-					double a = vertexVector.angleRad(seedEdgeVector);
+				MutablePoint3D vertexVector = averageOpposite(seedEdges, seedVertex).subtract(seedVertex.point).multiply(size);
+				MutablePoint3D tv = new MutablePoint3D();
+				for (int i = 0, n = seedEdges.size(); i < n; i++) {
+					Vertex v = seedEdges.get(i).oppositeVertex(seedVertex); if (v == null) continue;
+					tv.set(v.point).subtract(seedVertex.point);
+					double a = vertexVector.angleRad(tv.getX(), tv.getY(), tv.getZ());
 					double h = vertexVector.magnitude() / Math.cos(a);
-					Point3D truncatedEdgeVector = seedEdgeVector.normalize(h);
-					Point3D truncatedVertex = truncatedEdgeVector.add(seedVertex.point);
-					tvs.add(new TruncatedVertex(seedVertex, seedEdge, truncatedVertex));
+					put(dst, i, tv.normalize(h).add(seedVertex.point));
 				}
-				return tvs;
 			}
 		},
 		FIXED_DISTANCE_ALONG_EDGE {
-			public List<TruncatedVertex> createVertices(
+			public void createVertices(
 				List<Edge> seedEdges,
 				Vertex seedVertex,
-				double size
+				double size,
+				double[] dst
 			) {
-				List<TruncatedVertex> tvs = new ArrayList<TruncatedVertex>(seedEdges.size());
-				for (Edge seedEdge : seedEdges) {
-					Vertex v = seedEdge.oppositeVertex(seedVertex); if (v == null) continue;
-					Point3D seedEdgeVector = v.point.subtract(seedVertex.point);
-					Point3D truncatedEdgeVector = seedEdgeVector.normalize(size);
-					Point3D truncatedVertex = truncatedEdgeVector.add(seedVertex.point);
-					tvs.add(new TruncatedVertex(seedVertex, seedEdge, truncatedVertex));
+				MutablePoint3D tv = new MutablePoint3D();
+				for (int i = 0, n = seedEdges.size(); i < n; i++) {
+					Vertex v = seedEdges.get(i).oppositeVertex(seedVertex); if (v == null) continue;
+					put(dst, i, tv.set(v.point).subtract(seedVertex.point).normalize(size).add(seedVertex.point));
 				}
-				return tvs;
 			}
 		},
 		RELATIVE_DISTANCE_ALONG_EDGE {
-			public List<TruncatedVertex> createVertices(
+			public void createVertices(
 				List<Edge> seedEdges,
 				Vertex seedVertex,
-				double size
+				double size,
+				double[] dst
 			) {
-				List<TruncatedVertex> tvs = new ArrayList<TruncatedVertex>(seedEdges.size());
-				for (Edge seedEdge : seedEdges) {
-					Vertex v = seedEdge.oppositeVertex(seedVertex); if (v == null) continue;
-					Point3D seedEdgeVector = v.point.subtract(seedVertex.point);
-					Point3D truncatedEdgeVector = seedEdgeVector.multiply(size);
-					Point3D truncatedVertex = truncatedEdgeVector.add(seedVertex.point);
-					tvs.add(new TruncatedVertex(seedVertex, seedEdge, truncatedVertex));
+				MutablePoint3D tv = new MutablePoint3D();
+				for (int i = 0, n = seedEdges.size(); i < n; i++) {
+					Vertex v = seedEdges.get(i).oppositeVertex(seedVertex); if (v == null) continue;
+					put(dst, i, tv.set(v.point).subtract(seedVertex.point).multiply(size).add(seedVertex.point));
 				}
-				return tvs;
 			}
 		},
 		REGULAR {
-			public List<TruncatedVertex> createVertices(
+			public void createVertices(
 				List<Edge> seedEdges,
 				Vertex seedVertex,
-				double size
+				double size,
+				double[] dst
 			) {
-				List<TruncatedVertex> tvs = new ArrayList<TruncatedVertex>(seedEdges.size());
+				MutablePoint3D tv = new MutablePoint3D();
 				for (int i = 0, n = seedEdges.size(); i < n; i++) {
 					Vertex cv = seedEdges.get(i).oppositeVertex(seedVertex); if (cv == null) continue;
 					Vertex pv = seedEdges.get((i + n - 1) % n).oppositeVertex(seedVertex);
@@ -137,19 +119,57 @@ public class Truncate extends PolyhedronOp {
 					double ps = (pv != null) ? (1 / (2 + 2 * Math.sin(pa / 2))) : 0;
 					double ns = (nv != null) ? (1 / (2 + 2 * Math.sin(na / 2))) : 0;
 					size = (ps == 0) ? ns : (ns == 0) ? ps : ((ps + ns) / 2);
-					Point3D seedEdgeVector = cv.point.subtract(seedVertex.point);
-					Point3D truncatedEdgeVector = seedEdgeVector.multiply(size);
-					Point3D truncatedVertex = truncatedEdgeVector.add(seedVertex.point);
-					tvs.add(new TruncatedVertex(seedVertex, seedEdges.get(i), truncatedVertex));
+					put(dst, i, tv.set(cv.point).subtract(seedVertex.point).multiply(size).add(seedVertex.point));
 				}
-				return tvs;
 			}
 		};
-		public abstract List<TruncatedVertex> createVertices(
+		/**
+		 * Stores the truncated vertex for each seed edge in <code>dst</code>
+		 * as x, y, z triples, in the same order as <code>seedEdges</code>.
+		 * The entry for an edge that does not meet the seed vertex is left unchanged.
+		 */
+		public abstract void createVertices(
 			List<Edge> seedEdges,
 			Vertex seedVertex,
-			double size
+			double size,
+			double[] dst
 		);
+		public List<TruncatedVertex> createVertices(
+			List<Edge> seedEdges,
+			Vertex seedVertex,
+			double size
+		) {
+			double[] coords = new double[seedEdges.size() * 3];
+			createVertices(seedEdges, seedVertex, size, coords);
+			List<TruncatedVertex> tvs = new ArrayList<TruncatedVertex>(seedEdges.size());
+			for (int i = 0, j = 0, n = seedEdges.size(); i < n; i++, j += 3) {
+				Edge seedEdge = seedEdges.get(i);
+				if (seedEdge.oppositeVertex(seedVertex) == null) continue;
+				Point3D tv = new Point3D(coords[j], coords[j + 1], coords[j + 2]);
+				tvs.add(new TruncatedVertex(seedVertex, seedEdge, tv));
+			}
+			return tvs;
+		}
+		private static MutablePoint3D averageOpposite(List<Edge> seedEdges, Vertex seedVertex) {
+			double x = 0, y = 0, z = 0;
+			int count = 0;
+			for (Edge seedEdge : seedEdges) {
+				Vertex v = seedEdge.oppositeVertex(seedVertex);
+				if (v != null) {
+					x += v.point.getX();
+					y += v.point.getY();
+					z += v.point.getZ();
+					count++;
+				}
+			}
+			if (count == 0) return new MutablePoint3D();
+			return new MutablePoint3D(x / count, y / count, z / count);
+		}
+		private static void put(double[] dst, int i, MutablePoint3D p) {
+			dst[i * 3] = p.getX();
+			dst[i * 3 + 1] = p.getY();
+			dst[i * 3 + 2] = p.getZ();
+		}
 	}
 	
 	private final List<? extends VertexPredicate> predicates;
@@ -164,55 +184,90 @@ public class Truncate extends PolyhedronOp {
 		this.color = color;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
+	public Polyhedron op(final Polyhedron seed) {
 		int vfSize = seed.vertices.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.edges.size() * 2);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(vfSize);
-		List<Color> faceColors = new ArrayList<Color>(vfSize);
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.edges.size() * 2, vfSize);
 		
-		Map<Vertex,Map<Edge,Integer>> vertexEdgeMap = new HashMap<Vertex,Map<Edge,Integer>>();
-		VertexPredicate.reset(predicates, seed);
-		for (Vertex vertex : seed.vertices) {
-			List<Face> seedFaces = seed.getFaces(vertex);
+		// Predicates may depend on the order they are called in, so match
+		// serially, and count the new vertices at each seed vertex.
+		final boolean[] matched = new boolean[seed.vertices.size()];
+		final int[] vertexStart = new int[seed.vertices.size()];
+		final OpContext ctx = new OpContext(seed);
+		VertexPredicate.reset(predicates, ctx);
+		for (int vi = 0, vc = 0; vi < matched.length; vi++) {
+			Vertex vertex = seed.vertices.get(vi);
 			List<Edge> seedEdges = seed.getEdges(vertex);
-			if (VertexPredicate.matches(predicates, vertex, seedEdges, seedFaces)) {
-				Map<Edge,Integer> edgeMap = new HashMap<Edge,Integer>();
-				for (TruncatedVertex tv : gen.createVertices(seedEdges, vertex, size)) {
-					edgeMap.put(tv.seedEdge, vertices.size());
-					vertices.add(tv.truncatedVertex);
-				}
-				vertexEdgeMap.put(vertex, edgeMap);
-				while (!seedEdges.isEmpty()) {
-					List<Integer> truncatedFace = new ArrayList<Integer>();
-					for (Polyhedron.Edge seedEdge : seed.getOrderedEdges(vertex, seedEdges, seedFaces)) {
-						truncatedFace.add(edgeMap.get(seedEdge));
-						seedEdges.remove(seedEdge);
-					}
-					faces.add(truncatedFace);
-					faceColors.add(color);
+			List<Face> seedFaces = (predicates == null || predicates.isEmpty()) ? null : seed.getFaces(vertex);
+			matched[vi] = VertexPredicate.matches(predicates, ctx, vertex, seedEdges, seedFaces);
+			vertexStart[vi] = vc;
+			if (matched[vi]) {
+				for (Edge seedEdge : seedEdges) {
+					if (seedEdge.oppositeVertex(vertex) != null) vc++;
 				}
 			} else {
-				Map<Edge,Integer> edgeMap = new HashMap<Edge,Integer>();
-				for (Edge edge : seedEdges) edgeMap.put(edge, vertices.size());
-				vertices.add(vertex.point);
-				vertexEdgeMap.put(vertex, edgeMap);
+				vc++;
 			}
 		}
 		
-		for (Face face : seed.faces) {
-			List<Integer> truncatedFace = new ArrayList<Integer>();
-			for (int i = 0, n = face.vertices.size(); i < n; i++) {
-				Map<Edge,Integer> edgeMap = vertexEdgeMap.get(face.vertices.get(i));
-				int pei = edgeMap.get(face.edges.get((i + n - 1) % n));
-				int nei = edgeMap.get(face.edges.get(i));
-				if (pei != nei) truncatedFace.add(pei);
-				truncatedFace.add(nei);
+		// The new vertex at each end of each seed edge, indexed by edgeEnd().
+		// Each end is only ever touched by the vertex it is at.
+		final int[] edgeVertex = new int[seed.edges.size() * 2];
+		ParallelBuild.build(b, seed.vertices.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				double[] tvs = new double[0];
+				Polyhedron.Fans fans = new Polyhedron.Fans();
+				for (int vi = start; vi < end; vi++) {
+					Vertex vertex = seed.vertices.get(vi);
+					List<Edge> seedEdges = seed.getEdges(vertex);
+					if (matched[vi]) {
+						if (tvs.length < seedEdges.size() * 3) tvs = new double[seedEdges.size() * 3];
+						gen.createVertices(seedEdges, vertex, size, tvs);
+						int k = vertexStart[vi];
+						for (int i = 0, j = 0, n = seedEdges.size(); i < n; i++, j += 3) {
+							Edge seedEdge = seedEdges.get(i);
+							if (seedEdge.oppositeVertex(vertex) == null) continue;
+							b.addVertex(tvs[j], tvs[j + 1], tvs[j + 2]);
+							edgeVertex[edgeEnd(seedEdge, vertex)] = k++;
+						}
+						seed.getEdgeFans(vertex, fans);
+						for (int f = 0; f < fans.count(); f++) {
+							b.beginFace();
+							for (int j = fans.start(f); j < fans.end(f); j++) {
+								b.addIndex(edgeVertex[edgeEnd(seed.edges.get(fans.get(j)), vertex)]);
+							}
+							b.endFace(color);
+						}
+					} else {
+						b.addVertex(vertex.point);
+						for (Edge edge : seedEdges) edgeVertex[edgeEnd(edge, vertex)] = vertexStart[vi];
+					}
+				}
 			}
-			faces.add(truncatedFace);
-			faceColors.add(face.color);
-		}
+		});
+		
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					Face face = seed.faces.get(fi);
+					b.beginFace();
+					for (int i = 0, n = face.vertices.size(); i < n; i++) {
+						Vertex vertex = face.vertices.get(i);
+						int pei = edgeVertex[edgeEnd(face.edges.get((i + n - 1) % n), vertex)];
+						int nei = edgeVertex[edgeEnd(face.edges.get(i), vertex)];
+						if (pei != nei) b.addIndex(pei);
+						b.addIndex(nei);
+					}
+					b.endFace(face.color());
+				}
+			}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
+	}
+	
+	private static int edgeEnd(Edge edge, Vertex vertex) {
+		Edge e = edge.parent.edges.get(edge.index);
+		return edge.index * 2 + ((e.vertex1.index == vertex.index) ? 0 : 1);
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Truncate> {
@@ -5,7 +5,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import com.kreative.polyhedra.Point3D;
-import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.Polyhedron.Edge;
 import com.kreative.polyhedra.Polyhedron.Face;
 import com.kreative.polyhedra.Polyhedron.Vertex;
@@ -13,8 +12,9 @@ import com.kreative.polyhedra.PolyhedronUtils.Option;
 import com.kreative.polyhedra.PolyhedronUtils.Type;
 
 public abstract class VertexPredicate {
-	public void reset(Polyhedron seed) {}
-	public abstract boolean matches(Vertex vertex, List<Edge> edges, List<Face> faces);
+	/** Computes anything that depends on the seed and stores it in the context. */
+	public void reset(OpContext ctx) {}
+	public abstract boolean matches(OpContext ctx, Vertex vertex, List<Edge> edges, List<Face> faces);
 	
 	public static final class Degree extends VertexPredicate {
 		private final Set<Integer> degrees;
@@ -26,7 +26,7 @@ public abstract class VertexPredicate {
 			this.degrees = new HashSet<Integer>();
 			for (int d : degrees) this.degrees.add(d);
 		}
-		public boolean matches(Vertex vertex, List<Edge> edges, List<Face> faces) {
+		public boolean matches(OpContext ctx, Vertex vertex, List<Edge> edges, List<Face> faces) {
 			if (edges == null) edges = vertex.parent.getEdges(vertex);
 			return degrees.contains(edges.size());
 		}
@@ -42,10 +42,12 @@ public abstract class VertexPredicate {
 			this.indices = new HashSet<Integer>();
 			for (int i : indices) this.indices.add(i);
 		}
-		private int currentIndex = 0;
-		public void reset(Polyhedron seed) { currentIndex = 0; }
-		public boolean matches(Vertex vertex, List<Edge> edges, List<Face> faces) {
-			return indices.contains(currentIndex++);
+		public void reset(OpContext ctx) {
+			ctx.put(this, new int[1]);
+		}
+		public boolean matches(OpContext ctx, Vertex vertex, List<Edge> edges, List<Face> faces) {
+			int[] currentIndex = (int[])ctx.get(this);
+			return indices.contains(currentIndex[0]++);
 		}
 	}
 	
@@ -59,28 +61,30 @@ public abstract class VertexPredicate {
 			this.angles = new HashSet<Number>();
 			for (Number a : angles) this.angles.add(a);
 		}
-		private Point3D center = null;
-		private final Set<Integer> indices = new HashSet<Integer>();
-		private final Set<Point3D> centers = new HashSet<Point3D>();
-		public void reset(Polyhedron seed) {
-			this.center = seed.center();
-			this.indices.clear();
-			this.centers.clear();
+		private static final class State {
+			private final Point3D center;
+			private final Set<Integer> indices = new HashSet<Integer>();
+			private final Set<Point3D> centers = new HashSet<Point3D>();
+			private State(Point3D center) { this.center = center; }
+		}
+		public void reset(OpContext ctx) {
+			ctx.put(this, new State(ctx.seed.center()));
 		}
-		public boolean matches(Vertex vertex, List<Edge> edges, List<Face> faces) {
-			if (indices.contains(vertex.index)) return true;
+		public boolean matches(OpContext ctx, Vertex vertex, List<Edge> edges, List<Face> faces) {
+			State state = (State)ctx.get(this);
+			if (state.indices.contains(vertex.index)) return true;
 			Point3D c1 = vertex.point;
-			for (Point3D c2 : centers) {
+			for (Point3D c2 : state.centers) {
 				boolean matches = false;
-				double angle = center.angle(c1, c2);
+				double angle = state.center.angle(c1, c2);
 				for (Number a : angles) {
 					double diff = Math.abs(angle - a.doubleValue());
 					if (diff < 1e-12) matches = true;
 				}
 				if (!matches) return false;
 			}
-			indices.add(vertex.index);
-			centers.add(c1);
+			state.indices.add(vertex.index);
+			state.centers.add(c1);
 			return true;
 		}
 	}
@@ -95,7 +99,7 @@ public abstract class VertexPredicate {
 			this.degrees = new HashSet<Integer>();
 			for (int d : degrees) this.degrees.add(d);
 		}
-		public boolean matches(Vertex vertex, List<Edge> edges, List<Face> faces) {
+		public boolean matches(OpContext ctx, Vertex vertex, List<Edge> edges, List<Face> faces) {
 			if (faces == null) faces = vertex.parent.getFaces(vertex);
 			for (Face face : faces) if (!degrees.contains(face.vertices.size())) return false;
 			return true;
@@ -150,12 +154,12 @@ public abstract class VertexPredicate {
 		}
 	}
 	
-	public static void reset(Collection<? extends VertexPredicate> c, Polyhedron seed) {
-		if (c != null) for (VertexPredicate p : c) p.reset(seed);
+	public static void reset(Collection<? extends VertexPredicate> c, OpContext ctx) {
+		if (c != null) for (VertexPredicate p : c) p.reset(ctx);
 	}
 	
-	public static boolean matches(Collection<? extends VertexPredicate> c, Vertex v, List<Edge> e, List<Face> f) {
-		if (c != null) for (VertexPredicate p : c) if (!p.matches(v, e, f)) return false;
+	public static boolean matches(Collection<? extends VertexPredicate> c, OpContext ctx, Vertex v, List<Edge> e, List<Face> f) {
+		if (c != null) for (VertexPredicate p : c) if (!p.matches(ctx, v, e, f)) return false;
 		return true;
 	}
 }
\ No newline at end of file
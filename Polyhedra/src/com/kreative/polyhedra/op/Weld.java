@@ -0,0 +1,68 @@
+package com.kreative.polyhedra.op;
+
+import com.kreative.polyhedra.PointSet;
+import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuffer;
+import com.kreative.polyhedra.PolyhedronBuilder;
+import com.kreative.polyhedra.PolyhedronOp;
+
+public class Weld extends PolyhedronOp {
+	private final double epsilon;
+	
+	public Weld() {
+		this.epsilon = PointSet.DEFAULT_EPSILON;
+	}
+	
+	public Weld(double epsilon) {
+		this.epsilon = epsilon;
+	}
+	
+	public Polyhedron op(Polyhedron seed) {
+		PointSet set = new PointSet(epsilon);
+		int[] map = new int[seed.vertices.size()];
+		for (Polyhedron.Vertex v : seed.vertices) map[v.index] = set.intern(v.point);
+		
+		PolyhedronBuilder b = new PolyhedronBuilder(set.size(), seed.faces.size());
+		for (int i = 0; i < set.size(); i++) b.addVertex(set.get(i));
+		int[] face = new int[8];
+		for (Polyhedron.Face f : seed.faces) {
+			int m = f.vertices.size();
+			if (face.length < m) face = new int[m];
+			for (int j = 0; j < m; j++) face[j] = f.vertices.get(j).index;
+			int n = PolyhedronBuffer.weldFace(face, 0, m, map, face, 0);
+			if (n == 0) continue;
+			b.beginFace();
+			for (int i = 0; i < n; i++) b.addIndex(face[i]);
+			b.endFace(f.color());
+		}
+		return b.build();
+	}
+	
+	public static class Factory extends PolyhedronOp.Factory<Weld> {
+		public String name() { return "Weld"; }
+		
+		public Weld parse(String[] args) {
+			double epsilon = PointSet.DEFAULT_EPSILON;
+			int argi = 0;
+			while (argi < args.length) {
+				String arg = args[argi++];
+				if (arg.equals("-e") && argi < args.length) {
+					epsilon = parseDouble(args[argi++], epsilon);
+				} else {
+					return null;
+				}
+			}
+			return new Weld(epsilon);
+		}
+		
+		public Option[] options() {
+			return new Option[] {
+				new Option("e", Type.REAL, "merge vertices within the specified distance")
+			};
+		}
+	}
+	
+	public static void main(String[] args) {
+		new Factory().main(args);
+	}
+}
\ No newline at end of file
@@ -2,11 +2,12 @@ package com.kreative.polyhedra.op;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import com.kreative.polyhedra.HalfEdgeMesh;
+import com.kreative.polyhedra.ParallelBuild;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuilder;
 import com.kreative.polyhedra.PolyhedronOp;
 
 public class Zip extends PolyhedronOp {
@@ -83,40 +84,51 @@ public class Zip extends PolyhedronOp {
 		this.color = color;
 	}
 	
-	public Polyhedron op(Polyhedron seed) {
+	public Polyhedron op(final Polyhedron seed) {
 		int vfSize = seed.vertices.size() + seed.faces.size();
-		List<Point3D> vertices = new ArrayList<Point3D>(seed.edges.size() * 2);
-		List<List<Integer>> faces = new ArrayList<List<Integer>>(vfSize);
-		List<Color> faceColors = new ArrayList<Color>(vfSize);
+		PolyhedronBuilder b = new PolyhedronBuilder(seed.edges.size() * 2, vfSize);
 		
-		Map<Polyhedron.Face,Integer> faceStartIndexMap = new HashMap<Polyhedron.Face,Integer>();
-		for (Polyhedron.Face face : seed.faces) {
-			int startIndex = vertices.size();
-			faceStartIndexMap.put(face, startIndex);
-			vertices.addAll(gen.createFace(face, face.center(), size));
-			int n = vertices.size() - startIndex;
-			List<Integer> zippedFace = new ArrayList<Integer>(n);
-			for (int i = 0; i < n; i++) zippedFace.add(startIndex++);
-			faces.add(zippedFace);
-			faceColors.add(face.color);
+		final int[] faceStartIndex = new int[seed.faces.size()];
+		for (int fi = 0, vi = b.vertexCount(); fi < faceStartIndex.length; fi++) {
+			faceStartIndex[fi] = vi;
+			vi += seed.faces.get(fi).edges.size();
 		}
+		ParallelBuild.build(b, seed.faces.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				for (int fi = start; fi < end; fi++) {
+					Polyhedron.Face face = seed.faces.get(fi);
+					int vi = faceStartIndex[fi];
+					b.beginFace();
+					for (Point3D p : gen.createFace(face, face.center(), size)) {
+						b.addVertex(p);
+						b.addIndex(vi++);
+					}
+					b.endFace(face.color());
+				}
+			}
+		});
 		
-		for (Polyhedron.Vertex vertex : seed.vertices) {
-			List<Polyhedron.Face> seedFaces = seed.getFaces(vertex);
-			while (!seedFaces.isEmpty()) {
-				List<Integer> zippedFace = new ArrayList<Integer>();
-				for (Polyhedron.Face seedFace : seed.getOrderedFaces(vertex, seedFaces)) {
-					int i = faceStartIndexMap.get(seedFace), n = seedFace.vertices.size();
-					zippedFace.add(i + seedFace.vertices.indexOf(vertex));
-					zippedFace.add(i + (seedFace.vertices.indexOf(vertex) + n - 1) % n);
-					seedFaces.remove(seedFace);
+		final HalfEdgeMesh mesh = seed.getHalfEdgeMesh();
+		ParallelBuild.build(b, seed.vertices.size(), new ParallelBuild.Block() {
+			public void build(PolyhedronBuilder b, int start, int end) {
+				Polyhedron.Fans fans = new Polyhedron.Fans();
+				for (int vi = start; vi < end; vi++) {
+					seed.getFaceFans(seed.vertices.get(vi), fans);
+					for (int f = 0; f < fans.count(); f++) {
+						b.beginFace();
+						for (int j = fans.start(f); j < fans.end(f); j++) {
+							int h = fans.get(j);
+							int i = faceStartIndex[mesh.face(h)], n = mesh.faceSize(mesh.face(h));
+							b.addIndex(i + mesh.corner(h));
+							b.addIndex(i + (mesh.corner(h) + n - 1) % n);
+						}
+						b.endFace(color);
+					}
 				}
-				faces.add(zippedFace);
-				faceColors.add(color);
 			}
-		}
+		});
 		
-		return new Polyhedron(vertices, faces, faceColors);
+		return b.build();
 	}
 	
 	public static class Factory extends PolyhedronOp.Factory<Zip> {
@@ -0,0 +1,128 @@
+package com.kreative.polyhedra.test;
+
+import java.util.Random;
+import com.kreative.polyhedra.Point3D;
+import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.gen.Construct;
+import com.kreative.polyhedra.op.Canonicalize;
+import com.kreative.polyhedra.op.PlanarizeFaces;
+
+public class CanonicalizeTest {
+	private static final double TOLERANCE = 1E-8;
+	
+	private static Polyhedron construct(String s) {
+		return new Construct.Factory().parse(new String[] { s }).gen();
+	}
+	
+	/** Moves every vertex a small random distance, so that faces of more than three sides are no longer planar. */
+	private static Polyhedron jitter(Polyhedron p, Random random) {
+		double[] coords = p.coords();
+		for (int i = 0; i < coords.length; i++) coords[i] += (random.nextDouble() - 0.5) * 0.02;
+		return new Polyhedron(p, coords, false);
+	}
+	
+	/** Returns the point on the line through the edge closest to the origin. */
+	private static Point3D tangentPoint(Polyhedron.Edge e) {
+		Point3D a = e.vertex1.point;
+		Point3D d = e.vertex2.point.subtract(a);
+		return a.add(d.multiply(-a.dotProduct(d) / d.dotProduct(d)));
+	}
+	
+	private static double tangencyError(Polyhedron p) {
+		double max = 0;
+		for (Polyhedron.Edge e : p.edges) {
+			max = Math.max(max, Math.abs(tangentPoint(e).magnitude() - 1));
+		}
+		return max;
+	}
+	
+	private static double tangencyCentroid(Polyhedron p) {
+		double x = 0, y = 0, z = 0;
+		for (Polyhedron.Edge e : p.edges) {
+			Point3D t = tangentPoint(e);
+			x += t.getX(); y += t.getY(); z += t.getZ();
+		}
+		int n = p.edges.size();
+		return new Point3D(x / n, y / n, z / n).magnitude();
+	}
+	
+	/** Returns the farthest any vertex is from the plane through the centroid of its face. */
+	private static double planarityError(Polyhedron p) {
+		double max = 0;
+		for (Polyhedron.Face f : p.faces) {
+			Point3D c = Point3D.average(f.points());
+			Point3D n = c.normal(f.points());
+			for (Point3D v : f.points()) {
+				max = Math.max(max, Math.abs(n.dotProduct(v.subtract(c))));
+			}
+		}
+		return max;
+	}
+	
+	private static boolean check(String name, String what, double value, double max) {
+		if (value <= max) return true;
+		System.out.println("FAIL: " + name + ": " + what + " " + value + " exceeds " + max);
+		return false;
+	}
+	
+	public static void main(String[] args) {
+		boolean ok = true;
+		Random random = new Random(0);
+		
+		Canonicalize canonicalize = new Canonicalize.Factory().parse(new String[0]);
+		for (String s : new String[] { "tI", "kC", "dkdkdkD" }) {
+			Polyhedron seed = construct(s);
+			Canonicalize.Result r = canonicalize.canonicalize(seed);
+			Polyhedron p = r.polyhedron;
+			System.out.println(s + ": " + r);
+			if (!r.converged) {
+				System.out.println("FAIL: " + s + ": did not converge");
+				ok = false;
+			}
+			if (p.vertices.size() != seed.vertices.size() || p.faces.size() != seed.faces.size()) {
+				System.out.println("FAIL: " + s + ": topology changed");
+				ok = false;
+			}
+			ok &= check(s, "tangency error", tangencyError(p), TOLERANCE);
+			ok &= check(s, "reported tangency error", Math.abs(r.tangencyError - tangencyError(p)), 1E-12);
+			ok &= check(s, "tangency centroid", tangencyCentroid(p), TOLERANCE);
+			ok &= check(s, "planarity error", planarityError(p), TOLERANCE);
+		}
+		
+		// Out of iterations, the result must say so and report how far from tangent it got.
+		Canonicalize.Result r = new Canonicalize(5, 1E-10).canonicalize(construct("kC"));
+		System.out.println("kC, 5 iterations: " + r);
+		if (r.converged || r.iterations != 5) {
+			System.out.println("FAIL: kC, 5 iterations: expected not converged after 5 iterations");
+			ok = false;
+		}
+		ok &= check("kC, 5 iterations", "reported tangency error", Math.abs(r.tangencyError - tangencyError(r.polyhedron)), 1E-12);
+		
+		PlanarizeFaces[] planarizers = {
+			new PlanarizeFaces(1000, 1E-12),
+			new PlanarizeFaces(1000, 1E-12, PlanarizeFaces.Update.GAUSS_SEIDEL, 1, 0),
+			new PlanarizeFaces(1000, 1E-12, PlanarizeFaces.Update.JACOBI, 1, 5),
+		};
+		String[] names = { "Jacobi", "Gauss-Seidel", "Anderson" };
+		for (String s : new String[] { "tI", "sD", "dkdkD" }) {
+			Polyhedron seed = jitter(construct(s), random);
+			if (planarityError(seed) <= TOLERANCE) {
+				System.out.println("FAIL: " + s + ": seed is already planar");
+				ok = false;
+			}
+			for (int i = 0; i < planarizers.length; i++) {
+				String name = s + ", " + names[i];
+				PlanarizeFaces.Result pr = planarizers[i].planarize(seed);
+				System.out.println(name + ": " + pr);
+				if (!pr.converged) {
+					System.out.println("FAIL: " + name + ": did not converge");
+					ok = false;
+				}
+				ok &= check(name, "planarity error", planarityError(pr.polyhedron), TOLERANCE);
+			}
+		}
+		
+		System.out.println(ok ? "PASS" : "FAIL");
+		if (!ok) System.exit(1);
+	}
+}
\ No newline at end of file
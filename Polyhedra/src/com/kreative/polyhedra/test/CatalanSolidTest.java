@@ -6,7 +6,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import com.kreative.polyhedra.Metric;
-import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MetricSummary;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.gen.CatalanSolid;
@@ -84,22 +84,23 @@ public class CatalanSolidTest {
 			System.out.print(((p.faces.size() == faceCount[index]) ? " \u001B[1;32m" : " \u001B[1;31m") + p.faces.size() + "\u001B[0m");
 			System.out.println();
 			// Get/check/print metrics
-			double irf1 = MetricAggregator.MINIMUM.aggregate(Metric.FACE_DISTANCE_TO_ORIGIN.iterator(p, Point3D.ZERO)) / f.inradiusFactor;
-			double irf2 = MetricAggregator.MAXIMUM.aggregate(Metric.FACE_DISTANCE_TO_ORIGIN.iterator(p, Point3D.ZERO)) / f.inradiusFactor;
-			double mrf1 = MetricAggregator.MINIMUM.aggregate(Metric.EDGE_DISTANCE_TO_ORIGIN.iterator(p, Point3D.ZERO)) / f.midradiusFactor;
-			double mrf2 = MetricAggregator.MAXIMUM.aggregate(Metric.EDGE_DISTANCE_TO_ORIGIN.iterator(p, Point3D.ZERO)) / f.midradiusFactor;
-			double crf1 = MetricAggregator.MINIMUM.aggregate(Metric.VERTEX_MAGNITUDE.iterator(p, Point3D.ZERO)) / f.smallCircumradiusFactor;
-			double crf2 = MetricAggregator.MAXIMUM.aggregate(Metric.VERTEX_MAGNITUDE.iterator(p, Point3D.ZERO)) / f.largeCircumradiusFactor;
-			double elf1 = MetricAggregator.MINIMUM.aggregate(Metric.EDGE_LENGTH.iterator(p, Point3D.ZERO)) / f.shortEdgeLengthFactor;
-			double elf2 = MetricAggregator.MAXIMUM.aggregate(Metric.EDGE_LENGTH.iterator(p, Point3D.ZERO)) / f.longEdgeLengthFactor;
-			double daf1 = MetricAggregator.MINIMUM.aggregate(Metric.DIHEDRAL_ANGLE.iterator(p, Point3D.ZERO)) / dihedralAngle[index];
-			double daf2 = MetricAggregator.MAXIMUM.aggregate(Metric.DIHEDRAL_ANGLE.iterator(p, Point3D.ZERO)) / dihedralAngle[index];
+			MetricSummary ms = new MetricSummary(p, Point3D.ZERO, true, Metric.FACE_DISTANCE_TO_ORIGIN, Metric.EDGE_DISTANCE_TO_ORIGIN, Metric.VERTEX_MAGNITUDE, Metric.EDGE_LENGTH, Metric.DIHEDRAL_ANGLE, Metric.VERTEX_ANGLE);
+			double irf1 = ms.minimum(Metric.FACE_DISTANCE_TO_ORIGIN) / f.inradiusFactor;
+			double irf2 = ms.maximum(Metric.FACE_DISTANCE_TO_ORIGIN) / f.inradiusFactor;
+			double mrf1 = ms.minimum(Metric.EDGE_DISTANCE_TO_ORIGIN) / f.midradiusFactor;
+			double mrf2 = ms.maximum(Metric.EDGE_DISTANCE_TO_ORIGIN) / f.midradiusFactor;
+			double crf1 = ms.minimum(Metric.VERTEX_MAGNITUDE) / f.smallCircumradiusFactor;
+			double crf2 = ms.maximum(Metric.VERTEX_MAGNITUDE) / f.largeCircumradiusFactor;
+			double elf1 = ms.minimum(Metric.EDGE_LENGTH) / f.shortEdgeLengthFactor;
+			double elf2 = ms.maximum(Metric.EDGE_LENGTH) / f.longEdgeLengthFactor;
+			double daf1 = ms.minimum(Metric.DIHEDRAL_ANGLE) / dihedralAngle[index];
+			double daf2 = ms.maximum(Metric.DIHEDRAL_ANGLE) / dihedralAngle[index];
 			double[] mtx = {irf1, irf2, mrf1, mrf2, crf1, crf2, elf1, elf2, daf1, daf2};
 			System.out.print("Metrics:");
 			for (double m : mtx) System.out.print(((1 == (float)m) ? " \u001B[1;32m" : " \u001B[1;31m") + (float)m + "\u001B[0m");
 			System.out.println();
 			// Get/check/print edge angles
-			Map<Float,Integer> angles = MetricAggregator.createHistogram(Metric.VERTEX_ANGLE.iterator(p, Point3D.ZERO));
+			Map<Float,Integer> angles = ms.histogram(Metric.VERTEX_ANGLE).toMap();
 			System.out.print("Angles:");
 			for (Map.Entry<Float,Integer> e : angles.entrySet()) {
 				Integer deg = validAngles.get(index).get(e.getKey());
@@ -0,0 +1,89 @@
+package com.kreative.polyhedra.test;
+
+import java.util.Arrays;
+import java.util.Random;
+import com.kreative.polyhedra.Histogram;
+
+public class HistogramTest {
+	private static boolean check(String name, Histogram h, double[] values, int[] counts) {
+		if (h.size() != values.length) {
+			System.out.println("FAIL: " + name + ": expected " + values.length + " clusters, got " + h.size());
+			return false;
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (h.value(i) != values[i] || h.count(i) != counts[i]) {
+				System.out.println("FAIL: " + name + ": expected " + counts[i] + " x " + values[i] + ", got " + h.count(i) + " x " + h.value(i));
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/** Groups sorted values into clusters by lattice point, as the histogram should. */
+	private static int cluster(double[] sorted, double[] lattice, double[] values, int[] counts) {
+		int n = 0;
+		for (int i = 0, j = 0; i < sorted.length; i++) {
+			while (sorted[i] >= lattice[j + 1]) j++;
+			if (n > 0 && values[n - 1] >= lattice[j]) counts[n - 1]++;
+			else { values[n] = sorted[i]; counts[n] = 1; n++; }
+		}
+		return n;
+	}
+	
+	public static void main(String[] args) {
+		boolean ok = true;
+		Random random = new Random(0);
+		int n = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+		
+		// Well separated lattice points, each jittered by much less than the tolerance.
+		double[] lattice = new double[65];
+		for (int i = 0; i < 64; i++) lattice[i] = (i - 16) / 7.0;
+		lattice[64] = Double.POSITIVE_INFINITY;
+		double jitter = Histogram.DEFAULT_TOLERANCE / 4;
+		double[] all = new double[n];
+		for (int i = 0; i < n; i++) {
+			double v = lattice[random.nextInt(64)];
+			all[i] = v + random.nextDouble() * jitter * Math.max(1, Math.abs(v));
+		}
+		double[] sorted = all.clone();
+		Arrays.sort(sorted);
+		double[] values = new double[64];
+		int[] counts = new int[64];
+		int m = cluster(sorted, lattice, values, counts);
+		values = Arrays.copyOf(values, m);
+		counts = Arrays.copyOf(counts, m);
+		
+		Histogram whole = new Histogram();
+		Histogram left = new Histogram();
+		Histogram right = new Histogram();
+		for (int i = 0; i < n; i++) {
+			whole.accept(all[i]);
+			((i < n / 3) ? left : right).accept(all[i]);
+		}
+		left.merge(right);
+		ok &= check("single", whole, values, counts);
+		ok &= check("merged", left, values, counts);
+		
+		// With no tolerance every distinct value is its own cluster.
+		Histogram distinct = new Histogram(0);
+		for (double v : all) distinct.accept(v);
+		int d = 0;
+		for (int i = 0; i < n; i++) if (i == 0 || sorted[i] != sorted[i - 1]) d++;
+		if (distinct.size() != d) {
+			System.out.println("FAIL: zero tolerance: expected " + d + " clusters, got " + distinct.size());
+			ok = false;
+		}
+		
+		// Values a few float ulps apart stay apart; values within one are counted together.
+		Histogram near = new Histogram();
+		near.accept(0.850152);
+		near.accept(0.85015225);
+		near.accept(1.0);
+		near.accept(Math.nextUp(1.0f));
+		near.accept(1.0 + 1E-9);
+		ok &= check("near", near, new double[] { 0.850152, 0.85015225, 1.0 }, new int[] { 1, 1, 3 });
+		
+		System.out.println(ok ? "PASS" : "FAIL");
+		if (!ok) System.exit(1);
+	}
+}
\ No newline at end of file
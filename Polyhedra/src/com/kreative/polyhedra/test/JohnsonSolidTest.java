@@ -4,7 +4,7 @@ import java.awt.Color;
 import java.util.HashMap;
 import java.util.Map;
 import com.kreative.polyhedra.Metric;
-import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MetricSummary;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
 import com.kreative.polyhedra.gen.JohnsonSolid;
@@ -53,15 +53,17 @@ public class JohnsonSolidTest {
 			System.out.print(((p2.edges.size() == edgeCount[index]) ? " \u001B[1;32m" : " \u001B[1;31m") + p2.edges.size() + "\u001B[0m");
 			System.out.print(((p2.faces.size() == faceCount[index]) ? " \u001B[1;32m" : " \u001B[1;31m") + p2.faces.size() + "\u001B[0m");
 			// Get/check/print edge lengths
-			double elf1 = MetricAggregator.MINIMUM.aggregate(Metric.EDGE_LENGTH.iterator(p1, Point3D.ZERO));
-			double elf2 = MetricAggregator.MAXIMUM.aggregate(Metric.EDGE_LENGTH.iterator(p1, Point3D.ZERO));
-			double elf3 = MetricAggregator.MINIMUM.aggregate(Metric.EDGE_LENGTH.iterator(p2, Point3D.ZERO)) / 2;
-			double elf4 = MetricAggregator.MAXIMUM.aggregate(Metric.EDGE_LENGTH.iterator(p2, Point3D.ZERO)) / 2;
+			MetricSummary ms1 = new MetricSummary(p1, Point3D.ZERO, Metric.EDGE_LENGTH);
+			MetricSummary ms2 = new MetricSummary(p2, Point3D.ZERO, true, Metric.EDGE_LENGTH, Metric.VERTEX_ANGLE);
+			double elf1 = ms1.minimum(Metric.EDGE_LENGTH);
+			double elf2 = ms1.maximum(Metric.EDGE_LENGTH);
+			double elf3 = ms2.minimum(Metric.EDGE_LENGTH) / 2;
+			double elf4 = ms2.maximum(Metric.EDGE_LENGTH) / 2;
 			double[] mtx = {elf1, elf2, elf3, elf4};
 			System.out.print("\t- Edges:");
 			for (double m : mtx) System.out.print(((1 == (float)m) ? " \u001B[1;32m" : " \u001B[1;31m") + (float)m + "\u001B[0m");
 			// Get/check/print edge angles
-			Map<Float,Integer> angles = MetricAggregator.createHistogram(Metric.VERTEX_ANGLE.iterator(p2, Point3D.ZERO));
+			Map<Float,Integer> angles = ms2.histogram(Metric.VERTEX_ANGLE).toMap();
 			System.out.print("\t- Angles:");
 			for (Map.Entry<Float,Integer> e : angles.entrySet()) {
 				Integer deg = validAngles.get(e.getKey());
@@ -0,0 +1,95 @@
+package com.kreative.polyhedra.test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import com.kreative.polyhedra.Metric;
+import com.kreative.polyhedra.MetricAggregator;
+import com.kreative.polyhedra.MetricSummary;
+import com.kreative.polyhedra.Point3D;
+import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.gen.Construct;
+
+public class MetricSummaryBenchmark {
+	private static final int ROUNDS = 10;
+	
+	private static boolean same(double a, double b) {
+		return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+	}
+	
+	/** Checks that the value lies between the exact quantiles 0.5 - error and 0.5 + error. */
+	private static boolean withinRank(double[] sorted, double value, double error) {
+		if (sorted.length == 0) return value == 0;
+		int lo = (int)Math.floor((0.5 - error) * (sorted.length - 1));
+		int hi = (int)Math.ceil((0.5 + error) * (sorted.length - 1));
+		return value >= sorted[lo] && value <= sorted[hi];
+	}
+	
+	public static void main(String[] args) {
+		String notation = (args.length > 0) ? args[0] : "kkkkkkkI";
+		int threshold = (args.length > 1) ? Integer.parseInt(args[1]) : MetricSummary.DEFAULT_THRESHOLD;
+		Polyhedron p = new Construct.Factory().parse(new String[]{notation}).gen();
+		Point3D c = p.center();
+		Metric[] metrics = Metric.values();
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		System.out.println(
+			notation + ": " + p.vertices.size() + " vertices, " + p.edges.size() + " edges, " +
+			p.faces.size() + " faces, threshold " + threshold + ", parallelism " + pool.getParallelism()
+		);
+		
+		MetricSummary sequential = null, parallel = null, previous = null;
+		long sequentialBest = Long.MAX_VALUE, parallelBest = Long.MAX_VALUE;
+		boolean ok = true;
+		for (int r = 0; r < ROUNDS; r++) {
+			long t0 = System.nanoTime();
+			sequential = new MetricSummary(p, c, true, metrics);
+			long t1 = System.nanoTime();
+			parallel = MetricSummary.parallel(p, c, true, threshold, pool, metrics);
+			long t2 = System.nanoTime();
+			sequentialBest = Math.min(sequentialBest, t1 - t0);
+			parallelBest = Math.min(parallelBest, t2 - t1);
+			if (previous != null) {
+				for (Metric m : metrics) {
+					for (MetricAggregator agg : MetricAggregator.values()) {
+						if (!same(previous.get(m, agg), parallel.get(m, agg))) {
+							System.out.println("FAIL: " + m + " " + agg + " differs between parallel runs");
+							ok = false;
+						}
+					}
+				}
+			}
+			previous = parallel;
+		}
+		
+		double[][] sorted = new double[metrics.length][];
+		for (Metric m : metrics) {
+			sorted[m.ordinal()] = m.values(p, c);
+			Arrays.sort(sorted[m.ordinal()]);
+		}
+		for (Metric m : metrics) {
+			for (MetricAggregator agg : MetricAggregator.values()) {
+				double s = sequential.get(m, agg), q = parallel.get(m, agg);
+				boolean match;
+				switch (agg) {
+					case AVERAGE: case STDDEV: match = Math.abs(s - q) <= 1E-9 * Math.max(1, Math.abs(s)); break;
+					case MEDIAN: match = withinRank(sorted[m.ordinal()], s, 0.01) && withinRank(sorted[m.ordinal()], q, 0.01); break;
+					default: match = same(s, q); break;
+				}
+				if (!match) {
+					System.out.println("FAIL: " + m + " " + agg + ": sequential " + s + ", parallel " + q);
+					ok = false;
+				}
+			}
+			if (sequential.count(m) != parallel.count(m) || !sequential.histogram(m).toMap().equals(parallel.histogram(m).toMap())) {
+				System.out.println("FAIL: " + m + " histogram");
+				ok = false;
+			}
+		}
+		
+		System.out.println(
+			"sequential " + (sequentialBest / 1000) + " us, parallel " + (parallelBest / 1000) + " us, " +
+			String.format("%.2fx", (double)sequentialBest / parallelBest)
+		);
+		System.out.println(ok ? "PASS" : "FAIL");
+		if (!ok) System.exit(1);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.kreative.polyhedra.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import com.kreative.polyhedra.OFFWriter;
+import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.gen.Construct;
+
+public class OpConcurrencyTest {
+	private static final String[] notations = {
+		"k{-i 1,2}C", "k{-t 90}C", "k{-X 0.1}D", "t{-i 0}C", "t{-t 180}C",
+		"d{-M}tI", "d{-P}sC", "m{-x 0.1}C", "o{-x 0.2}D", "g{-t 10}D", "s{-s}I"
+	};
+	
+	private static String off(Polyhedron p) {
+		StringBuffer sb = new StringBuffer();
+		new OFFWriter(sb).writePolyhedron(p);
+		return sb.toString();
+	}
+	
+	public static void main(String[] args) throws Exception {
+		int threads = 8, runs = 64;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		for (String notation : notations) {
+			// Parse once, then apply the same instance from every thread.
+			final Construct c = new Construct.Factory().parse(new String[]{ notation });
+			String expected = off(c.gen());
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < runs; i++) {
+				results.add(pool.submit(new Callable<String>() {
+					public String call() { return off(c.gen()); }
+				}));
+			}
+			int same = 0;
+			for (Future<String> r : results) if (r.get().equals(expected)) same++;
+			System.out.print("\u001B[1;34m" + notation + "\u001B[0m");
+			System.out.println(((same == runs) ? "\t\u001B[1;32m" : "\t\u001B[1;31m") + same + "/" + runs + "\u001B[0m");
+		}
+		pool.shutdown();
+	}
+}
\ No newline at end of file
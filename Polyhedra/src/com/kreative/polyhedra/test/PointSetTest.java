@@ -0,0 +1,70 @@
+package com.kreative.polyhedra.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import com.kreative.polyhedra.Point3D;
+import com.kreative.polyhedra.PointSet;
+import com.kreative.polyhedra.gen.PointCloud;
+
+public class PointSetTest {
+	private static List<Point3D> bruteDistinct(List<Point3D> points, double epsilon) {
+		List<Point3D> distinct = new ArrayList<Point3D>();
+		outer: for (Point3D p : points) {
+			for (Point3D q : distinct) {
+				if (q.equals(p, epsilon)) continue outer;
+			}
+			distinct.add(p);
+		}
+		return distinct;
+	}
+	
+	private static List<Point3D> jittered(Random random, int count, double jitter) {
+		List<Point3D> points = new ArrayList<Point3D>();
+		for (int i = 0; i < count; i++) {
+			// Coordinates on a coarse lattice, so many points coincide.
+			Point3D p = new Point3D(random.nextInt(8) / 4.0, random.nextInt(8) / 4.0, random.nextInt(8) / 4.0);
+			points.add(p.add(random.nextDouble() * jitter, random.nextDouble() * jitter, random.nextDouble() * jitter));
+		}
+		return points;
+	}
+	
+	public static void main(String[] args) {
+		boolean ok = true;
+		Random random = new Random(0);
+		for (double epsilon : new double[] { 0, 1E-12, 1E-9, 1E-3 }) {
+			List<Point3D> points = jittered(random, 2000, epsilon / 2);
+			List<Point3D> expected = bruteDistinct(points, epsilon);
+			List<Point3D> actual = new ArrayList<Point3D>(new PointSet(points, epsilon));
+			if (!expected.equals(actual)) {
+				System.out.println("FAIL: epsilon " + epsilon + ": expected " + expected.size() + " points, got " + actual.size());
+				ok = false;
+			}
+		}
+		
+		Point3D a = new Point3D(1, 0.5, 0);
+		Point3D b = new Point3D(1 + 1E-16, 0.5 - 1E-16, -0.0);
+		List<Point3D> left = new ArrayList<Point3D>();
+		List<Point3D> right = new ArrayList<Point3D>();
+		left.add(a); right.add(b);
+		if (new PointCloud.SetUnion().op(left, right).size() != 1) { System.out.println("FAIL: union"); ok = false; }
+		if (new PointCloud.SetIntersect().op(left, right).size() != 1) { System.out.println("FAIL: intersect"); ok = false; }
+		if (new PointCloud.SetSubtract().op(left, right).size() != 0) { System.out.println("FAIL: subtract"); ok = false; }
+		if (new PointCloud.SetExclusiveOr().op(left, right).size() != 0) { System.out.println("FAIL: xor"); ok = false; }
+		
+		int n = (args.length > 0) ? Integer.parseInt(args[0]) : 500000;
+		List<Point3D> large = new ArrayList<Point3D>(n);
+		for (int i = 0; i < n; i++) {
+			large.add(new Point3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+		}
+		long t0 = System.nanoTime();
+		PointSet set = new PointSet(large);
+		set.addAll(large);
+		long t1 = System.nanoTime();
+		if (set.size() != n) { System.out.println("FAIL: expected " + n + " distinct points, got " + set.size()); ok = false; }
+		System.out.println(n + " points added twice in " + ((t1 - t0) / 1000000) + " ms");
+		
+		System.out.println(ok ? "PASS" : "FAIL");
+		if (!ok) System.exit(1);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.kreative.polyhedra.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.kreative.polyhedra.AffineTransform3D;
+import com.kreative.polyhedra.HalfEdgeMesh;
+import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.gen.Construct;
+
+public class PolyhedronTopologyTest {
+	private static final String[] notations = {
+		"T", "C", "O", "D", "I", "tC", "aD", "sI", "gO", "kD", "dtI",
+		"P5", "A6", "U5", "J17", "J27", "mC", "oD", "bT", "zI", "jC"
+	};
+	
+	private static List<Polyhedron.Edge> bruteEdges(Polyhedron p, Polyhedron.Vertex v) {
+		List<Polyhedron.Edge> edges = new ArrayList<Polyhedron.Edge>();
+		for (Polyhedron.Edge edge : p.edges) {
+			if (edge.vertex1.equals(v) || edge.vertex2.equals(v)) {
+				edges.add(edge);
+			}
+		}
+		return edges;
+	}
+	
+	private static List<Polyhedron.Face> bruteFaces(Polyhedron p, Polyhedron.Vertex v) {
+		List<Polyhedron.Face> faces = new ArrayList<Polyhedron.Face>();
+		for (Polyhedron.Face face : p.faces) {
+			if (face.vertices.contains(v)) {
+				faces.add(face);
+			}
+		}
+		return faces;
+	}
+	
+	private static List<Polyhedron.Face> bruteFaces(Polyhedron p, Polyhedron.Edge e, Polyhedron.Face f) {
+		List<Polyhedron.Face> faces = new ArrayList<Polyhedron.Face>();
+		for (Polyhedron.Face face : p.faces) {
+			if (face.equals(f)) continue;
+			if (face.edges.contains(e)) faces.add(face);
+		}
+		return faces;
+	}
+	
+	private static List<Polyhedron.Face> bruteOrderedFaces(Polyhedron p, Polyhedron.Vertex v) {
+		List<Polyhedron.Face> faces = bruteFaces(p, v);
+		List<Polyhedron.Face> orderedFaces = new ArrayList<Polyhedron.Face>();
+		Polyhedron.Face currentFace = faces.isEmpty() ? null : faces.get(0);
+		while (currentFace != null && !orderedFaces.contains(currentFace)) {
+			orderedFaces.add(currentFace);
+			int fi = currentFace.vertices.indexOf(v);
+			int fn = currentFace.vertices.size();
+			Polyhedron.Vertex fpv = currentFace.vertices.get((fi + fn - 1) % fn);
+			currentFace = null;
+			for (Polyhedron.Face g : faces) {
+				int gi = g.vertices.indexOf(v);
+				if (fpv.equals(g.vertices.get((gi + 1) % g.vertices.size()))) {
+					currentFace = g;
+					break;
+				}
+			}
+		}
+		return orderedFaces;
+	}
+	
+	private static boolean sameFan(List<Polyhedron.Face> faces, HalfEdgeMesh mesh, Polyhedron.Vertex v) {
+		if (faces.isEmpty()) return mesh.outgoingCount(v.index) == 0;
+		int h = mesh.outgoing(v.index, 0), i = 0;
+		do {
+			if (i >= faces.size() || faces.get(i++).index != mesh.face(h)) return false;
+			if (mesh.origin(h) != v.index || mesh.twin(mesh.twin(h)) != h) return false;
+			h = mesh.nextAroundVertex(h);
+		} while (h >= 0 && h != mesh.outgoing(v.index, 0));
+		return i == faces.size();
+	}
+	
+	private static boolean same(List<?> a, List<?> b) {
+		if (a.size() != b.size()) return false;
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i) != b.get(i)) return false;
+		}
+		return true;
+	}
+	
+	private static int check(Polyhedron p) {
+		int fail = 0;
+		for (Polyhedron.Vertex v : p.vertices) {
+			if (!same(bruteEdges(p, v), p.getEdges(v))) fail++;
+			if (!same(bruteFaces(p, v), p.getFaces(v))) fail++;
+		}
+		HalfEdgeMesh mesh = p.getHalfEdgeMesh();
+		for (Polyhedron.Vertex v : p.vertices) {
+			List<Polyhedron.Face> faces = bruteOrderedFaces(p, v);
+			if (!same(faces, p.getOrderedFaces(v, null))) fail++;
+			if (!sameFan(faces, mesh, v)) fail++;
+		}
+		for (Polyhedron.Edge e : p.edges) {
+			if (!same(bruteFaces(p, e, null), p.getFaces(e))) fail++;
+		}
+		for (Polyhedron.Face f : p.faces) {
+			for (Polyhedron.Edge e : f.edges) {
+				if (!same(bruteFaces(p, e, null), p.getFaces(e))) fail++;
+				if (!same(bruteFaces(p, e, f), p.getOppositeFaces(e, f))) fail++;
+			}
+		}
+		return fail;
+	}
+	
+	private static void print(String notation, String label, int fail) {
+		System.out.print("\u001B[1;34m" + notation + "\u001B[0m " + label + ":");
+		System.out.println(((fail == 0) ? " \u001B[1;32m" : " \u001B[1;31m") + fail + " mismatches\u001B[0m");
+	}
+	
+	public static void main(String[] args) {
+		AffineTransform3D tx = AffineTransform3D.getTranslateInstance(1, 2, 3);
+		for (String notation : notations) {
+			Polyhedron p = new Construct.Factory().parse(new String[]{notation}).gen();
+			print(notation, "Adjacency and fans", check(p));
+			// Check a translated copy before and after the seed has built its indexes.
+			Polyhedron q = new Polyhedron(p, tx);
+			Polyhedron r = new Polyhedron(new Construct.Factory().parse(new String[]{notation}).gen(), tx);
+			int fail = check(q) + check(r);
+			if (q.faces.size() != p.faces.size() || q.edges.size() != p.edges.size()) fail++;
+			for (int i = 0; i < p.vertices.size(); i++) {
+				if (!q.vertices.get(i).point.equals(tx.transform(p.vertices.get(i).point))) fail++;
+			}
+			for (Polyhedron.Face f : q.faces) {
+				if (f.parent != q || f.vertices.get(0).parent != q || f.edges.get(0).parent != q) fail++;
+			}
+			print(notation, "Shared topology", fail);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.kreative.polyhedra.test;
+
+import java.util.Arrays;
+import java.util.Random;
+import com.kreative.polyhedra.QuantileSketch;
+
+public class QuantileSketchTest {
+	private static final double[] QUANTILES = { 0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1 };
+	
+	private static double exactQuantile(double[] sorted, double q) {
+		double rank = q * (sorted.length - 1);
+		int lo = (int)Math.floor(rank);
+		int hi = Math.min(lo + 1, sorted.length - 1);
+		double t = rank - lo;
+		if (t == 0) return sorted[lo];
+		return sorted[lo] + (sorted[hi] - sorted[lo]) * t;
+	}
+	
+	private static double rank(double[] sorted, double value) {
+		int i = Arrays.binarySearch(sorted, value);
+		if (i < 0) i = -i - 1;
+		return i / (double)(sorted.length - 1);
+	}
+	
+	private static QuantileSketch[] sketches(double[] values, int parts) {
+		QuantileSketch whole = new QuantileSketch();
+		QuantileSketch[] split = new QuantileSketch[parts];
+		for (int i = 0; i < parts; i++) split[i] = new QuantileSketch();
+		for (int i = 0; i < values.length; i++) {
+			whole.accept(values[i]);
+			split[i % parts].accept(values[i]);
+		}
+		for (int i = 1; i < parts; i++) split[0].merge(split[i]);
+		return new QuantileSketch[] { whole, split[0] };
+	}
+	
+	public static void main(String[] args) {
+		boolean ok = true;
+		Random random = new Random(0);
+		
+		// Below capacity every value is kept, so quantiles match an exact sort.
+		double[] small = new double[QuantileSketch.DEFAULT_CAPACITY - 1];
+		for (int i = 0; i < small.length; i++) small[i] = random.nextGaussian();
+		double[] sortedSmall = small.clone();
+		Arrays.sort(sortedSmall);
+		QuantileSketch[] exact = sketches(small, 4);
+		for (QuantileSketch s : exact) {
+			if (!s.isExact() || s.count() != small.length) {
+				System.out.println("FAIL: expected exact sketch of " + small.length + " values, got " + s.count());
+				ok = false;
+			}
+			for (double q : QUANTILES) {
+				double expected = exactQuantile(sortedSmall, q);
+				double actual = s.quantile(q);
+				if (actual != expected) {
+					System.out.println("FAIL: exact quantile " + q + ": expected " + expected + ", got " + actual);
+					ok = false;
+				}
+			}
+		}
+		
+		// Above capacity quantiles are estimates; check their rank against an exact sort.
+		int n = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		double[] large = new double[n];
+		for (int i = 0; i < n; i++) large[i] = random.nextGaussian();
+		double[] sortedLarge = large.clone();
+		Arrays.sort(sortedLarge);
+		QuantileSketch[] approx = sketches(large, 8);
+		String[] names = { "single", "merged" };
+		for (int k = 0; k < approx.length; k++) {
+			QuantileSketch s = approx[k];
+			if (s.count() != n) {
+				System.out.println("FAIL: " + names[k] + ": expected count " + n + ", got " + s.count());
+				ok = false;
+			}
+			if (s.quantile(0) != sortedLarge[0] || s.quantile(1) != sortedLarge[n - 1]) {
+				System.out.println("FAIL: " + names[k] + ": minimum or maximum does not match");
+				ok = false;
+			}
+			for (double q : QUANTILES) {
+				double error = Math.abs(rank(sortedLarge, s.quantile(q)) - q);
+				if (error > 0.005) {
+					System.out.println("FAIL: " + names[k] + " quantile " + q + ": rank error " + error);
+					ok = false;
+				}
+			}
+		}
+		
+		QuantileSketch again = sketches(large, 8)[1];
+		for (double q : QUANTILES) {
+			if (again.quantile(q) != approx[1].quantile(q)) {
+				System.out.println("FAIL: quantile " + q + " differs between identical runs");
+				ok = false;
+			}
+		}
+		
+		System.out.println(ok ? "PASS" : "FAIL");
+		if (!ok) System.exit(1);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.kreative.polyhedra.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import com.kreative.polyhedra.AffineTransform3D;
+import com.kreative.polyhedra.Point3D;
+import com.kreative.polyhedra.VertexBuffer;
+
+public class VertexBufferBenchmark {
+	private static final int ROUNDS = 20;
+	
+	private static abstract class Kernel {
+		public final String name;
+		public Kernel(String name) { this.name = name; }
+		public void setup() {}
+		public abstract double scalar();
+		public abstract double buffer();
+	}
+	
+	public static void main(String[] args) {
+		int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		Random random = new Random(n);
+		final List<Point3D> points = new ArrayList<Point3D>(n);
+		final double[] coords = new double[n * 3];
+		for (int i = 0, j = 0; i < n; i++, j += 3) {
+			coords[j] = random.nextGaussian();
+			coords[j + 1] = random.nextGaussian();
+			coords[j + 2] = random.nextGaussian();
+			points.add(new Point3D(coords[j], coords[j + 1], coords[j + 2]));
+		}
+		final Point3D origin = new Point3D(0.25, -0.5, 0.75);
+		final AffineTransform3D tx = AffineTransform3D.getRotateXInstance(0.5);
+		final VertexBuffer buffer = new VertexBuffer(coords);
+		final VertexBuffer work = new VertexBuffer(n);
+		final double[] dst = new double[n];
+		Kernel[] kernels = {
+			new Kernel("average") {
+				public double scalar() { return Point3D.average(points).getX(); }
+				public double buffer() { return buffer.average().getX(); }
+			},
+			new Kernel("maxMagnitude") {
+				public double scalar() { return Point3D.maxMagnitude(points); }
+				public double buffer() { return buffer.maxMagnitude(); }
+			},
+			new Kernel("minMagnitude") {
+				public double scalar() { return Point3D.minMagnitude(points); }
+				public double buffer() { return buffer.minMagnitude(); }
+			},
+			new Kernel("distance") {
+				public double scalar() {
+					double s = 0;
+					for (Point3D p : points) s += p.distance(origin);
+					return s;
+				}
+				public double buffer() {
+					buffer.distances(origin, dst);
+					double s = 0;
+					for (double d : dst) s += d;
+					return s;
+				}
+			},
+			new Kernel("normalize") {
+				public double scalar() {
+					double s = 0;
+					for (Point3D p : points) s += p.normalize(2).getX();
+					return s;
+				}
+				public void setup() { work.set(buffer); }
+				public double buffer() {
+					work.normalize(2);
+					double s = 0;
+					for (int i = 0; i < work.size(); i++) s += work.getX(i);
+					return s;
+				}
+			},
+			new Kernel("transform") {
+				public double scalar() {
+					double s = 0;
+					for (Point3D p : points) s += tx.transform(p).getX();
+					return s;
+				}
+				public void setup() { work.set(buffer); }
+				public double buffer() {
+					work.transform(tx);
+					double s = 0;
+					for (int i = 0; i < work.size(); i++) s += work.getX(i);
+					return s;
+				}
+			}
+		};
+		System.out.println(n + " points, best of " + ROUNDS + " rounds");
+		boolean ok = true;
+		for (Kernel k : kernels) {
+			long scalarBest = Long.MAX_VALUE, bufferBest = Long.MAX_VALUE;
+			double scalarResult = 0, bufferResult = 0;
+			for (int r = 0; r < ROUNDS; r++) {
+				k.setup();
+				long t0 = System.nanoTime();
+				scalarResult = k.scalar();
+				long t1 = System.nanoTime();
+				bufferResult = k.buffer();
+				long t2 = System.nanoTime();
+				scalarBest = Math.min(scalarBest, t1 - t0);
+				bufferBest = Math.min(bufferBest, t2 - t1);
+			}
+			boolean same = Double.doubleToLongBits(scalarResult) == Double.doubleToLongBits(bufferResult);
+			if (!same) ok = false;
+			System.out.println(
+				k.name + "\t" + (scalarBest / 1000) + " us\t" + (bufferBest / 1000) + " us\t" +
+				String.format("%.2fx", (double)scalarBest / bufferBest) + (same ? "" : "\tMISMATCH")
+			);
+		}
+		if (!ok) System.exit(1);
+	}
+}
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.kreative.polyhedra.viewer;
 
-import java.awt.Color;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.PathIterator;
@@ -18,8 +17,10 @@ import javax.media.j3d.TransformGroup;
 import javax.vecmath.AxisAngle4d;
 import javax.vecmath.Vector3d;
 import com.kreative.polyhedra.AffineTransform3D;
+import com.kreative.polyhedra.Palette;
 import com.kreative.polyhedra.Point3D;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuffer;
 import com.sun.j3d.utils.geometry.Cylinder;
 import com.sun.j3d.utils.geometry.GeometryInfo;
 import com.sun.j3d.utils.geometry.NormalGenerator;
@@ -29,11 +30,15 @@ import com.sun.j3d.utils.geometry.Stripifier;
 public class Convert {
 	public static BranchGroup vertices(Polyhedron p, float r, Appearance a) {
 		if (p == null) return null;
+		return vertices(new PolyhedronBuffer(p), r, a);
+	}
+	
+	public static BranchGroup vertices(PolyhedronBuffer b, float r, Appearance a) {
+		if (b == null) return null;
 		BranchGroup g = new BranchGroup();
 		g.setCapability(BranchGroup.ALLOW_DETACH);
-		for (Polyhedron.Vertex v : p.vertices) {
-			Point3D pt = v.point;
-			Vector3d vec = new Vector3d(pt.getX(), pt.getY(), pt.getZ());
+		for (int i = 0, n = b.vertexCount(); i < n; i++) {
+			Vector3d vec = new Vector3d(b.getX(i), b.getY(i), b.getZ(i));
 			Transform3D tx = new Transform3D(); tx.setTranslation(vec);
 			TransformGroup tg = new TransformGroup(tx);
 			tg.addChild(new Sphere(r, a));
@@ -44,17 +49,25 @@ public class Convert {
 	
 	public static BranchGroup edges(Polyhedron p, float r, Appearance a) {
 		if (p == null) return null;
+		return edges(new PolyhedronBuffer(p), r, a);
+	}
+	
+	public static BranchGroup edges(PolyhedronBuffer b, float r, Appearance a) {
+		if (b == null) return null;
 		BranchGroup g = new BranchGroup();
 		g.setCapability(BranchGroup.ALLOW_DETACH);
 		Vector3d y = new Vector3d(0, 1, 0);
-		for (Polyhedron.Edge e : p.edges) {
-			float h = (float)e.length();
+		int[] edges = b.edges();
+		for (int i = 0; i < edges.length; i += 2) {
+			Point3D p1 = new Point3D(b.getX(edges[i]), b.getY(edges[i]), b.getZ(edges[i]));
+			Point3D p2 = new Point3D(b.getX(edges[i + 1]), b.getY(edges[i + 1]), b.getZ(edges[i + 1]));
+			float h = (float)p1.distance(p2);
 			// Java3D blows up at zero-length edges,
 			// so don't even bother to generate them.
 			if (h == 0) continue;
-			Point3D m = e.midpoint();
+			Point3D m = p1.midpoint(p2);
 			Vector3d t = new Vector3d(m.getX(), m.getY(), m.getZ());
-			Point3D d = e.vertex2.point.subtract(e.vertex1.point);
+			Point3D d = p2.subtract(p1);
 			Vector3d v = new Vector3d(d.getX(), d.getY(), d.getZ()); v.normalize();
 			Vector3d x = new Vector3d(); x.cross(y, v);
 			AxisAngle4d aa = new AxisAngle4d(); aa.set(x, Math.acos(y.dot(v)));
@@ -69,27 +82,32 @@ public class Convert {
 	
 	public static BranchGroup faces(Polyhedron p, Appearance a) {
 		if (p == null) return null;
+		return faces(new PolyhedronBuffer(p), a);
+	}
+	
+	public static BranchGroup faces(PolyhedronBuffer b, Appearance a) {
+		if (b == null) return null;
 		BranchGroup g = new BranchGroup();
 		g.setCapability(BranchGroup.ALLOW_DETACH);
-		g.addChild(createShape3D(p, a));
+		g.addChild(createShape3D(b, a));
 		return g;
 	}
 	
-	private static Shape3D createShape3D(Polyhedron p, Appearance a) {
-		if (p == null) return null;
+	private static Shape3D createShape3D(PolyhedronBuffer b, Appearance a) {
+		if (b == null) return null;
 		
-		List<Point3D> vertices = p.points();
+		int vertexCount = b.vertexCount();
+		List<Point3D> vertices = new ArrayList<Point3D>();
 		List<List<Integer>> faces = new ArrayList<List<Integer>>();
-		List<Color> faceColors = new ArrayList<Color>();
-		for (Polyhedron.Face f : p.faces) triangulate(f, vertices, faces, faceColors);
-		if (vertices.isEmpty()) return null;
+		List<Integer> faceColors = new ArrayList<Integer>();
+		for (int f = 0, n = b.faceCount(); f < n; f++) triangulate(b, f, vertices, faces, faceColors);
+		if (vertexCount + vertices.size() == 0) return null;
 		if (faces.isEmpty()) return null;
 		if (faceColors.isEmpty()) return null;
 		
-		int vertexCount = vertices.size();
-		double[] coords = new double[vertexCount * 3];
+		double[] coords = Arrays.copyOf(b.coords, (vertexCount + vertices.size()) * 3);
 		{
-			int i = 0;
+			int i = vertexCount * 3;
 			for (Point3D v : vertices) {
 				coords[i++] = v.getX();
 				coords[i++] = v.getY();
@@ -100,29 +118,32 @@ public class Convert {
 		int indexCount = 0;
 		for (List<Integer> face : faces) indexCount += face.size();
 		int faceCount = faces.size();
-		int colorCount = faceColors.size();
 		int[] coordIndices = new int[indexCount];
 		int[] colorIndices = new int[indexCount];
 		int[] stripCounts = new int[faceCount];
 		int[] contourCounts = new int[faceCount];
-		float[] colors = new float[colorCount * 3];
+		// One color per distinct face color rather than one per triangulated face.
+		Palette palette = new Palette();
 		{
-			int vi = 0, fi = 0, ci = 0;
+			int vi = 0, fi = 0;
 			for (List<Integer> face : faces) {
+				int colorIndex = palette.add(faceColors.get(fi) | 0xFF000000);
 				for (int index : face) {
 					coordIndices[vi] = index;
-					colorIndices[vi] = fi;
+					colorIndices[vi] = colorIndex;
 					vi++;
 				}
 				stripCounts[fi] = face.size();
 				contourCounts[fi] = 1;
 				fi++;
 			}
-			for (Color color : faceColors) {
-				colors[ci++] = color.getRed() / 255f;
-				colors[ci++] = color.getGreen() / 255f;
-				colors[ci++] = color.getBlue() / 255f;
-			}
+		}
+		float[] colors = new float[palette.size() * 3];
+		for (int i = 0, ci = 0, n = palette.size(); i < n; i++) {
+			int color = palette.getRGB(i);
+			colors[ci++] = ((color >> 16) & 0xFF) / 255f;
+			colors[ci++] = ((color >> 8) & 0xFF) / 255f;
+			colors[ci++] = (color & 0xFF) / 255f;
 		}
 		
 		GeometryInfo gi = new GeometryInfo(GeometryInfo.POLYGON_ARRAY);
@@ -138,16 +159,23 @@ public class Convert {
 	}
 	
 	private static void triangulate(
-		Polyhedron.Face face,
+		PolyhedronBuffer b, int f,
 		List<Point3D> vertices,
 		List<List<Integer>> faces,
-		List<Color> faceColors
+		List<Integer> faceColors
 	) {
 		// Java3D blows up at polygons of fewer than 3 vertices,
 		// so don't even bother to generate them.
-		if (face.vertices.size() < 3) return;
+		int start = b.faceOffsets[f], n = b.faceOffsets[f + 1] - start;
+		if (n < 3) return;
 		
-		List<Point3D> facePoints = face.points();
+		int vertexCount = b.vertexCount();
+		int color = b.colors[f];
+		List<Point3D> facePoints = new ArrayList<Point3D>(n);
+		for (int j = 0; j < n; j++) {
+			int index = b.indices[start + j] % vertexCount;
+			facePoints.add(new Point3D(b.getX(index), b.getY(index), b.getZ(index)));
+		}
 		Point3D center = Point3D.average(facePoints);
 		Point3D normal = center.normal(facePoints);
 		double azimuth = Math.atan2(normal.getX(), normal.getZ());
@@ -162,12 +190,13 @@ public class Convert {
 		HashMap<Integer,Point2D.Double> transformedVertices = new HashMap<Integer,Point2D.Double>();
 		HashMap<Point2D.Float,Integer> vertexIndices = new HashMap<Point2D.Float,Integer>();
 		GeneralPath path = null;
-		for (Polyhedron.Vertex v : face.vertices) {
-			Point3D p = v.point.subtract(center);
+		for (int j = 0; j < n; j++) {
+			int index = b.indices[start + j] % vertexCount;
+			Point3D p = facePoints.get(j).subtract(center);
 			p = azimuthNeg.transform(p);
 			p = elevationPos.transform(p);
-			transformedVertices.put(v.index, new Point2D.Double(p.getX(), p.getY()));
-			vertexIndices.put(new Point2D.Float((float)p.getX(), (float)p.getY()), v.index);
+			transformedVertices.put(index, new Point2D.Double(p.getX(), p.getY()));
+			vertexIndices.put(new Point2D.Float((float)p.getX(), (float)p.getY()), index);
 			if (path == null) {
 				path = new GeneralPath(GeneralPath.WIND_NON_ZERO);
 				path.moveTo(p.getX(), p.getY());
@@ -193,7 +222,7 @@ public class Convert {
 					Point2D.Float p = new Point2D.Float((float)coords[0], (float)coords[1]);
 					Integer i = vertexIndices.get(p);
 					if (i == null) {
-						i = vertices.size();
+						i = vertexCount + vertices.size();
 						vertexIndices.put(p, i);
 						transformedVertices.put(i, new Point2D.Double(coords[0], coords[1]));
 						Point3D q = new Point3D(coords[0], coords[1], 0);
@@ -214,17 +243,17 @@ public class Convert {
 					boolean modified = true;
 					while (modified && currentFace.size() > 3) {
 						modified = false;
-						int j = 0, n = currentFace.size();
-						while (j < n) {
+						int j = 0, m = currentFace.size();
+						while (j < m) {
 							int cidx = currentFace.get(j);
-							int nidx = currentFace.get((j + 1) % n);
-							int pidx = currentFace.get((j + n - 1) % n);
+							int nidx = currentFace.get((j + 1) % m);
+							int pidx = currentFace.get((j + m - 1) % m);
 							if (containsLine(area, transformedVertices, currentFace, nidx, pidx)) {
 								faces.add(Arrays.asList(cidx, nidx, pidx));
-								faceColors.add(face.color);
+								faceColors.add(color);
 								currentFace.remove(j);
 								modified = true;
-								n--;
+								m--;
 							} else {
 								j++;
 							}
@@ -233,7 +262,7 @@ public class Convert {
 					// add leftover triangle
 					if (currentFace.size() >= 3) {
 						faces.add(currentFace);
-						faceColors.add(face.color);
+						faceColors.add(color);
 					}
 					currentFace = null;
 					break;
@@ -20,6 +20,7 @@ import javax.vecmath.Color3f;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector3f;
 import com.kreative.polyhedra.Polyhedron;
+import com.kreative.polyhedra.PolyhedronBuffer;
 import com.sun.j3d.utils.behaviors.mouse.MouseRotate;
 import com.sun.j3d.utils.behaviors.mouse.MouseTranslate;
 import com.sun.j3d.utils.behaviors.mouse.MouseWheelZoom;
@@ -31,6 +32,7 @@ public class ViewerPanel extends JPanel {
 	private static final double DEFAULT_ZOOM = 0.4;
 	
 	private Polyhedron polyhedron;
+	private PolyhedronBuffer buffer;
 	private boolean vertVisible = true;
 	private boolean edgeVisible = true;
 	private boolean faceVisible = true;
@@ -147,7 +149,7 @@ public class ViewerPanel extends JPanel {
 	public Appearance getEdgeAppearance() { return edgeAppearance; }
 	public Appearance getFaceAppearance() { return faceAppearance; }
 	
-	public void setPolyhedron(Polyhedron p) { polyhedron = p; build(true, true, true); }
+	public void setPolyhedron(Polyhedron p) { polyhedron = p; buffer = (p != null) ? new PolyhedronBuffer(p) : null; build(true, true, true); }
 	public void setVerticesVisible (boolean v) { vertVisible = v; build(false, false, false); }
 	public void setEdgesVisible(boolean v) { edgeVisible = v; build(false, false, false); }
 	public void setFacesVisible(boolean v) { faceVisible = v; build(false, false, false); }
@@ -164,9 +166,9 @@ public class ViewerPanel extends JPanel {
 			faceNode = null;
 			geometryGroup.removeAllChildren();
 		} else {
-			if (vertices) vertNode = Convert.vertices(polyhedron, vertRadius, vertAppearance);
-			if (edges) edgeNode = Convert.edges(polyhedron, edgeRadius, edgeAppearance);
-			if (faces) faceNode = Convert.faces(polyhedron, faceAppearance);
+			if (vertices) vertNode = Convert.vertices(buffer, vertRadius, vertAppearance);
+			if (edges) edgeNode = Convert.edges(buffer, edgeRadius, edgeAppearance);
+			if (faces) faceNode = Convert.faces(buffer, faceAppearance);
 			geometryGroup.removeAllChildren();
 			if (vertVisible) geometryGroup.addChild(vertNode);
 			if (edgeVisible) geometryGroup.addChild(edgeNode);